@@ -0,0 +1,25 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result contains the normalized allocation rate
+ * (gc.alloc.rate.norm) next to the throughput. All JMH command line options are supported, for instance
+ * <code>java -jar target/benchmarks.jar SonarResultParser -p issues=10000</code>.
+ */
+public class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] aArgs) throws Exception {
+        CommandLineOptions theCommandLine = new CommandLineOptions(aArgs);
+        new Runner(new OptionsBuilder()
+                .parent(theCommandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
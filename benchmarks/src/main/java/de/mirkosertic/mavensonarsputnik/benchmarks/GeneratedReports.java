@@ -0,0 +1,66 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Temporary directory for the reports generated by a benchmark. Reports with a million entries are
+ * hundreds of megabytes, so they are written to disk once per trial and deleted afterwards.
+ */
+public class GeneratedReports {
+
+    private final File directory;
+
+    public GeneratedReports(String aPrefix) throws IOException {
+        directory = Files.createTempDirectory(aPrefix).toFile();
+    }
+
+    public File file(String aName) {
+        return new File(directory, aName);
+    }
+
+    public static Writer writerFor(File aFile) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(aFile), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Returns the path of the source file with the given number. Files are spread over 100 packages.
+     */
+    public static String sourceFile(int aNumber) {
+        return "src/main/java/" + packageName(aNumber).replace('.', '/') + "/" + className(aNumber) + ".java";
+    }
+
+    public static String packageName(int aNumber) {
+        return "de.example.p" + (aNumber % 100);
+    }
+
+    public static String className(int aNumber) {
+        return "Class" + aNumber;
+    }
+
+    /**
+     * Returns the paths of the files of a review changing every n-th of the given source files.
+     */
+    public static List<String> reviewedFiles(int aSourceFiles, int aReviewedFiles) {
+        List<String> theResult = new ArrayList<>();
+        int theStep = Math.max(1, aSourceFiles / aReviewedFiles);
+        for (int i = 0; i < aSourceFiles && theResult.size() < aReviewedFiles; i += theStep) {
+            theResult.add("module/" + sourceFile(i));
+        }
+        return theResult;
+    }
+
+    public void delete() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+}
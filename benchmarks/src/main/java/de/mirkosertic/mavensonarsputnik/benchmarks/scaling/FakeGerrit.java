@@ -0,0 +1,179 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-process stand-in for the parts of the Gerrit REST API used by the Gerrit connector. It serves the
+ * files of one change, and records the reviews posted to it. The login and the account of the user are
+ * answered like Gerrit does, all other requests are not found.
+ */
+public class FakeGerrit implements AutoCloseable {
+
+    /**
+     * Gerrit prefixes all JSON responses to prevent XSSI.
+     */
+    private static final String MAGIC_PREFIX = ")]}'\n";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    public static class PostedReview {
+
+        private final int payloadBytes;
+        private final int comments;
+
+        PostedReview(int aPayloadBytes, int aComments) {
+            payloadBytes = aPayloadBytes;
+            comments = aComments;
+        }
+
+        public int getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        public int getComments() {
+            return comments;
+        }
+    }
+
+    private final HttpServer server;
+    private final List<String> files;
+    private final List<PostedReview> reviews = Collections.synchronizedList(new ArrayList<>());
+
+    public FakeGerrit(List<String> aFiles) throws IOException {
+        files = aFiles;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public List<PostedReview> getReviews() {
+        synchronized (reviews) {
+            return new ArrayList<>(reviews);
+        }
+    }
+
+    private void handle(HttpExchange aExchange) throws IOException {
+        try {
+            String thePath = aExchange.getRequestURI().getPath();
+            String theMethod = aExchange.getRequestMethod();
+            byte[] theRequest;
+            try (InputStream theStream = aExchange.getRequestBody()) {
+                theRequest = IOUtils.toByteArray(theStream);
+            }
+
+            if ("GET".equals(theMethod) && (thePath.endsWith("/files") || thePath.endsWith("/files/"))) {
+                sendJson(aExchange, filesJson(files));
+            } else if ("POST".equals(theMethod) && thePath.endsWith("/review")) {
+                reviews.add(new PostedReview(theRequest.length, commentsIn(theRequest)));
+                // The result of a review without labels
+                sendJson(aExchange, "{\"labels\":{}}");
+            } else if ("GET".equals(theMethod) && thePath.endsWith("/accounts/self")) {
+                sendJson(aExchange, "{\"_account_id\":1000000,\"name\":\"Benchmark\",\"username\":\"benchmark\"}");
+            } else if ("/".equals(thePath) || thePath.startsWith("/login")) {
+                // The host page, which does not contain an XSRF token without a web session
+                send(aExchange, 200, "text/html; charset=UTF-8", "<!DOCTYPE html><html><head><title>Gerrit Code Review</title></head><body></body></html>");
+            } else {
+                send(aExchange, 404, "text/plain; charset=UTF-8", "Not found");
+            }
+        } finally {
+            aExchange.close();
+        }
+    }
+
+    private static void sendJson(HttpExchange aExchange, String aJson) throws IOException {
+        send(aExchange, 200, "application/json; charset=UTF-8", MAGIC_PREFIX + aJson);
+    }
+
+    private static void send(HttpExchange aExchange, int aStatus, String aContentType, String aBody) throws IOException {
+        byte[] theBody = aBody.getBytes(StandardCharsets.UTF_8);
+        aExchange.getResponseHeaders().set("Content-Type", aContentType);
+        aExchange.sendResponseHeaders(aStatus, theBody.length);
+        try (OutputStream theStream = aExchange.getResponseBody()) {
+            theStream.write(theBody);
+        }
+    }
+
+    /**
+     * Returns the FileInfo map of a revision changing the given files.
+     */
+    static String filesJson(List<String> aFiles) throws IOException {
+        StringWriter theResult = new StringWriter();
+        try (JsonGenerator theGenerator = JSON_FACTORY.createGenerator(theResult)) {
+            theGenerator.writeStartObject();
+            theGenerator.writeObjectFieldStart("/COMMIT_MSG");
+            theGenerator.writeStringField("status", "A");
+            writeSizes(theGenerator, 5, 200, 200);
+            theGenerator.writeEndObject();
+            for (String theFile : aFiles) {
+                theGenerator.writeObjectFieldStart(theFile);
+                writeSizes(theGenerator, 4, 120, 400);
+                theGenerator.writeEndObject();
+            }
+            theGenerator.writeEndObject();
+        }
+        return theResult.toString();
+    }
+
+    private static void writeSizes(JsonGenerator aGenerator, int aLinesInserted, int aSizeDelta, int aSize) throws IOException {
+        aGenerator.writeNumberField("lines_inserted", aLinesInserted);
+        aGenerator.writeNumberField("size_delta", aSizeDelta);
+        aGenerator.writeNumberField("size", aSize);
+    }
+
+    /**
+     * Counts the inline comments of a review, which are the objects in the arrays of the comments map.
+     */
+    static int commentsIn(byte[] aReview) throws IOException {
+        int theResult = 0;
+        try (JsonParser theParser = JSON_FACTORY.createParser(aReview)) {
+            if (theParser.nextToken() != JsonToken.START_OBJECT) {
+                return 0;
+            }
+            while (theParser.nextToken() == JsonToken.FIELD_NAME) {
+                String theName = theParser.getCurrentName();
+                JsonToken theValue = theParser.nextToken();
+                if ("comments".equals(theName) && theValue == JsonToken.START_OBJECT) {
+                    while (theParser.nextToken() == JsonToken.FIELD_NAME) {
+                        if (theParser.nextToken() == JsonToken.START_ARRAY) {
+                            while (theParser.nextToken() == JsonToken.START_OBJECT) {
+                                theResult++;
+                                theParser.skipChildren();
+                            }
+                        } else {
+                            theParser.skipChildren();
+                        }
+                    }
+                } else {
+                    theParser.skipChildren();
+                }
+            }
+        }
+        return theResult;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,86 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The parts of the sputnik-metrics.json run report written by the plugin which are needed to compare
+ * runs: the peak heap usage, and the wall time of every step summed up by category and name.
+ */
+class RunReport {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private long peakHeapBytes;
+    private final Map<String, Long> wallNanos = new TreeMap<>();
+
+    long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * Returns the wall time of all steps of a category, by name.
+     */
+    Map<String, Long> wallNanosOf(String aCategory) {
+        Map<String, Long> theResult = new TreeMap<>();
+        for (Map.Entry<String, Long> theEntry : wallNanos.entrySet()) {
+            if (theEntry.getKey().startsWith(aCategory + ":")) {
+                theResult.put(theEntry.getKey().substring(aCategory.length() + 1), theEntry.getValue());
+            }
+        }
+        return theResult;
+    }
+
+    static RunReport read(File aFile) throws IOException {
+        RunReport theReport = new RunReport();
+        try (JsonParser theParser = JSON_FACTORY.createParser(aFile)) {
+            if (theParser.nextToken() != JsonToken.START_OBJECT) {
+                return theReport;
+            }
+            while (theParser.nextToken() == JsonToken.FIELD_NAME) {
+                String theName = theParser.getCurrentName();
+                JsonToken theValue = theParser.nextToken();
+                if ("peakHeapBytes".equals(theName)) {
+                    theReport.peakHeapBytes = theParser.getLongValue();
+                } else if ("samples".equals(theName) && theValue == JsonToken.START_ARRAY) {
+                    while (theParser.nextToken() == JsonToken.START_OBJECT) {
+                        readSample(theParser, theReport);
+                    }
+                } else {
+                    theParser.skipChildren();
+                }
+            }
+        }
+        return theReport;
+    }
+
+    private static void readSample(JsonParser aParser, RunReport aReport) throws IOException {
+        String theCategory = "";
+        String theName = "";
+        long theWallNanos = 0;
+        while (aParser.nextToken() == JsonToken.FIELD_NAME) {
+            String theField = aParser.getCurrentName();
+            aParser.nextToken();
+            switch (theField) {
+                case "category":
+                    theCategory = aParser.getText();
+                    break;
+                case "name":
+                    theName = aParser.getText();
+                    break;
+                case "wallNanos":
+                    theWallNanos = aParser.getLongValue();
+                    break;
+                default:
+                    aParser.skipChildren();
+            }
+        }
+        aReport.wallNanos.merge(theCategory + ":" + theName, theWallNanos, Long::sum);
+    }
+}
@@ -0,0 +1,225 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import de.mirkosertic.mavensonarsputnik.RunMetrics;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures how a complete run of the plugin scales with the number of modules of the reactor and the size of
+ * the review. For every combination, a synthetic reactor is generated, a review is committed, and Maven runs the
+ * sputnik goal against a fake Gerrit, so no network access is needed. Maven runs offline, so the local repository
+ * must contain the plugins and dependencies used, for instance by running the benchmark once with
+ * -Dscaling.offline=false.
+ * <p>
+ * The per phase latencies and the peak heap are taken from the run report of the plugin, the size of the posted
+ * comments from the fake Gerrit. The peak heap is the high-water mark of the Maven JVM since its start, so it
+ * includes the build before the plugin runs. Results are printed and written to scaling-results.csv in the work
+ * directory.
+ * <p>
+ * Settings are passed as system properties:
+ * <ul>
+ *     <li>scaling.modules, comma separated module counts, defaults to 10,100,500</li>
+ *     <li>scaling.reviewFiles, comma separated numbers of changed files, defaults to 1,10,100</li>
+ *     <li>scaling.classesPerModule, defaults to 5</li>
+ *     <li>scaling.processors, comma separated processors to enable out of pitest, owasp and sonar, defaults to pitest</li>
+ *     <li>scaling.mavenExecutable, defaults to mvn</li>
+ *     <li>scaling.offline, defaults to true</li>
+ *     <li>scaling.workDirectory, defaults to target/scaling</li>
+ *     <li>scaling.sputnikVersion, defaults to the version of the benchmarks</li>
+ *     <li>scaling.junitVersion, the JUnit version of the generated tests, defaults to 4.8.2</li>
+ * </ul>
+ */
+public class ScalingBenchmark {
+
+    private static final String CHANGE_ID = "reactor~master~I0123456789abcdef0123456789abcdef01234567";
+
+    private final File workDirectory;
+    private final String mavenExecutable;
+    private final boolean offline;
+    private final String sputnikVersion;
+    private final String junitVersion;
+    private final int classesPerModule;
+    private final List<String> processors;
+
+    public ScalingBenchmark(File aWorkDirectory, String aMavenExecutable, boolean aOffline, String aSputnikVersion, String aJUnitVersion,
+            int aClassesPerModule, List<String> aProcessors) {
+        workDirectory = aWorkDirectory;
+        mavenExecutable = aMavenExecutable;
+        offline = aOffline;
+        sputnikVersion = aSputnikVersion;
+        junitVersion = aJUnitVersion;
+        classesPerModule = aClassesPerModule;
+        processors = aProcessors;
+    }
+
+    public static class Result {
+
+        private final int modules;
+        private final int reviewFiles;
+        private final int exitCode;
+        private final long totalNanos;
+        private final RunReport report;
+        private final List<FakeGerrit.PostedReview> reviews;
+
+        Result(int aModules, int aReviewFiles, int aExitCode, long aTotalNanos, RunReport aReport, List<FakeGerrit.PostedReview> aReviews) {
+            modules = aModules;
+            reviewFiles = aReviewFiles;
+            exitCode = aExitCode;
+            totalNanos = aTotalNanos;
+            report = aReport;
+            reviews = aReviews;
+        }
+
+        private long engineNanos() {
+            Long theEngine = report.wallNanosOf(RunMetrics.ENGINE).get("sputnik");
+            return theEngine != null ? theEngine : 0;
+        }
+
+        private int comments() {
+            int theResult = 0;
+            for (FakeGerrit.PostedReview theReview : reviews) {
+                theResult += theReview.getComments();
+            }
+            return theResult;
+        }
+
+        private long payloadBytes() {
+            long theResult = 0;
+            for (FakeGerrit.PostedReview theReview : reviews) {
+                theResult += theReview.getPayloadBytes();
+            }
+            return theResult;
+        }
+
+        private static String seconds(long aNanos) {
+            return String.format(Locale.ENGLISH, "%.3f", aNanos / 1e9);
+        }
+
+        /**
+         * Returns the processors and their wall time, as processor=seconds separated by semicolons.
+         */
+        private String processorTimes() {
+            StringBuilder theResult = new StringBuilder();
+            for (Map.Entry<String, Long> theEntry : report.wallNanosOf(RunMetrics.PROCESSOR).entrySet()) {
+                if (theResult.length() > 0) {
+                    theResult.append(';');
+                }
+                theResult.append(theEntry.getKey()).append('=').append(seconds(theEntry.getValue()));
+            }
+            return theResult.toString();
+        }
+
+        static String csvHeader() {
+            return "modules,reviewFiles,exitCode,totalSeconds,buildSeconds,engineSeconds,processorSeconds,jvmPeakHeapMB,reviews,comments,payloadBytes";
+        }
+
+        String toCsv() {
+            return modules + "," + reviewFiles + "," + exitCode + "," + seconds(totalNanos) + "," + seconds(totalNanos - engineNanos()) + ","
+                    + seconds(engineNanos()) + ",\"" + processorTimes() + "\"," + report.getPeakHeapBytes() / (1024 * 1024) + ","
+                    + reviews.size() + "," + comments() + "," + payloadBytes();
+        }
+    }
+
+    private File writeSputnikConfiguration(File aDirectory, int aPort) throws IOException {
+        StringBuilder theConfiguration = new StringBuilder();
+        theConfiguration.append("connector.type=gerrit\n");
+        theConfiguration.append("connector.host=127.0.0.1\n");
+        theConfiguration.append("connector.port=").append(aPort).append("\n");
+        theConfiguration.append("connector.path=\n");
+        theConfiguration.append("connector.username=benchmark\n");
+        theConfiguration.append("connector.password=benchmark\n");
+        theConfiguration.append("connector.useHttps=false\n");
+        theConfiguration.append("pitest.enabled=").append(processors.contains("pitest")).append("\n");
+        theConfiguration.append("owaspdependencycheck.enabled=").append(processors.contains("owasp")).append("\n");
+        theConfiguration.append("customsonar.enabled=").append(processors.contains("sonar")).append("\n");
+        File theFile = new File(aDirectory, "sputnik.properties");
+        FileUtils.writeStringToFile(theFile, theConfiguration.toString(), StandardCharsets.UTF_8);
+        return theFile;
+    }
+
+    public Result run(int aModules, int aReviewFiles) throws IOException, InterruptedException {
+        File theDirectory = new File(workDirectory, aModules + "-modules-" + aReviewFiles + "-files");
+        SyntheticReactor theReactor = new SyntheticReactor(new File(theDirectory, "reactor"), aModules, classesPerModule);
+        theReactor.generate(junitVersion);
+        List<String> theReviewFiles = theReactor.commitReview(aReviewFiles);
+
+        try (FakeGerrit theGerrit = new FakeGerrit(theReviewFiles)) {
+            File theConfiguration = writeSputnikConfiguration(theDirectory, theGerrit.getPort());
+
+            List<String> theCommand = new ArrayList<>(Arrays.asList(mavenExecutable, "-B"));
+            if (offline) {
+                theCommand.add("-o");
+            }
+            theCommand.addAll(Arrays.asList("test-compile",
+                    "de.mirkosertic.mavensonarsputnik:sputnik:" + sputnikVersion + ":sputnik",
+                    "-DsputnikConfiguration=" + theConfiguration.getAbsolutePath(),
+                    "-DgerritChangeId=" + CHANGE_ID,
+                    "-DgerritRevision=1"));
+
+            File theLog = new File(theDirectory, "build.log");
+            long theStart = System.nanoTime();
+            Process theProcess = new ProcessBuilder(theCommand)
+                    .directory(theReactor.getDirectory())
+                    .redirectErrorStream(true)
+                    .redirectOutput(theLog)
+                    .start();
+            int theExitCode = theProcess.waitFor();
+            long theTotalNanos = System.nanoTime() - theStart;
+            if (theExitCode != 0) {
+                System.out.println("Maven failed for " + aModules + " modules and " + aReviewFiles + " files, see " + theLog);
+            }
+
+            File theMetrics = new File(theReactor.getDirectory(), "target/sputnik-metrics.json");
+            RunReport theReport = theMetrics.isFile() ? RunReport.read(theMetrics) : new RunReport();
+            return new Result(aModules, aReviewFiles, theExitCode, theTotalNanos, theReport, theGerrit.getReviews());
+        }
+    }
+
+    private static int[] numbers(String aValue) {
+        String[] theValues = aValue.split(",");
+        int[] theResult = new int[theValues.length];
+        for (int i = 0; i < theValues.length; i++) {
+            theResult[i] = Integer.parseInt(theValues[i].trim());
+        }
+        return theResult;
+    }
+
+    public static void main(String[] aArgs) throws Exception {
+        String theVersion = ScalingBenchmark.class.getPackage().getImplementationVersion();
+        File theWorkDirectory = new File(System.getProperty("scaling.workDirectory", "target/scaling")).getAbsoluteFile();
+        ScalingBenchmark theBenchmark = new ScalingBenchmark(
+                theWorkDirectory,
+                System.getProperty("scaling.mavenExecutable", "mvn"),
+                Boolean.parseBoolean(System.getProperty("scaling.offline", "true")),
+                System.getProperty("scaling.sputnikVersion", theVersion),
+                System.getProperty("scaling.junitVersion", "4.8.2"),
+                Integer.parseInt(System.getProperty("scaling.classesPerModule", "5")),
+                Arrays.asList(System.getProperty("scaling.processors", "pitest").split(",")));
+        if (theBenchmark.sputnikVersion == null) {
+            throw new IllegalStateException("Unknown plugin version, please set scaling.sputnikVersion");
+        }
+
+        theWorkDirectory.mkdirs();
+        try (PrintWriter theResults = new PrintWriter(new File(theWorkDirectory, "scaling-results.csv"), "UTF-8")) {
+            theResults.println(Result.csvHeader());
+            System.out.println(Result.csvHeader());
+            for (int theModules : numbers(System.getProperty("scaling.modules", "10,100,500"))) {
+                for (int theReviewFiles : numbers(System.getProperty("scaling.reviewFiles", "1,10,100"))) {
+                    String theRow = theBenchmark.run(theModules, theReviewFiles).toCsv();
+                    theResults.println(theRow);
+                    theResults.flush();
+                    System.out.println(theRow);
+                }
+            }
+        }
+    }
+}
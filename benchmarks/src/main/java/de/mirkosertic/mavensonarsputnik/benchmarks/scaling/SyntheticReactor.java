@@ -0,0 +1,193 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A generated multi module Maven project in a git repository. Every module has a few classes with
+ * tests, and depends on another module, so the reactor has a dependency graph like a real project.
+ * A review is a second commit changing some of the classes, which are spread over all modules.
+ */
+public class SyntheticReactor {
+
+    private final File directory;
+    private final int modules;
+    private final int classesPerModule;
+
+    public SyntheticReactor(File aDirectory, int aModules, int aClassesPerModule) {
+        directory = aDirectory;
+        modules = aModules;
+        classesPerModule = aClassesPerModule;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private static String moduleName(int aModule) {
+        return String.format("module%03d", aModule);
+    }
+
+    private static String packageName(int aModule) {
+        return "de.example." + moduleName(aModule);
+    }
+
+    private static String className(int aClass) {
+        return "Service" + aClass;
+    }
+
+    /**
+     * Returns the path of a source file relative to the reactor, as reported by Gerrit.
+     */
+    public String sourceFile(int aModule, int aClass) {
+        return moduleName(aModule) + "/src/main/java/" + packageName(aModule).replace('.', '/') + "/" + className(aClass) + ".java";
+    }
+
+    private void write(String aPath, String aContent) throws IOException {
+        FileUtils.writeStringToFile(new File(directory, aPath), aContent, StandardCharsets.UTF_8);
+    }
+
+    public void generate(String aJUnitVersion) throws IOException, InterruptedException {
+        FileUtils.deleteDirectory(directory);
+        directory.mkdirs();
+
+        StringBuilder theModules = new StringBuilder();
+        for (int i = 0; i < modules; i++) {
+            theModules.append("        <module>").append(moduleName(i)).append("</module>\n");
+        }
+        write("pom.xml", "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "    <modelVersion>4.0.0</modelVersion>\n"
+                + "    <groupId>de.example</groupId>\n"
+                + "    <artifactId>reactor</artifactId>\n"
+                + "    <version>1.0-SNAPSHOT</version>\n"
+                + "    <packaging>pom</packaging>\n"
+                + "    <properties>\n"
+                + "        <project.build.sourceEncoding>UTF-8</project.build.sourceEncoding>\n"
+                + "    </properties>\n"
+                + "    <modules>\n" + theModules + "    </modules>\n"
+                // The same compiler plugin as the plugin build, so its local repository is enough to run offline
+                + "    <build>\n"
+                + "        <plugins>\n"
+                + "            <plugin>\n"
+                + "                <groupId>org.apache.maven.plugins</groupId>\n"
+                + "                <artifactId>maven-compiler-plugin</artifactId>\n"
+                + "                <version>3.3</version>\n"
+                + "                <configuration>\n"
+                + "                    <source>1.8</source>\n"
+                + "                    <target>1.8</target>\n"
+                + "                </configuration>\n"
+                + "            </plugin>\n"
+                + "        </plugins>\n"
+                + "    </build>\n"
+                + "    <dependencies>\n"
+                + "        <dependency>\n"
+                + "            <groupId>junit</groupId>\n"
+                + "            <artifactId>junit</artifactId>\n"
+                + "            <version>" + aJUnitVersion + "</version>\n"
+                + "            <scope>test</scope>\n"
+                + "        </dependency>\n"
+                + "    </dependencies>\n"
+                + "</project>\n");
+
+        for (int i = 0; i < modules; i++) {
+            // Every module depends on the module at half its index, which makes the dependency graph a tree
+            String theDependency = i == 0 ? "" : "    <dependencies>\n"
+                    + "        <dependency>\n"
+                    + "            <groupId>de.example</groupId>\n"
+                    + "            <artifactId>" + moduleName(i / 2) + "</artifactId>\n"
+                    + "            <version>1.0-SNAPSHOT</version>\n"
+                    + "        </dependency>\n"
+                    + "    </dependencies>\n";
+            write(moduleName(i) + "/pom.xml", "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                    + "    <modelVersion>4.0.0</modelVersion>\n"
+                    + "    <parent>\n"
+                    + "        <groupId>de.example</groupId>\n"
+                    + "        <artifactId>reactor</artifactId>\n"
+                    + "        <version>1.0-SNAPSHOT</version>\n"
+                    + "    </parent>\n"
+                    + "    <artifactId>" + moduleName(i) + "</artifactId>\n"
+                    + theDependency
+                    + "</project>\n");
+            for (int j = 0; j < classesPerModule; j++) {
+                write(sourceFile(i, j), classSource(i, j, false));
+                write(moduleName(i) + "/src/test/java/" + packageName(i).replace('.', '/') + "/" + className(j) + "Test.java", testSource(i, j));
+            }
+        }
+
+        git("init", "-q");
+        git("add", ".");
+        git("commit", "-q", "-m", "Initial reactor");
+    }
+
+    private static String classSource(int aModule, int aClass, boolean aChanged) {
+        StringBuilder theSource = new StringBuilder();
+        theSource.append("package ").append(packageName(aModule)).append(";\n\n");
+        theSource.append("public class ").append(className(aClass)).append(" {\n\n");
+        theSource.append("    public int compute(int aValue) {\n");
+        theSource.append("        if (aValue > ").append(aClass).append(") {\n");
+        theSource.append("            return aValue * 2 + ").append(aModule).append(";\n");
+        theSource.append("        }\n");
+        theSource.append("        return aValue - 1;\n");
+        theSource.append("    }\n");
+        if (aChanged) {
+            // Changed code which is not covered by the tests, so the review gets mutation findings
+            theSource.append("\n    public boolean isLarge(int aValue) {\n");
+            theSource.append("        return aValue > 1000 && aValue % 2 == 0;\n");
+            theSource.append("    }\n");
+        }
+        theSource.append("}\n");
+        return theSource.toString();
+    }
+
+    private static String testSource(int aModule, int aClass) {
+        return "package " + packageName(aModule) + ";\n\n"
+                + "import org.junit.Assert;\n"
+                + "import org.junit.Test;\n\n"
+                + "public class " + className(aClass) + "Test {\n\n"
+                + "    @Test\n"
+                + "    public void testCompute() {\n"
+                + "        Assert.assertEquals(" + (2 * (aClass + 1) + aModule) + ", new " + className(aClass) + "().compute(" + (aClass + 1) + "));\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    /**
+     * Changes the given number of classes in a new commit, and returns the changed files. The changed
+     * classes are spread evenly over the modules.
+     */
+    public List<String> commitReview(int aFiles) throws IOException, InterruptedException {
+        List<String> theResult = new ArrayList<>();
+        int theFiles = Math.min(aFiles, modules * classesPerModule);
+        for (int i = 0; i < theFiles; i++) {
+            int theModule = i % modules;
+            int theClass = i / modules;
+            String theFile = sourceFile(theModule, theClass);
+            write(theFile, classSource(theModule, theClass, true));
+            theResult.add(theFile);
+        }
+        git("add", ".");
+        git("commit", "-q", "-m", "Review changing " + theFiles + " files");
+        return theResult;
+    }
+
+    private void git(String... aArguments) throws IOException, InterruptedException {
+        List<String> theCommand = new ArrayList<>(Arrays.asList("git", "-c", "user.name=Benchmark", "-c", "user.email=benchmark@example.org"));
+        theCommand.addAll(Arrays.asList(aArguments));
+        Process theProcess = new ProcessBuilder(theCommand).directory(directory).redirectErrorStream(true).start();
+        String theOutput;
+        try (InputStream theStream = theProcess.getInputStream()) {
+            theOutput = IOUtils.toString(theStream, StandardCharsets.UTF_8);
+        }
+        if (theProcess.waitFor() != 0) {
+            throw new IOException("git " + aArguments[0] + " failed : " + theOutput);
+        }
+    }
+}
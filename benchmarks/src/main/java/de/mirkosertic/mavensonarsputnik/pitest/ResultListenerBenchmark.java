@@ -0,0 +1,100 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pitest.classinfo.ClassName;
+import org.pitest.coverage.TestInfo;
+import org.pitest.functional.Option;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationResultListener;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing of the mutation results of one class by the listeners of the extended XML and the indexed
+ * record report. The output is discarded, so only the formatting of the results is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResultListenerBenchmark {
+
+    @Param({"10", "100"})
+    public int mutationsPerClass;
+
+    private ClassMutationResults results;
+    private MutationResultListener xmlListener;
+    private MutationResultListener recordListener;
+
+    private static MutationResult mutation(int aLine, DetectionStatus aStatus, String aKillingTest) {
+        Location theLocation = new Location(ClassName.fromString("de.mirkosertic.Example"), MethodName.fromString("compute"), "(I)I");
+        MutationIdentifier theId = new MutationIdentifier(theLocation, 3, "org.pitest.mutationtest.engine.gregor.mutators.MathMutator");
+        MutationDetails theDetails = new MutationDetails(theId, "Example.java", "Replaced <integer> & \"addition\"", aLine, 1);
+        theDetails.addTestsInOrder(Collections.singletonList(new TestInfo("de.mirkosertic.ExampleTest", "testCompute", 1, Option.<ClassName>none(), 1)));
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, aStatus, aKillingTest));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<MutationResult> theMutations = new ArrayList<>();
+        for (int i = 0; i < mutationsPerClass; i++) {
+            boolean theKilled = i % 2 == 0;
+            theMutations.add(mutation(i, theKilled ? DetectionStatus.KILLED : DetectionStatus.SURVIVED,
+                    theKilled ? "de.mirkosertic.ExampleTest.testCompute" : null));
+        }
+        results = new ClassMutationResults(theMutations);
+    }
+
+    /**
+     * The record listener keeps the offsets of all records for its index, so the listeners are
+     * recreated for every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void startListeners() {
+        xmlListener = new PITestResultListener(new NullWriter());
+        xmlListener.runStart();
+        recordListener = new PITestRecordResultListener(new NullWriter());
+        recordListener.runStart();
+    }
+
+    @TearDown(Level.Iteration)
+    public void endListeners() {
+        xmlListener.runEnd();
+        recordListener.runEnd();
+    }
+
+    @Benchmark
+    public void writeXMLReport() {
+        xmlListener.handleMutationResult(results);
+    }
+
+    @Benchmark
+    public void writeRecordReport() {
+        recordListener.handleMutationResult(results);
+    }
+}
@@ -0,0 +1,127 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import de.mirkosertic.mavensonarsputnik.benchmarks.GeneratedReports;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the dependency check report, and the lookup of the findings in the pom.xml declaring the
+ * dependencies. Every tenth dependency has three vulnerabilities, like a large project on an old stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DependencyCheckReportBenchmark {
+
+    @Param({"1000", "5000", "20000"})
+    public int dependencies;
+
+    private GeneratedReports reports;
+    private File report;
+    private File pom;
+    private List<OWASPDependencyCheckProcessor.Finding> findings;
+
+    private static String groupId(int aNumber) {
+        return "org.example.group" + (aNumber % 50);
+    }
+
+    private static String artifactId(int aNumber) {
+        return "artifact-" + aNumber;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        reports = new GeneratedReports("owasp-benchmark");
+        report = reports.file("dependency-check-report.xml");
+        pom = reports.file("pom.xml");
+
+        try (Writer theWriter = GeneratedReports.writerFor(report)) {
+            theWriter.write("<?xml version=\"1.0\"?>\n<analysis xmlns=\"https://jeremylong.github.io/DependencyCheck/dependency-check.1.3.xsd\">"
+                    + "<scanInfo><engineVersion>1.4.5</engineVersion></scanInfo><projectInfo><name>benchmark</name></projectInfo><dependencies>\n");
+            for (int i = 0; i < dependencies; i++) {
+                String theCoordinates = groupId(i) + ":" + artifactId(i) + ":1." + (i % 10);
+                theWriter.write("<dependency><fileName>" + artifactId(i) + ".jar</fileName><filePath>/repository/" + artifactId(i) + ".jar</filePath>"
+                        + "<md5>d41d8cd98f00b204e9800998ecf8427e</md5><sha1>da39a3ee5e6b4b0d3255bfef95601890afd80709</sha1>"
+                        + "<evidenceCollected>"
+                        + "<evidence type=\"vendor\" confidence=\"HIGH\"><source>pom</source><name>groupid</name><value>" + groupId(i) + "</value></evidence>"
+                        + "<evidence type=\"product\" confidence=\"HIGH\"><source>pom</source><name>artifactid</name><value>" + artifactId(i) + "</value></evidence>"
+                        + "<evidence type=\"version\" confidence=\"HIGH\"><source>pom</source><name>version</name><value>1." + (i % 10) + "</value></evidence>"
+                        + "</evidenceCollected><identifiers>"
+                        + "<identifier type=\"cpe\" confidence=\"HIGH\"><name>cpe:/a:example:" + artifactId(i) + ":1." + (i % 10) + "</name></identifier>"
+                        + "<identifier type=\"maven\" confidence=\"HIGHEST\"><name>(" + theCoordinates + ")</name><url>https://search.maven.org</url></identifier>"
+                        + "</identifiers>");
+                if (i % 10 == 0) {
+                    theWriter.write("<vulnerabilities>");
+                    for (int j = 0; j < 3; j++) {
+                        theWriter.write("<vulnerability source=\"NVD\"><name>CVE-2017-" + (i * 3 + j) + "</name><cvssScore>7.5</cvssScore>"
+                                + "<severity>High</severity><cwe>CWE-20 Improper Input Validation</cwe>"
+                                + "<description>Vulnerability " + j + " of " + artifactId(i) + " allows remote attackers to do bad things</description>"
+                                + "<references><reference><source>CONFIRM</source><url>https://example.org/" + i + "/" + j + "</url><name>advisory</name></reference>"
+                                + "<reference><source>BID</source><url>https://example.org/bid/" + i + "/" + j + "</url><name>bid</name></reference></references>"
+                                + "<vulnerableSoftware><software>cpe:/a:example:" + artifactId(i) + ":1." + (i % 10) + "</software></vulnerableSoftware>"
+                                + "</vulnerability>");
+                    }
+                    theWriter.write("</vulnerabilities>");
+                }
+                theWriter.write("</dependency>\n");
+            }
+            theWriter.write("</dependencies></analysis>\n");
+        }
+
+        try (Writer theWriter = GeneratedReports.writerFor(pom)) {
+            theWriter.write("<project>\n  <modelVersion>4.0.0</modelVersion>\n  <groupId>org.example.group0</groupId>\n"
+                    + "  <artifactId>benchmark</artifactId>\n  <version>1.0</version>\n  <dependencies>\n");
+            for (int i = 0; i < dependencies; i++) {
+                theWriter.write("    <dependency>\n      <groupId>" + (i % 50 == 0 ? "${project.groupId}" : groupId(i)) + "</groupId>\n"
+                        + "      <artifactId>" + artifactId(i) + "</artifactId>\n      <version>${version." + (i % 10) + "}</version>\n    </dependency>\n");
+            }
+            theWriter.write("  </dependencies>\n  <properties>\n");
+            for (int i = 0; i < 10; i++) {
+                theWriter.write("    <version." + i + ">1." + i + "</version." + i + ">\n");
+            }
+            theWriter.write("  </properties>\n</project>\n");
+        }
+
+        findings = DependencyCheckReportParser.parse(report);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reports.delete();
+    }
+
+    @Benchmark
+    public List<OWASPDependencyCheckProcessor.Finding> parseReport() throws IOException {
+        return DependencyCheckReportParser.parse(report);
+    }
+
+    @Benchmark
+    public void indexPom(Blackhole aBlackhole) throws IOException {
+        PomLineIndex theIndex = PomLineIndex.parse(pom, new Properties());
+        for (OWASPDependencyCheckProcessor.Finding theFinding : findings) {
+            aBlackhole.consume(theIndex.linesOf(theFinding.getIdentifier().getGroupId(), theFinding.getIdentifier().getArtifactId()));
+        }
+    }
+}
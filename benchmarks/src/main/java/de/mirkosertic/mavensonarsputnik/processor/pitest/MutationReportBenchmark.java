@@ -0,0 +1,139 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import de.mirkosertic.mavensonarsputnik.benchmarks.GeneratedReports;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationRecordFormat;
+import de.mirkosertic.mavensonarsputnik.pitest.PITestRecordResultListener;
+import de.mirkosertic.mavensonarsputnik.pitest.PITestResultListener;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pitest.classinfo.ClassName;
+import org.pitest.coverage.TestInfo;
+import org.pitest.functional.Option;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationResultListener;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+import pl.touk.sputnik.review.ReviewFile;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reading of the PITest mutation reports in the XML and the indexed record format, including the lookup
+ * of the review files of the mutations the PITestProcessor reports. The reports are written by the result
+ * listeners of the PITest plugins. There are 50 mutations per source file, half of them surviving or not
+ * covered, and the review changes 100 of the source files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MutationReportBenchmark {
+
+    private static final String[] STATUS = {"KILLED", "SURVIVED", "NO_COVERAGE", "KILLED"};
+    private static final Set<String> INCLUDED_STATUS = new HashSet<>(Arrays.asList("SURVIVED", "NO_COVERAGE"));
+    private static final int MUTATORS = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int mutations;
+
+    private GeneratedReports reports;
+    private File xmlReport;
+    private File recordReport;
+    private ReviewFileIndex index;
+
+    private static MutationResult mutation(int i, int aFile) {
+        DetectionStatus theStatus = DetectionStatus.valueOf(STATUS[i % STATUS.length]);
+        String theClass = GeneratedReports.packageName(aFile) + "." + GeneratedReports.className(aFile);
+        Location theLocation = new Location(ClassName.fromString(theClass), MethodName.fromString("method" + (i % 7)), "()V");
+        MutationIdentifier theId = new MutationIdentifier(theLocation, i % 5, "org.pitest.mutationtest.engine.gregor.mutators.Mutator" + (i % MUTATORS));
+        MutationDetails theDetails = new MutationDetails(theId, GeneratedReports.className(aFile) + ".java",
+                "Mutation " + (i % MUTATORS) + " of the original code", 10 + i % 50, 1);
+        theDetails.addTestsInOrder(Collections.singletonList(new TestInfo(theClass + "Test", "test" + (i % 7), 1, Option.<ClassName>none(), 1)));
+        String theKillingTest = theStatus == DetectionStatus.KILLED ? theClass + "Test.test" + (i % 7) : null;
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, theStatus, theKillingTest));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        reports = new GeneratedReports("pitest-benchmark");
+        xmlReport = reports.file("mutations.xml");
+        recordReport = reports.file(MutationRecordFormat.FILE_NAME);
+
+        // The reports are written by the listeners PITest runs, with the mutations of every class in one unit
+        int theSourceFiles = Math.max(1, mutations / 50);
+        try (Writer theXML = GeneratedReports.writerFor(xmlReport); Writer theRecords = GeneratedReports.writerFor(recordReport)) {
+            MutationResultListener theXMLListener = new PITestResultListener(theXML);
+            MutationResultListener theRecordListener = new PITestRecordResultListener(theRecords);
+            theXMLListener.runStart();
+            theRecordListener.runStart();
+            List<MutationResult> theClassMutations = new ArrayList<>();
+            for (int i = 0; i < mutations; i++) {
+                theClassMutations.add(mutation(i, i / 50 % theSourceFiles));
+                if (theClassMutations.size() == 50 || i == mutations - 1) {
+                    ClassMutationResults theResults = new ClassMutationResults(theClassMutations);
+                    theXMLListener.handleMutationResult(theResults);
+                    theRecordListener.handleMutationResult(theResults);
+                    theClassMutations = new ArrayList<>();
+                }
+            }
+            theXMLListener.runEnd();
+            theRecordListener.runEnd();
+        }
+
+        List<ReviewFile> theFiles = new ArrayList<>();
+        for (String theFile : GeneratedReports.reviewedFiles(theSourceFiles, 100)) {
+            theFiles.add(new ReviewFile(theFile));
+        }
+        index = new ReviewFileIndex(theFiles);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reports.delete();
+    }
+
+    private Consumer<MutationReportParser.Mutation> lookupTo(Blackhole aBlackhole) {
+        return theMutation -> aBlackhole.consume(index.findBySourceFile(theMutation.getPackageName(), theMutation.getSourceFile()));
+    }
+
+    @Benchmark
+    public void parseXMLReport(Blackhole aBlackhole) throws IOException, XMLStreamException {
+        new MutationReportParser(INCLUDED_STATUS, index::containsFileName).parse(xmlReport, lookupTo(aBlackhole));
+    }
+
+    @Benchmark
+    public void readRecordReport(Blackhole aBlackhole) throws IOException {
+        new MutationRecordReader(INCLUDED_STATUS, index::containsFileName).read(recordReport, lookupTo(aBlackhole));
+    }
+}
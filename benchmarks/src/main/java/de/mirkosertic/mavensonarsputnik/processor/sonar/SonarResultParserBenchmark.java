@@ -0,0 +1,97 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import de.mirkosertic.mavensonarsputnik.benchmarks.GeneratedReports;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pl.touk.sputnik.review.ReviewFile;
+import pl.touk.sputnik.review.ReviewResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the Sonar report, and the parsing the SonarProcessor does, which matches the issues against the files of a review.
+ * Issues are spread over one source file per 20 issues, and the review changes 100 of these files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SonarResultParserBenchmark {
+
+    private static final String[] SEVERITIES = {"BLOCKER", "CRITICAL", "MAJOR", "MINOR", "INFO"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int issues;
+
+    private GeneratedReports reports;
+    private File report;
+    private ReviewFileIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        reports = new GeneratedReports("sonar-benchmark");
+        report = reports.file("sonar-report.json");
+
+        int theSourceFiles = Math.max(1, issues / 20);
+        try (Writer theWriter = GeneratedReports.writerFor(report)) {
+            theWriter.write("{\"version\":\"5.6\",\"issues\":[");
+            for (int i = 0; i < issues; i++) {
+                if (i > 0) {
+                    theWriter.write(",");
+                }
+                int theFile = i % theSourceFiles;
+                theWriter.write("{\"key\":\"AV" + i + "\",\"component\":\"mod:" + GeneratedReports.sourceFile(theFile)
+                        + "\",\"line\":" + (1 + i % 500) + ",\"message\":\"Issue number " + i + " must be fixed\",\"severity\":\""
+                        + SEVERITIES[i % SEVERITIES.length] + "\",\"rule\":\"squid:S" + (i % 300) + "\",\"isNew\":" + (i % 2 == 0)
+                        + ",\"flows\":[],\"creationDate\":\"2017-01-01T00:00:00+0100\"}");
+            }
+            theWriter.write("],\"components\":[{\"key\":\"mod\",\"path\":\"module\"}");
+            for (int i = 0; i < theSourceFiles; i++) {
+                theWriter.write(",{\"key\":\"mod:" + GeneratedReports.sourceFile(i) + "\",\"path\":\"" + GeneratedReports.sourceFile(i)
+                        + "\",\"moduleKey\":\"mod\",\"status\":\"CHANGED\"}");
+            }
+            theWriter.write("],\"rules\":[]}");
+        }
+
+        List<ReviewFile> theFiles = new ArrayList<>();
+        for (String theFile : GeneratedReports.reviewedFiles(theSourceFiles, 100)) {
+            theFiles.add(new ReviewFile(theFile));
+        }
+        index = new ReviewFileIndex(theFiles);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        reports.delete();
+    }
+
+    @Benchmark
+    public void parseResults(Blackhole aBlackhole) throws IOException {
+        new SonarResultParser(report).parseResults(false, aBlackhole::consume);
+    }
+
+    @Benchmark
+    public ReviewResult parseReviewedResults() throws IOException {
+        return SonarProcessor.reviewedResultsOf(new SonarResultParser(report), true, index);
+    }
+}
@@ -0,0 +1,86 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FakeGerritTest {
+
+    private static final String REVIEW = "{\"message\":\"Done\",\"comments\":{"
+            + "\"a/A.java\":[{\"line\":1,\"message\":\"First\"},{\"line\":2,\"message\":\"Second {\\\"nested\\\":[1]}\"}],"
+            + "\"b/B.java\":[{\"line\":3,\"message\":\"Third\",\"range\":{\"start_line\":3}}]},"
+            + "\"labels\":{\"Code-Review\":-1}}";
+
+    @Test
+    public void testCommentsIn() throws IOException {
+        assertEquals(3, FakeGerrit.commentsIn(REVIEW.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0, FakeGerrit.commentsIn("{\"message\":\"No comments\",\"comments\":{}}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0, FakeGerrit.commentsIn("[]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testFilesJsonIsEscaped() throws IOException {
+        List<String> theFiles = new ArrayList<>();
+        try (JsonParser theParser = new JsonFactory().createParser(FakeGerrit.filesJson(Arrays.asList("a/\"Quoted\".java", "b\\B.java")))) {
+            assertEquals(JsonToken.START_OBJECT, theParser.nextToken());
+            while (theParser.nextToken() == JsonToken.FIELD_NAME) {
+                theFiles.add(theParser.getCurrentName());
+                theParser.nextToken();
+                theParser.skipChildren();
+            }
+        }
+        assertEquals(Arrays.asList("/COMMIT_MSG", "a/\"Quoted\".java", "b\\B.java"), theFiles);
+    }
+
+    private static String request(HttpURLConnection aConnection, String aBody) throws IOException {
+        if (aBody != null) {
+            aConnection.setRequestMethod("POST");
+            aConnection.setDoOutput(true);
+            try (OutputStream theStream = aConnection.getOutputStream()) {
+                theStream.write(aBody.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        if (aConnection.getResponseCode() >= 400) {
+            return null;
+        }
+        try (InputStream theStream = aConnection.getInputStream()) {
+            return IOUtils.toString(theStream, StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testRequests() throws IOException {
+        try (FakeGerrit theGerrit = new FakeGerrit(Collections.singletonList("a/A.java"))) {
+            String theBase = "http://127.0.0.1:" + theGerrit.getPort() + "/a/changes/project~master~I01/revisions/1/";
+
+            String theFiles = request((HttpURLConnection) new URL(theBase + "files/").openConnection(), null);
+            assertTrue(theFiles.startsWith(")]}'\n{\"/COMMIT_MSG\":"));
+            assertTrue(theFiles.contains("\"a/A.java\":{"));
+
+            assertEquals(")]}'\n{\"labels\":{}}", request((HttpURLConnection) new URL(theBase + "review").openConnection(), REVIEW));
+            assertEquals(1, theGerrit.getReviews().size());
+            assertEquals(3, theGerrit.getReviews().get(0).getComments());
+            assertEquals(REVIEW.length(), theGerrit.getReviews().get(0).getPayloadBytes());
+
+            HttpURLConnection theUnknown = (HttpURLConnection) new URL(theBase + "comments").openConnection();
+            request(theUnknown, null);
+            assertEquals(404, theUnknown.getResponseCode());
+        }
+    }
+}
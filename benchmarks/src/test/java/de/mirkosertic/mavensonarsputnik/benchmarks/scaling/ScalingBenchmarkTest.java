@@ -0,0 +1,36 @@
+package de.mirkosertic.mavensonarsputnik.benchmarks.scaling;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ScalingBenchmarkTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCsv() throws IOException {
+        File theMetrics = folder.newFile("sputnik-metrics.json");
+        FileUtils.writeStringToFile(theMetrics, "{\"started\":1,\"peakHeapBytes\":" + 300L * 1024 * 1024 + ",\"samples\":["
+                + "{\"category\":\"engine\",\"name\":\"sputnik\",\"wallNanos\":4000000000},"
+                + "{\"category\":\"processor\",\"name\":\"PITest\",\"wallNanos\":2500000000},"
+                + "{\"category\":\"processor\",\"name\":\"Sonar\",\"wallNanos\":1000000000},"
+                + "{\"category\":\"processor\",\"name\":\"Sonar\",\"wallNanos\":500000000}]}", StandardCharsets.UTF_8);
+
+        ScalingBenchmark.Result theResult = new ScalingBenchmark.Result(10, 2, 0, 10000000000L, RunReport.read(theMetrics),
+                Arrays.asList(new FakeGerrit.PostedReview(1000, 3), new FakeGerrit.PostedReview(500, 1)));
+
+        assertEquals("modules,reviewFiles,exitCode,totalSeconds,buildSeconds,engineSeconds,processorSeconds,jvmPeakHeapMB,reviews,comments,payloadBytes",
+                ScalingBenchmark.Result.csvHeader());
+        assertEquals("10,2,0,10.000,6.000,4.000,\"PITest=2.500;Sonar=1.500\",300,2,4,1500", theResult.toCsv());
+    }
+}
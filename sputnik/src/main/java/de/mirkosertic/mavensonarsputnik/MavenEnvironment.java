@@ -21,7 +21,11 @@ import java.io.File;
 
 public class MavenEnvironment {
 
-    private final static ThreadLocal<MavenEnvironment> ENVIRONMENT = new ThreadLocal();
+    /**
+     * The environment is bound to the Mojo thread, so concurrent builds in the same JVM do not see each other.
+     * Review processors are created on this thread and pass the environment to their worker threads.
+     */
+    private final static ThreadLocal<MavenEnvironment> ENVIRONMENT = new ThreadLocal<>();
 
     private final MavenSession mavenSession;
     private final BuildPluginManager buildPluginManager;
@@ -86,6 +90,17 @@ public class MavenEnvironment {
         return mavenSession;
     }
 
+    /**
+     * Creates a private view of the Maven session with the given project as the current project.
+     * Plugins must be invoked using such a view, as swapping the current project of the shared
+     * session would interfere with other processors running concurrently.
+     */
+    public MavenSession createSessionFor(MavenProject aProject) {
+        MavenSession theSession = mavenSession.clone();
+        theSession.setCurrentProject(aProject);
+        return theSession;
+    }
+
     public BuildPluginManager getBuildPluginManager() {
         return buildPluginManager;
     }
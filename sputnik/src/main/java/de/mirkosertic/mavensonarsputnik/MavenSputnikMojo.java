@@ -32,6 +32,7 @@ import pl.touk.sputnik.engine.Engine;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.Properties;
 
@@ -95,6 +96,18 @@ public class MavenSputnikMojo extends AbstractMojo {
     @Component(hint = "mng-4384")
     private SecDispatcher securityDispatcher;
 
+    /**
+     * The machine readable report of the timings and allocations of the run.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/sputnik-metrics.json", property = "sputnikMetricsFile")
+    private File metricsFile;
+
+    /**
+     * The metrics of the run in the Prometheus text format, to be picked up by the node exporter textfile collector.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/sputnik-metrics.prom", property = "sputnikPrometheusFile")
+    private File prometheusFile;
+
     public void execute() throws MojoExecutionException, MojoFailureException {
 
         try {
@@ -140,12 +153,31 @@ public class MavenSputnikMojo extends AbstractMojo {
 
             Configuration theConfiguration = ConfigurationBuilder.initFromProperties(theSputnikProperties);
 
+            RunMetrics.initialize();
+
             ConnectorFacade facade = getConnectorFacade(theConfiguration);
-            new Engine(facade, facade, theConfiguration).run();
+            try (RunMetrics.Span theSpan = RunMetrics.start(RunMetrics.get(), RunMetrics.ENGINE, "sputnik")) {
+                new Engine(facade, facade, theConfiguration).run();
+            }
         } catch (Exception e) {
             throw new MojoExecutionException("Error invoking sputnik", e);
         } finally {
             MavenEnvironment.cleanUp();
+            writeMetrics();
+        }
+    }
+
+    private void writeMetrics() {
+        RunMetrics theMetrics = RunMetrics.get();
+        if (theMetrics == null) {
+            return;
+        }
+        RunMetrics.cleanUp();
+        try {
+            theMetrics.write(metricsFile, prometheusFile);
+            getLog().info("Run metrics written to " + metricsFile + " and " + prometheusFile);
+        } catch (IOException e) {
+            getLog().warn("Cannot write the run metrics", e);
         }
     }
 
@@ -0,0 +1,99 @@
+package de.mirkosertic.mavensonarsputnik;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import pl.touk.sputnik.review.ReviewFile;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps the files of a review to the reactor modules owning them.
+ */
+public class ReactorScope {
+
+    private final List<MavenProject> projects;
+
+    public ReactorScope(MavenSession aSession) {
+        this(aSession.getAllProjects());
+    }
+
+    public ReactorScope(List<MavenProject> aProjects) {
+        projects = aProjects;
+    }
+
+    private static Path normalize(File aFile) {
+        return aFile.getAbsoluteFile().toPath().normalize();
+    }
+
+    private static int matchLength(Path aFile, Collection<String> aRoots) {
+        int theLongest = -1;
+        for (String theRoot : aRoots) {
+            Path theRootPath = normalize(new File(theRoot));
+            if (aFile.startsWith(theRootPath)) {
+                theLongest = Math.max(theLongest, theRootPath.getNameCount());
+            }
+        }
+        return theLongest;
+    }
+
+    /**
+     * Returns the module owning a file. Source roots take precedence, for other files
+     * like the pom.xml the module with the nearest base directory is chosen.
+     */
+    public MavenProject owningModuleOf(File aFile) {
+        Path thePath = normalize(aFile);
+
+        MavenProject theBySourceRoot = null;
+        int theBestSourceRoot = -1;
+        MavenProject theByBaseDir = null;
+        int theBestBaseDir = -1;
+        for (MavenProject theProject : projects) {
+            List<String> theRoots = new ArrayList<>(theProject.getCompileSourceRoots());
+            theRoots.addAll(theProject.getTestCompileSourceRoots());
+            int theSourceMatch = matchLength(thePath, theRoots);
+            if (theSourceMatch > theBestSourceRoot) {
+                theBestSourceRoot = theSourceMatch;
+                theBySourceRoot = theProject;
+            }
+            if (theProject.getBasedir() != null) {
+                Path theBaseDir = normalize(theProject.getBasedir());
+                if (thePath.startsWith(theBaseDir) && theBaseDir.getNameCount() > theBestBaseDir) {
+                    theBestBaseDir = theBaseDir.getNameCount();
+                    theByBaseDir = theProject;
+                }
+            }
+        }
+        return theBySourceRoot != null ? theBySourceRoot : theByBaseDir;
+    }
+
+    /**
+     * Returns the modules owning at least one of the given files, in reactor order.
+     */
+    public Set<MavenProject> modulesOwning(Collection<ReviewFile> aFiles) {
+        Set<MavenProject> theOwners = new HashSet<>();
+        for (ReviewFile theFile : aFiles) {
+            MavenProject theOwner = owningModuleOf(theFile.getIoFile());
+            if (theOwner != null) {
+                theOwners.add(theOwner);
+            }
+        }
+        return inReactorOrder(theOwners);
+    }
+
+    private Set<MavenProject> inReactorOrder(Set<MavenProject> aModules) {
+        Set<MavenProject> theResult = new LinkedHashSet<>();
+        for (MavenProject theProject : projects) {
+            if (aModules.contains(theProject)) {
+                theResult.add(theProject);
+            }
+        }
+        return theResult;
+    }
+}
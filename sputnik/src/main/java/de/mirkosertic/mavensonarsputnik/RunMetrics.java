@@ -0,0 +1,328 @@
+package de.mirkosertic.mavensonarsputnik;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wall time, CPU time and allocated bytes of the steps of a run, like the processors, the plugins
+ * they invoke and the parsing of reports. CPU time and allocations are measured for the thread
+ * running a step, so work done in forked processes, like the PITest minions, is not included.
+ * The report also contains the peak heap usage of the build.
+ * Like the MavenEnvironment, the metrics are bound to the Mojo thread. The review processors keep the
+ * metrics of the run they were created in and pass them to the spans started by their worker threads.
+ */
+public class RunMetrics {
+
+    public static final String ENGINE = "engine";
+    public static final String PROCESSOR = "processor";
+    public static final String EXECUTE_MOJO = "executeMojo";
+    public static final String ANALYSIS = "analysis";
+    public static final String PARSE = "parse";
+
+    private final static ThreadLocal<RunMetrics> METRICS = new ThreadLocal<>();
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void initialize() {
+        METRICS.set(new RunMetrics(System.currentTimeMillis()));
+    }
+
+    public static RunMetrics get() {
+        return METRICS.get();
+    }
+
+    public static void cleanUp() {
+        METRICS.remove();
+    }
+
+    /**
+     * Starts measuring a step in the current thread. Without metrics, the step is not recorded.
+     */
+    public static Span start(@Nullable RunMetrics aMetrics, String aCategory, String aName, String aModule) {
+        return new Span(aMetrics, aCategory, aName, aModule);
+    }
+
+    public static Span start(@Nullable RunMetrics aMetrics, String aCategory, String aName) {
+        return start(aMetrics, aCategory, aName, "");
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean theThreads = (com.sun.management.ThreadMXBean) THREADS;
+            if (theThreads.isThreadAllocatedMemorySupported() && theThreads.isThreadAllocatedMemoryEnabled()) {
+                return theThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    public static class Sample {
+
+        private final String category;
+        private final String name;
+        private final String module;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final long allocatedBytes;
+        private final int violations;
+        private final int reportedViolations;
+
+        Sample(String aCategory, String aName, String aModule, long aWallNanos, long aCpuNanos, long aAllocatedBytes, int aViolations,
+                int aReportedViolations) {
+            category = aCategory;
+            name = aName;
+            module = aModule;
+            wallNanos = aWallNanos;
+            cpuNanos = aCpuNanos;
+            allocatedBytes = aAllocatedBytes;
+            violations = aViolations;
+            reportedViolations = aReportedViolations;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getModule() {
+            return module;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Returns the CPU time, or -1 if it cannot be measured.
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        /**
+         * Returns the allocated bytes, or -1 if they cannot be measured.
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Returns the number of violations found by the step, or -1 if it does not find violations.
+         */
+        public int getViolations() {
+            return violations;
+        }
+
+        /**
+         * Returns the number of violations reported after the consolidation, or -1 if the step does not report violations.
+         */
+        public int getReportedViolations() {
+            return reportedViolations;
+        }
+    }
+
+    /**
+     * A running measurement, which is recorded when closed. It must be closed by the thread which started it.
+     */
+    public static class Span implements AutoCloseable {
+
+        private final RunMetrics metrics;
+        private final String category;
+        private final String name;
+        private final String module;
+        private final long startWall;
+        private final long startCpu;
+        private final long startAllocated;
+        private int violations = -1;
+        private int reportedViolations = -1;
+
+        private Span(RunMetrics aMetrics, String aCategory, String aName, String aModule) {
+            metrics = aMetrics;
+            category = aCategory;
+            name = aName;
+            module = aModule;
+            startCpu = cpuTime();
+            startAllocated = allocatedBytes();
+            startWall = System.nanoTime();
+        }
+
+        public void setViolations(int aViolations) {
+            violations = aViolations;
+        }
+
+        public void setReportedViolations(int aReportedViolations) {
+            reportedViolations = aReportedViolations;
+        }
+
+        @Override
+        public void close() {
+            long theWall = System.nanoTime() - startWall;
+            if (metrics == null) {
+                return;
+            }
+            long theCpu = cpuTime();
+            long theAllocated = allocatedBytes();
+            metrics.add(new Sample(category, name, module, theWall,
+                    startCpu < 0 || theCpu < 0 ? -1 : theCpu - startCpu,
+                    startAllocated < 0 || theAllocated < 0 ? -1 : theAllocated - startAllocated,
+                    violations, reportedViolations));
+        }
+    }
+
+    private final long started;
+    private final List<Sample> samples = new ArrayList<>();
+
+    RunMetrics(long aStarted) {
+        started = aStarted;
+    }
+
+    synchronized void add(Sample aSample) {
+        samples.add(aSample);
+    }
+
+    public synchronized List<Sample> getSamples() {
+        return Collections.unmodifiableList(new ArrayList<>(samples));
+    }
+
+    private static String json(String aValue) {
+        StringBuilder theResult = new StringBuilder("\"");
+        for (int i = 0; i < aValue.length(); i++) {
+            char theChar = aValue.charAt(i);
+            if (theChar == '"' || theChar == '\\') {
+                theResult.append('\\').append(theChar);
+            } else if (theChar < 32) {
+                theResult.append(String.format("\\u%04x", (int) theChar));
+            } else {
+                theResult.append(theChar);
+            }
+        }
+        return theResult.append('"').toString();
+    }
+
+    /**
+     * Returns the peak usage of all heap memory pools since the start of the JVM.
+     */
+    static long peakHeapBytes() {
+        long theResult = 0;
+        for (MemoryPoolMXBean thePool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (thePool.getType() == MemoryType.HEAP && thePool.getPeakUsage() != null) {
+                theResult += thePool.getPeakUsage().getUsed();
+            }
+        }
+        return theResult;
+    }
+
+    void writeJson(Writer aWriter, long aPeakHeapBytes) throws IOException {
+        aWriter.write("{\"started\":" + started + ",\"peakHeapBytes\":" + aPeakHeapBytes + ",\"samples\":[");
+        List<Sample> theSamples = getSamples();
+        for (int i = 0; i < theSamples.size(); i++) {
+            Sample theSample = theSamples.get(i);
+            aWriter.write(i == 0 ? "\n" : ",\n");
+            aWriter.write("{\"category\":" + json(theSample.getCategory())
+                    + ",\"name\":" + json(theSample.getName())
+                    + ",\"module\":" + json(theSample.getModule())
+                    + ",\"wallNanos\":" + theSample.getWallNanos()
+                    + ",\"cpuNanos\":" + theSample.getCpuNanos()
+                    + ",\"allocatedBytes\":" + theSample.getAllocatedBytes()
+                    + ",\"violations\":" + theSample.getViolations()
+                    + ",\"reportedViolations\":" + theSample.getReportedViolations() + "}");
+        }
+        aWriter.write("\n]}\n");
+    }
+
+    private static String label(String aValue) {
+        return aValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text format. Steps measured several times, like the parsing of
+     * several reports of a module, are summed up, as every series must only be written once.
+     */
+    void writePrometheus(Writer aWriter, long aPeakHeapBytes) throws IOException {
+        Map<String, long[]> theSeries = new LinkedHashMap<>();
+        for (Sample theSample : getSamples()) {
+            String theLabels = "{category=\"" + label(theSample.getCategory()) + "\",name=\"" + label(theSample.getName())
+                    + "\",module=\"" + label(theSample.getModule()) + "\"}";
+            long[] theValues = theSeries.computeIfAbsent(theLabels, k -> new long[6]);
+            theValues[0] += theSample.getWallNanos();
+            theValues[1] += Math.max(0, theSample.getCpuNanos());
+            theValues[2] += Math.max(0, theSample.getAllocatedBytes());
+            theValues[3] += Math.max(0, theSample.getViolations());
+            theValues[4] += Math.max(0, theSample.getReportedViolations());
+            theValues[5]++;
+        }
+        String[][] theMetrics = {
+                {"sputnik_step_wall_seconds", "Wall time of the step"},
+                {"sputnik_step_cpu_seconds", "CPU time of the thread running the step"},
+                {"sputnik_step_allocated_bytes", "Bytes allocated by the thread running the step"},
+                {"sputnik_step_violations", "Violations found by the step"},
+                {"sputnik_step_reported_violations", "Violations reported by the step after the consolidation"},
+                {"sputnik_step_count", "Number of times the step was run"}};
+        for (int i = 0; i < theMetrics.length; i++) {
+            aWriter.write("# HELP " + theMetrics[i][0] + " " + theMetrics[i][1] + "\n");
+            aWriter.write("# TYPE " + theMetrics[i][0] + " gauge\n");
+            for (Map.Entry<String, long[]> theEntry : theSeries.entrySet()) {
+                long theValue = theEntry.getValue()[i];
+                aWriter.write(theMetrics[i][0] + theEntry.getKey() + " "
+                        + (i < 2 ? Double.toString(theValue / 1e9) : Long.toString(theValue)) + "\n");
+            }
+        }
+        aWriter.write("# HELP sputnik_run_timestamp_seconds Start time of the run\n");
+        aWriter.write("# TYPE sputnik_run_timestamp_seconds gauge\n");
+        aWriter.write("sputnik_run_timestamp_seconds " + (started / 1000) + "\n");
+        aWriter.write("# HELP sputnik_run_peak_heap_bytes Peak heap usage of the JVM running the build\n");
+        aWriter.write("# TYPE sputnik_run_peak_heap_bytes gauge\n");
+        aWriter.write("sputnik_run_peak_heap_bytes " + aPeakHeapBytes + "\n");
+    }
+
+    /**
+     * Writes the JSON run report and the Prometheus text file. The files are replaced atomically, so an
+     * exporter picking them up never reads partial files.
+     */
+    public void write(File aJsonFile, File aPrometheusFile) throws IOException {
+        long thePeakHeapBytes = peakHeapBytes();
+        writeAtomically(aJsonFile, true, thePeakHeapBytes);
+        writeAtomically(aPrometheusFile, false, thePeakHeapBytes);
+    }
+
+    private void writeAtomically(File aFile, boolean aJson, long aPeakHeapBytes) throws IOException {
+        File theDirectory = aFile.getAbsoluteFile().getParentFile();
+        theDirectory.mkdirs();
+        File theTemp = new File(theDirectory, "." + aFile.getName() + ".tmp");
+        try (Writer theWriter = new OutputStreamWriter(new FileOutputStream(theTemp), StandardCharsets.UTF_8)) {
+            if (aJson) {
+                writeJson(theWriter, aPeakHeapBytes);
+            } else {
+                writePrometheus(theWriter, aPeakHeapBytes);
+            }
+        }
+        if (!theTemp.renameTo(aFile)) {
+            aFile.delete();
+            if (!theTemp.renameTo(aFile)) {
+                theTemp.delete();
+                throw new IOException("Cannot write " + aFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.mirkosertic.mavensonarsputnik.processor;
+
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewProcessor;
+import pl.touk.sputnik.review.ReviewResult;
+
+/**
+ * A review processor resolving the paths reported by its analysis tool through a ReviewFileIndex.
+ * A processor running several of them builds the index of the review once and passes it to all of them.
+ */
+public interface IndexedReviewProcessor extends ReviewProcessor {
+
+    ReviewResult process(Review aReview, ReviewFileIndex aIndex);
+}
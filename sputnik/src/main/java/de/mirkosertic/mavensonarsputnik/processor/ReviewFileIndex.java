@@ -0,0 +1,83 @@
+package de.mirkosertic.mavensonarsputnik.processor;
+
+import pl.touk.sputnik.review.ReviewFile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the files of a review, resolving paths reported by the analysis tools to review files.
+ * Paths are stored as a trie of reversed path segments, so a lookup by path suffix takes
+ * O(path length), independent of the number of files in the review.
+ */
+public class ReviewFileIndex {
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<ReviewFile> files = new ArrayList<>();
+    }
+
+    private final Node root = new Node();
+
+    public ReviewFileIndex(Collection<ReviewFile> aFiles) {
+        for (ReviewFile theFile : aFiles) {
+            List<String> theSegments = segmentsOf(theFile.getReviewFilename());
+            Node theNode = root;
+            for (int i = theSegments.size() - 1; i >= 0; i--) {
+                theNode = theNode.children.computeIfAbsent(theSegments.get(i), k -> new Node());
+                theNode.files.add(theFile);
+            }
+        }
+    }
+
+    static List<String> segmentsOf(String aPath) {
+        List<String> theResult = new ArrayList<>();
+        int theStart = 0;
+        int theLength = aPath.length();
+        for (int i = 0; i <= theLength; i++) {
+            if (i == theLength || aPath.charAt(i) == '/' || aPath.charAt(i) == '\\') {
+                if (i > theStart && !(i - theStart == 1 && aPath.charAt(theStart) == '.')) {
+                    theResult.add(aPath.substring(theStart, i));
+                }
+                theStart = i + 1;
+            }
+        }
+        return theResult;
+    }
+
+    /**
+     * Returns all review files whose path ends with the given path. Paths are compared
+     * by complete segments, so A.java does not match BA.java. The index is shared by the processors,
+     * so the returned list cannot be modified.
+     */
+    public List<ReviewFile> findBySuffix(String aPath) {
+        List<String> theSegments = segmentsOf(aPath);
+        if (theSegments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node theNode = root;
+        for (int i = theSegments.size() - 1; i >= 0 && theNode != null; i--) {
+            theNode = theNode.children.get(theSegments.get(i));
+        }
+        return theNode != null ? Collections.unmodifiableList(theNode.files) : Collections.<ReviewFile>emptyList();
+    }
+
+    /**
+     * Returns all review files for a source file of a class, identified by the package
+     * and the name of the source file. The returned list cannot be modified.
+     */
+    public List<ReviewFile> findBySourceFile(String aPackageName, String aSourceFile) {
+        if (aPackageName == null || aPackageName.isEmpty()) {
+            return findBySuffix(aSourceFile);
+        }
+        return findBySuffix(aPackageName.replace('.', '/') + '/' + aSourceFile);
+    }
+
+    public boolean containsFileName(String aFileName) {
+        return root.children.containsKey(aFileName);
+    }
+}
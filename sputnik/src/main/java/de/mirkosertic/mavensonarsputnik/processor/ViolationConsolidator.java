@@ -0,0 +1,223 @@
+package de.mirkosertic.mavensonarsputnik.processor;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.touk.sputnik.configuration.Configuration;
+import pl.touk.sputnik.configuration.ConfigurationOption;
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewResult;
+import pl.touk.sputnik.review.Severity;
+import pl.touk.sputnik.review.Violation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Consolidates the violations of a review before they are published, so large reviews do not flood Gerrit.
+ * Identical violations are removed, violations on the same line are merged into one comment, and only the
+ * most severe violations of every file are kept. The review gets a message summarizing what was left out.
+ */
+@Slf4j
+public class ViolationConsolidator {
+
+    public static final ConfigurationOption CONSOLIDATION_ENABLED = new DefaultConfigurationOption("consolidation.enabled", "Remove duplicate violations, merge violations on the same line and limit the violations per file", "false");
+    public static final ConfigurationOption MERGE_LINES = new DefaultConfigurationOption("consolidation.mergeLines", "Merge the violations on the same line into one comment", "true");
+    public static final ConfigurationOption MAX_VIOLATIONS_PER_FILE = new DefaultConfigurationOption("consolidation.maxViolationsPerFile", "Maximum number of violations per file, the most severe are kept, 0 for no limit", "25");
+
+    /**
+     * Number of files listed in the summary.
+     */
+    private static final int SUMMARY_FILES = 10;
+
+    /**
+     * Rank of the severities, the most severe have the highest rank. The order of the Severity enum is not
+     * part of the Sputnik API, so the rank is explicit.
+     */
+    private static final Map<Severity, Integer> RANKS = new EnumMap<>(Severity.class);
+
+    static {
+        RANKS.put(Severity.IGNORE, 0);
+        RANKS.put(Severity.INFO, 1);
+        RANKS.put(Severity.WARNING, 2);
+        RANKS.put(Severity.ERROR, 3);
+    }
+
+    private static int rankOf(Violation aViolation) {
+        Integer theRank = aViolation.getSeverity() != null ? RANKS.get(aViolation.getSeverity()) : null;
+        return theRank != null ? theRank : 0;
+    }
+
+    private static final Comparator<Violation> LEAST_SEVERE_FIRST = Comparator.comparingInt(ViolationConsolidator::rankOf);
+
+    /**
+     * Orders violations from the least to the most important, which are the most severe, and then the
+     * first ones in the file.
+     */
+    private static final Comparator<Violation> LEAST_IMPORTANT_FIRST = (aFirst, aSecond) -> {
+        int theResult = LEAST_SEVERE_FIRST.compare(aFirst, aSecond);
+        if (theResult != 0) {
+            return theResult;
+        }
+        return Integer.compare(lineOf(aSecond), lineOf(aFirst));
+    };
+
+    private static final class Key {
+
+        private final String file;
+        private final int line;
+        private final String message;
+
+        private Key(Violation aViolation) {
+            file = aViolation.getFilenameOrJavaClassName();
+            line = lineOf(aViolation);
+            message = aViolation.getMessage();
+        }
+
+        @Override
+        public boolean equals(Object aOther) {
+            if (!(aOther instanceof Key)) {
+                return false;
+            }
+            Key theOther = (Key) aOther;
+            return line == theOther.line && Objects.equals(file, theOther.file) && Objects.equals(message, theOther.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, line, message);
+        }
+    }
+
+    private final boolean enabled;
+    private final boolean mergeLines;
+    private final int maxViolationsPerFile;
+
+    public ViolationConsolidator(boolean aEnabled, boolean aMergeLines, int aMaxViolationsPerFile) {
+        enabled = aEnabled;
+        mergeLines = aMergeLines;
+        maxViolationsPerFile = aMaxViolationsPerFile;
+    }
+
+    public ViolationConsolidator(Configuration aConfiguration) {
+        this(Boolean.parseBoolean(propertyOf(aConfiguration, CONSOLIDATION_ENABLED)),
+                Boolean.parseBoolean(propertyOf(aConfiguration, MERGE_LINES)),
+                Integer.parseInt(propertyOf(aConfiguration, MAX_VIOLATIONS_PER_FILE)));
+    }
+
+    private static String propertyOf(Configuration aConfiguration, ConfigurationOption aOption) {
+        String theValue = aConfiguration.getProperty(aOption);
+        return theValue != null ? theValue : aOption.getDefaultValue();
+    }
+
+    private static int lineOf(Violation aViolation) {
+        Integer theLine = aViolation.getLine();
+        return theLine != null ? theLine : 0;
+    }
+
+    /**
+     * Consolidates the result of a processor. The summary of the left out violations is added to the review.
+     */
+    public ReviewResult consolidate(String aProcessorName, ReviewResult aResult, Review aReview) {
+        if (!enabled || aResult == null) {
+            return aResult;
+        }
+
+        // Violations grouped by file and line, in the order they were reported
+        Map<String, Map<Integer, List<Violation>>> theFiles = new LinkedHashMap<>();
+        Set<Key> theSeen = new HashSet<>();
+        int theDuplicates = 0;
+        for (Violation theViolation : aResult.getViolations()) {
+            if (!theSeen.add(new Key(theViolation))) {
+                theDuplicates++;
+                continue;
+            }
+            theFiles.computeIfAbsent(theViolation.getFilenameOrJavaClassName(), k -> new LinkedHashMap<>())
+                    .computeIfAbsent(lineOf(theViolation), k -> new ArrayList<>())
+                    .add(theViolation);
+        }
+
+        ReviewResult theResult = new ReviewResult();
+        int theMerged = 0;
+        int theDropped = 0;
+        Map<String, Integer> theDroppedPerFile = new LinkedHashMap<>();
+        for (Map.Entry<String, Map<Integer, List<Violation>>> theFile : theFiles.entrySet()) {
+            List<Violation> theViolations = new ArrayList<>();
+            for (List<Violation> theLine : theFile.getValue().values()) {
+                if (mergeLines && theLine.size() > 1) {
+                    theMerged += theLine.size() - 1;
+                    theViolations.add(merge(theLine));
+                } else {
+                    theViolations.addAll(theLine);
+                }
+            }
+
+            if (maxViolationsPerFile > 0 && theViolations.size() > maxViolationsPerFile) {
+                PriorityQueue<Violation> theKept = new PriorityQueue<>(maxViolationsPerFile + 1, LEAST_IMPORTANT_FIRST);
+                for (Violation theViolation : theViolations) {
+                    theKept.add(theViolation);
+                    if (theKept.size() > maxViolationsPerFile) {
+                        theKept.poll();
+                    }
+                }
+                int theFileDropped = theViolations.size() - theKept.size();
+                theDropped += theFileDropped;
+                theDroppedPerFile.put(theFile.getKey(), theFileDropped);
+                theViolations = new ArrayList<>(theKept);
+            }
+
+            theViolations.sort(Comparator.comparingInt(ViolationConsolidator::lineOf));
+            theViolations.forEach(theResult::add);
+        }
+
+        if (theDuplicates > 0 || theMerged > 0 || theDropped > 0) {
+            log.info("{} : removed {} duplicate violations, merged {} violations on the same line, left out {} violations",
+                    aProcessorName, theDuplicates, theMerged, theDropped);
+        }
+        if (theDropped > 0) {
+            aReview.getMessages().add(summaryOf(aProcessorName, theDropped, theDroppedPerFile));
+        }
+        return theResult;
+    }
+
+    /**
+     * Merges the violations of one line into one violation with the highest severity, listing the
+     * messages of the most severe violations first.
+     */
+    static Violation merge(List<Violation> aViolations) {
+        List<Violation> theSorted = new ArrayList<>(aViolations);
+        theSorted.sort(Collections.reverseOrder(LEAST_SEVERE_FIRST));
+        StringBuilder theMessage = new StringBuilder();
+        for (Violation theViolation : theSorted) {
+            if (theMessage.length() > 0) {
+                theMessage.append("\n\n");
+            }
+            theMessage.append(theViolation.getMessage());
+        }
+        Violation theFirst = theSorted.get(0);
+        return new Violation(theFirst.getFilenameOrJavaClassName(), theFirst.getLine(), theMessage.toString(), theFirst.getSeverity());
+    }
+
+    private String summaryOf(String aProcessorName, int aDropped, Map<String, Integer> aDroppedPerFile) {
+        List<Map.Entry<String, Integer>> theFiles = new ArrayList<>(aDroppedPerFile.entrySet());
+        theFiles.sort(Collections.reverseOrder(Map.Entry.comparingByValue()));
+
+        StringBuilder theSummary = new StringBuilder(aProcessorName);
+        theSummary.append(" : ").append(aDropped).append(" less severe violations were left out, as only ")
+                .append(maxViolationsPerFile).append(" violations are reported per file\n");
+        for (int i = 0; i < theFiles.size() && i < SUMMARY_FILES; i++) {
+            theSummary.append("* ").append(theFiles.get(i).getKey()).append(" : ").append(theFiles.get(i).getValue()).append("\n");
+        }
+        if (theFiles.size() > SUMMARY_FILES) {
+            theSummary.append("* ").append(theFiles.size() - SUMMARY_FILES).append(" more files\n");
+        }
+        return theSummary.toString();
+    }
+}
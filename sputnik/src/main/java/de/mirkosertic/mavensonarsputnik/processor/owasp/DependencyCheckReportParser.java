@@ -0,0 +1,150 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for the XML report of the dependency check. Most dependencies of a report are
+ * not vulnerable, so only the Maven identifiers of a dependency are kept while it is read, and the
+ * vulnerabilities are turned into review comments as they are encountered. Findings are only created
+ * for dependencies with at least one vulnerability and one Maven identifier.
+ */
+class DependencyCheckReportParser {
+
+    private DependencyCheckReportParser() {
+    }
+
+    static List<OWASPDependencyCheckProcessor.Finding> parse(File aXMLReport) throws IOException {
+        try (InputStream theStream = new BufferedInputStream(new FileInputStream(aXMLReport))) {
+            return parse(theStream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot parse " + aXMLReport, e);
+        }
+    }
+
+    static List<OWASPDependencyCheckProcessor.Finding> parse(InputStream aStream) throws XMLStreamException {
+        List<OWASPDependencyCheckProcessor.Finding> theResult = new ArrayList<>();
+
+        XMLInputFactory theFactory = XMLInputFactory.newInstance();
+        theFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader theReader = theFactory.createXMLStreamReader(aStream);
+        try {
+            List<String> thePath = new ArrayList<>();
+            List<String> theIdentifiers = null;
+            List<String> theVulnerabilities = null;
+            boolean theMavenIdentifier = false;
+            while (theReader.hasNext()) {
+                int theEvent = theReader.next();
+                if (theEvent == XMLStreamReader.START_ELEMENT) {
+                    String theName = theReader.getLocalName();
+                    String theParent = thePath.isEmpty() ? null : thePath.get(thePath.size() - 1);
+                    if (theIdentifiers == null) {
+                        if ("dependency".equals(theName) && "dependencies".equals(theParent)) {
+                            theIdentifiers = new ArrayList<>();
+                            theVulnerabilities = new ArrayList<>();
+                        }
+                    } else if ("identifier".equals(theName)) {
+                        // Identifiers of related dependencies are included, as they share the vulnerabilities
+                        theMavenIdentifier = "maven".equals(theReader.getAttributeValue(null, "type"));
+                    } else if ("name".equals(theName) && theMavenIdentifier) {
+                        theIdentifiers.add(theReader.getElementText());
+                        continue;
+                    } else if ("vulnerability".equals(theName)) {
+                        theVulnerabilities.add(readVulnerability(theReader));
+                        continue;
+                    }
+                    thePath.add(theName);
+                } else if (theEvent == XMLStreamReader.END_ELEMENT) {
+                    thePath.remove(thePath.size() - 1);
+                    String theName = theReader.getLocalName();
+                    if ("identifier".equals(theName)) {
+                        theMavenIdentifier = false;
+                    } else if ("dependency".equals(theName) && theIdentifiers != null
+                            && "dependencies".equals(thePath.isEmpty() ? null : thePath.get(thePath.size() - 1))) {
+                        if (!theVulnerabilities.isEmpty()) {
+                            for (String theIdentifier : theIdentifiers) {
+                                theResult.add(new OWASPDependencyCheckProcessor.Finding(
+                                        new OWASPDependencyCheckProcessor.MavenIdentifier(theIdentifier), theVulnerabilities));
+                            }
+                        }
+                        theIdentifiers = null;
+                        theVulnerabilities = null;
+                    }
+                }
+            }
+        } finally {
+            theReader.close();
+        }
+        return theResult;
+    }
+
+    /**
+     * Reads a vulnerability up to its end element, and creates the review comment describing it.
+     */
+    private static String readVulnerability(XMLStreamReader aReader) throws XMLStreamException {
+        String theSeverity = "";
+        String theCWE = "";
+        String theDescription = "";
+        StringBuilder theReferences = new StringBuilder();
+        String theSource = null;
+        String theURL = null;
+
+        int theDepth = 0;
+        while (aReader.hasNext()) {
+            int theEvent = aReader.next();
+            if (theEvent == XMLStreamReader.START_ELEMENT) {
+                String theName = aReader.getLocalName();
+                if (theDepth == 0 && "severity".equals(theName)) {
+                    theSeverity = aReader.getElementText();
+                } else if (theDepth == 0 && "cwe".equals(theName)) {
+                    theCWE = aReader.getElementText();
+                } else if (theDepth == 0 && "description".equals(theName)) {
+                    theDescription = aReader.getElementText();
+                } else if (theSource != null && "source".equals(theName)) {
+                    theSource = aReader.getElementText();
+                } else if (theURL != null && "url".equals(theName)) {
+                    theURL = aReader.getElementText();
+                } else {
+                    if ("reference".equals(theName)) {
+                        theSource = "";
+                        theURL = "";
+                    }
+                    theDepth++;
+                }
+            } else if (theEvent == XMLStreamReader.END_ELEMENT) {
+                if (theDepth == 0) {
+                    break;
+                }
+                theDepth--;
+                if ("reference".equals(aReader.getLocalName())) {
+                    theReferences.append("* ").append(theSource).append(" ").append(theURL).append("\n");
+                    theSource = null;
+                    theURL = null;
+                }
+            }
+        }
+        return describe(theSeverity, theCWE, theDescription, theReferences);
+    }
+
+    static String describe(String aSeverity, String aCWE, String aDescription, CharSequence aReferences) {
+        StringBuilder theReviewComment = new StringBuilder(aSeverity);
+        theReviewComment.append(" Severity");
+        theReviewComment.append("\n\n");
+        if (aCWE.length() > 0) {
+            theReviewComment.append(aCWE);
+            theReviewComment.append(" : ");
+        }
+        theReviewComment.append(aDescription);
+        theReviewComment.append("\n\n");
+        theReviewComment.append(aReferences);
+        return theReviewComment.toString();
+    }
+}
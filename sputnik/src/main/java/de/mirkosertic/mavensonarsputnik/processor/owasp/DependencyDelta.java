@@ -0,0 +1,168 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes the dependencies a change added to a module or changed the version of, so only these
+ * need to be checked. The dependencies before the change are resolved from the pom.xml of the base
+ * revision, and the delta is checked using a generated project declaring only the delta. The base
+ * pom.xml is resolved against the current parent, so this only works if the parent is unchanged.
+ */
+@Slf4j
+class DependencyDelta {
+
+    private DependencyDelta() {
+    }
+
+    /**
+     * Returns the content of a file in the given git revision, or null if it did not exist.
+     */
+    static byte[] contentInRevision(File aFile, String aRevision) throws IOException, InterruptedException {
+        ProcessBuilder theBuilder = new ProcessBuilder("git", "show", aRevision + ":./" + aFile.getName());
+        theBuilder.directory(aFile.getParentFile());
+        theBuilder.redirectErrorStream(true);
+        Process theProcess = theBuilder.start();
+        byte[] theContent;
+        try (InputStream theStream = theProcess.getInputStream()) {
+            theContent = IOUtils.toByteArray(theStream);
+        }
+        if (theProcess.waitFor() != 0) {
+            log.info("Cannot read {} in revision {} : {}", aFile, aRevision, new String(theContent, StandardCharsets.UTF_8).trim());
+            return null;
+        }
+        return theContent;
+    }
+
+    /**
+     * Returns the revision to compare with, which is the configured revision, or the parent of the reviewed revision.
+     */
+    static String baseRevisionOf(String aConfiguredRevision, String aReviewedRevision) {
+        if (!StringUtils.isEmpty(aConfiguredRevision)) {
+            return aConfiguredRevision;
+        }
+        return (StringUtils.isEmpty(aReviewedRevision) ? "HEAD" : aReviewedRevision) + "^";
+    }
+
+    private static String valueOf(Xpp3Dom aElement, String aChild) {
+        Xpp3Dom theChild = aElement.getChild(aChild);
+        return theChild == null ? null : theChild.getValue();
+    }
+
+    /**
+     * Creates the base pom.xml of a module, to be written to the given file outside of the source tree. Its parent
+     * is resolved using the current pom.xml of the parent. Returns null if the change replaced the parent.
+     */
+    static Xpp3Dom basePomFor(byte[] aContent, MavenProject aProject, File aBaseFile) throws IOException {
+        Xpp3Dom thePom;
+        try {
+            thePom = Xpp3DomBuilder.build(new InputStreamReader(new ByteArrayInputStream(aContent), StandardCharsets.UTF_8));
+        } catch (XmlPullParserException e) {
+            throw new IOException("Cannot parse the base pom.xml of " + aProject.getFile(), e);
+        }
+        Xpp3Dom theBaseParent = thePom.getChild("parent");
+        Parent theParent = aProject.getModel().getParent();
+        if (theBaseParent == null || theParent == null) {
+            return theBaseParent == null && theParent == null ? thePom : null;
+        }
+        if (!theParent.getGroupId().equals(valueOf(theBaseParent, "groupId"))
+                || !theParent.getArtifactId().equals(valueOf(theBaseParent, "artifactId"))
+                || !theParent.getVersion().equals(valueOf(theBaseParent, "version"))) {
+            return null;
+        }
+        if (aProject.getParent() != null && aProject.getParent().getFile() != null) {
+            Xpp3Dom theRelativePath = theBaseParent.getChild("relativePath");
+            if (theRelativePath == null) {
+                theRelativePath = new Xpp3Dom("relativePath");
+                theBaseParent.addChild(theRelativePath);
+            }
+            theRelativePath.setValue(aBaseFile.getAbsoluteFile().getParentFile().toPath()
+                    .relativize(aProject.getParent().getFile().getAbsoluteFile().toPath()).toString());
+        }
+        return thePom;
+    }
+
+    static void write(Xpp3Dom aPom, File aPomXMLFile) throws IOException {
+        aPomXMLFile.getParentFile().mkdirs();
+        try (Writer theWriter = new OutputStreamWriter(new FileOutputStream(aPomXMLFile), StandardCharsets.UTF_8)) {
+            Xpp3DomWriter.write(theWriter, aPom);
+        }
+    }
+
+    /**
+     * Returns the dependencies added or changed in version, which are the dependencies after the change
+     * whose coordinates were not there before.
+     */
+    static Map<String, Artifact> of(Map<String, Artifact> aBefore, Map<String, Artifact> aAfter) {
+        Map<String, Artifact> theResult = new LinkedHashMap<>();
+        for (Map.Entry<String, Artifact> theEntry : aAfter.entrySet()) {
+            if (!aBefore.containsKey(theEntry.getKey())) {
+                theResult.put(theEntry.getKey(), theEntry.getValue());
+            }
+        }
+        return theResult;
+    }
+
+    /**
+     * Creates the model of a project declaring the given dependencies without their transitive dependencies,
+     * as these are part of the delta on their own if they changed. The repositories of the module are kept,
+     * so the dependencies can be resolved the same way.
+     */
+    static Model modelFor(MavenProject aProject, Collection<Artifact> aDelta) {
+        Model theModel = new Model();
+        theModel.setModelVersion("4.0.0");
+        theModel.setGroupId(aProject.getGroupId());
+        theModel.setArtifactId(aProject.getArtifactId() + "-dependency-delta");
+        theModel.setVersion(aProject.getVersion());
+        theModel.setPackaging("jar");
+        theModel.setRepositories(aProject.getRepositories());
+        for (Artifact theArtifact : aDelta) {
+            Dependency theDependency = new Dependency();
+            theDependency.setGroupId(theArtifact.getGroupId());
+            theDependency.setArtifactId(theArtifact.getArtifactId());
+            theDependency.setVersion(theArtifact.getBaseVersion());
+            theDependency.setType(theArtifact.getType());
+            theDependency.setClassifier(theArtifact.getClassifier());
+            theDependency.setScope(theArtifact.getScope());
+            Exclusion theExclusion = new Exclusion();
+            theExclusion.setGroupId("*");
+            theExclusion.setArtifactId("*");
+            theDependency.addExclusion(theExclusion);
+            theModel.addDependency(theDependency);
+        }
+        return theModel;
+    }
+
+    static void write(Model aModel, File aPomXMLFile) throws IOException {
+        aPomXMLFile.getParentFile().mkdirs();
+        try (OutputStream theStream = new FileOutputStream(aPomXMLFile)) {
+            new MavenXpp3Writer().write(theStream, aModel);
+        }
+    }
+}
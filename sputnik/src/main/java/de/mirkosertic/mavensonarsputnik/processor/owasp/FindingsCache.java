@@ -0,0 +1,143 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Persistent cache of the findings of a module, keyed by the hash of its resolved dependencies. The
+ * findings only depend on the dependencies and the vulnerability database, so a module whose pom.xml
+ * changed without changing its dependencies does not need to be checked again, as long as the
+ * database was not updated in the meantime. Findings are stored instead of violations, as the lines
+ * of the pom.xml change.
+ */
+@Slf4j
+class FindingsCache {
+
+    private static final String DATABASE = "database";
+    private static final String FINDINGS = "findings";
+    private static final String FINDING_PREFIX = "finding.";
+
+    private final File directory;
+
+    private int hits;
+    private int misses;
+
+    FindingsCache(File aDirectory) {
+        directory = aDirectory;
+    }
+
+    /**
+     * Computes the key of a dependency set. The order of the dependencies does not matter.
+     */
+    static String keyOf(String aPluginVersion, Collection<String> aDependencies) {
+        MessageDigest theDigest;
+        try {
+            theDigest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        theDigest.update(aPluginVersion.getBytes(StandardCharsets.UTF_8));
+        for (String theDependency : new TreeSet<>(aDependencies)) {
+            theDigest.update((byte) '\n');
+            theDigest.update(theDependency.getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder theResult = new StringBuilder();
+        for (byte theByte : theDigest.digest()) {
+            theResult.append(String.format("%02x", theByte & 0xFF));
+        }
+        return theResult.toString();
+    }
+
+    private File fileOf(String aKey) {
+        return new File(directory, aKey + ".properties");
+    }
+
+    /**
+     * Returns the findings stored for a key and database version, or null if there are none.
+     */
+    synchronized List<OWASPDependencyCheckProcessor.Finding> lookup(String aKey, long aDatabaseVersion) throws IOException {
+        File theFile = fileOf(aKey);
+        if (!theFile.isFile()) {
+            misses++;
+            return null;
+        }
+        Properties theEntry = new Properties();
+        try (InputStream theStream = new FileInputStream(theFile)) {
+            theEntry.load(theStream);
+        }
+        if (!Long.toString(aDatabaseVersion).equals(theEntry.getProperty(DATABASE))) {
+            misses++;
+            return null;
+        }
+        List<OWASPDependencyCheckProcessor.Finding> theResult = new ArrayList<>();
+        int theFindings = Integer.parseInt(theEntry.getProperty(FINDINGS, "0"));
+        for (int i = 0; i < theFindings; i++) {
+            String thePrefix = FINDING_PREFIX + i + ".";
+            List<String> theVulnerabilities = new ArrayList<>();
+            int theCount = Integer.parseInt(theEntry.getProperty(thePrefix + "vulnerabilities", "0"));
+            for (int j = 0; j < theCount; j++) {
+                theVulnerabilities.add(theEntry.getProperty(thePrefix + "vulnerability." + j));
+            }
+            theResult.add(new OWASPDependencyCheckProcessor.Finding(
+                    new OWASPDependencyCheckProcessor.MavenIdentifier(theEntry.getProperty(thePrefix + "identifier")), theVulnerabilities));
+        }
+        hits++;
+        return theResult;
+    }
+
+    synchronized void store(String aKey, long aDatabaseVersion, List<OWASPDependencyCheckProcessor.Finding> aFindings) throws IOException {
+        Properties theEntry = new Properties();
+        theEntry.setProperty(DATABASE, Long.toString(aDatabaseVersion));
+        theEntry.setProperty(FINDINGS, Integer.toString(aFindings.size()));
+        for (int i = 0; i < aFindings.size(); i++) {
+            OWASPDependencyCheckProcessor.Finding theFinding = aFindings.get(i);
+            String thePrefix = FINDING_PREFIX + i + ".";
+            theEntry.setProperty(thePrefix + "identifier", "(" + theFinding.getIdentifier().getKey() + ")");
+            theEntry.setProperty(thePrefix + "vulnerabilities", Integer.toString(theFinding.getVulnerabilities().size()));
+            for (int j = 0; j < theFinding.getVulnerabilities().size(); j++) {
+                theEntry.setProperty(thePrefix + "vulnerability." + j, theFinding.getVulnerabilities().get(j));
+            }
+        }
+
+        directory.mkdirs();
+        // Concurrent builds must not see partially written entries
+        File theFile = fileOf(aKey);
+        File theTemp = File.createTempFile(aKey, ".tmp", directory);
+        try (OutputStream theStream = new FileOutputStream(theTemp)) {
+            theEntry.store(theStream, null);
+        }
+        if (!theTemp.renameTo(theFile)) {
+            theFile.delete();
+            if (!theTemp.renameTo(theFile)) {
+                theTemp.delete();
+                throw new IOException("Cannot write " + theFile);
+            }
+        }
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    void logStatistics() {
+        log.info("OWASP findings cache {} : {} hits, {} misses", directory, hits, misses);
+    }
+}
@@ -0,0 +1,212 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vulnerability database shared by all builds on a host. The database is updated at most once per
+ * update interval, while holding an exclusive file lock. Checks run without updating, while holding
+ * a shared file lock, so the database is not modified while it is read.
+ */
+@Slf4j
+class ManagedDatabase {
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    private static final String STATE_FILE = "sputnik-database.properties";
+    private static final String LOCK_FILE = "sputnik-database.lock";
+    private static final String LAST_UPDATE = "lastUpdate";
+
+    /**
+     * File locks are held by the JVM, so the threads of the same JVM are synchronized by a read write lock
+     * per database, and the readers of the JVM share one file lock, which is released by the last reader.
+     */
+    private static class Holder {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private FileChannel channel;
+        private FileLock sharedLock;
+        private int readers;
+    }
+
+    private static final Map<File, Holder> HOLDERS = new HashMap<>();
+
+    private final File dataDirectory;
+    private final long updateInterval;
+    private final Holder holder;
+
+    ManagedDatabase(File aDataDirectory, long aUpdateInterval) {
+        dataDirectory = aDataDirectory;
+        updateInterval = aUpdateInterval;
+        synchronized (HOLDERS) {
+            holder = HOLDERS.computeIfAbsent(aDataDirectory.getAbsoluteFile(), k -> new Holder());
+        }
+    }
+
+    /**
+     * Adds options to an H2 connection string, replacing the settings of the same name, so the other
+     * settings of the connection string are kept.
+     */
+    static String connectionStringWith(String aConnectionString, String aOptions) {
+        String[] theParts = aConnectionString.split(";");
+        Map<String, String> theSettings = new LinkedHashMap<>();
+        for (int i = 1; i < theParts.length; i++) {
+            addSetting(theSettings, theParts[i]);
+        }
+        for (String theOption : aOptions.split(";")) {
+            addSetting(theSettings, theOption);
+        }
+        StringBuilder theResult = new StringBuilder(theParts[0]).append(';');
+        for (Map.Entry<String, String> theSetting : theSettings.entrySet()) {
+            theResult.append(theSetting.getKey()).append('=').append(theSetting.getValue()).append(';');
+        }
+        return theResult.toString();
+    }
+
+    private static void addSetting(Map<String, String> aSettings, String aSetting) {
+        int p = aSetting.indexOf('=');
+        if (p > 0) {
+            aSettings.put(aSetting.substring(0, p).trim().toUpperCase(), aSetting.substring(p + 1).trim());
+        }
+    }
+
+    File getDataDirectory() {
+        return dataDirectory;
+    }
+
+    /**
+     * Returns the time of the last update, or 0 if the database was never updated.
+     */
+    long lastUpdate() throws IOException {
+        File theStateFile = new File(dataDirectory, STATE_FILE);
+        if (!theStateFile.isFile()) {
+            return 0;
+        }
+        Properties theState = new Properties();
+        try (InputStream theStream = new FileInputStream(theStateFile)) {
+            theState.load(theStream);
+        }
+        return Long.parseLong(theState.getProperty(LAST_UPDATE, "0"));
+    }
+
+    private void storeLastUpdate(long aTime) throws IOException {
+        Properties theState = new Properties();
+        theState.setProperty(LAST_UPDATE, Long.toString(aTime));
+        try (OutputStream theStream = new FileOutputStream(new File(dataDirectory, STATE_FILE))) {
+            theState.store(theStream, "Managed by Sputnik");
+        }
+    }
+
+    boolean isStale(long aNow) throws IOException {
+        return aNow - lastUpdate() >= updateInterval;
+    }
+
+    /**
+     * Runs the updater if the database is older than the update interval. Concurrent builds wait
+     * for a running update, and do not update again afterwards.
+     */
+    void updateIfStale(Task aUpdater) throws Exception {
+        dataDirectory.mkdirs();
+        if (!isStale(System.currentTimeMillis())) {
+            return;
+        }
+        withLock(false, () -> {
+            // Another build might have updated the database while waiting for the lock
+            if (isStale(System.currentTimeMillis())) {
+                log.info("Updating vulnerability database in {}", dataDirectory);
+                aUpdater.run();
+                storeLastUpdate(System.currentTimeMillis());
+            }
+        });
+    }
+
+    /**
+     * Runs a task reading the database, while no update can take place.
+     */
+    void read(Task aTask) throws Exception {
+        dataDirectory.mkdirs();
+        withLock(true, aTask);
+    }
+
+    private FileChannel openLockFile() throws IOException {
+        return FileChannel.open(new File(dataDirectory, LOCK_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void withLock(boolean aShared, Task aTask) throws Exception {
+        Lock theLock = aShared ? holder.lock.readLock() : holder.lock.writeLock();
+        theLock.lock();
+        try {
+            if (aShared) {
+                withSharedFileLock(aTask);
+            } else {
+                try (FileChannel theChannel = openLockFile();
+                     FileLock theFileLock = theChannel.lock()) {
+                    aTask.run();
+                }
+            }
+        } finally {
+            theLock.unlock();
+        }
+    }
+
+    private void withSharedFileLock(Task aTask) throws Exception {
+        synchronized (holder) {
+            if (holder.readers == 0) {
+                FileChannel theChannel = openLockFile();
+                try {
+                    holder.sharedLock = theChannel.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    theChannel.close();
+                    throw e;
+                }
+                holder.channel = theChannel;
+            }
+            holder.readers++;
+        }
+        try {
+            aTask.run();
+        } finally {
+            synchronized (holder) {
+                if (--holder.readers == 0) {
+                    try {
+                        holder.sharedLock.release();
+                        holder.channel.close();
+                    } catch (IOException e) {
+                        log.warn("Cannot release the lock of the vulnerability database {}", dataDirectory, e);
+                    }
+                    holder.sharedLock = null;
+                    holder.channel = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Describes the age of the database for the review message.
+     */
+    String describeAge(long aNow) throws IOException {
+        long theLastUpdate = lastUpdate();
+        if (theLastUpdate == 0) {
+            return "OWASP vulnerability database was never updated";
+        }
+        long theHours = TimeUnit.MILLISECONDS.toHours(aNow - theLastUpdate);
+        return "OWASP vulnerability database was last updated " + theHours + " hours ago";
+    }
+}
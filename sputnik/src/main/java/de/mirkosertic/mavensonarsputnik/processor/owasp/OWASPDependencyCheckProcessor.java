@@ -9,21 +9,23 @@ import static org.twdata.maven.mojoexecutor.MojoExecutor.plugin;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.version;
 
 import de.mirkosertic.mavensonarsputnik.MavenEnvironment;
+import de.mirkosertic.mavensonarsputnik.RunMetrics;
 import de.mirkosertic.mavensonarsputnik.processor.DefaultConfigurationOption;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
+import org.apache.maven.shared.dependency.tree.DependencyTreeBuilderException;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import pl.touk.sputnik.configuration.CliOption;
 import pl.touk.sputnik.configuration.Configuration;
 import pl.touk.sputnik.configuration.ConfigurationOption;
 import pl.touk.sputnik.review.Review;
@@ -34,19 +36,24 @@ import pl.touk.sputnik.review.ReviewResult;
 import pl.touk.sputnik.review.Severity;
 import pl.touk.sputnik.review.Violation;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class OWASPDependencyCheckProcessor implements ReviewProcessor {
@@ -83,14 +90,51 @@ public class OWASPDependencyCheckProcessor implements ReviewProcessor {
         public String getVersion() {
             return version;
         }
+
+        public String getKey() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+
+    /**
+     * A vulnerable dependency of the report, identified by its Maven coordinates, with the review
+     * comments describing its vulnerabilities.
+     */
+    static class Finding {
+
+        private final MavenIdentifier identifier;
+        private final List<String> vulnerabilities;
+
+        Finding(MavenIdentifier aIdentifier, List<String> aVulnerabilities) {
+            identifier = aIdentifier;
+            vulnerabilities = aVulnerabilities;
+        }
+
+        public MavenIdentifier getIdentifier() {
+            return identifier;
+        }
+
+        public List<String> getVulnerabilities() {
+            return vulnerabilities;
+        }
     }
 
     private final Properties properties;
+    private final MavenEnvironment environment;
+    private final RunMetrics metrics;
     private final Severity severity;
     private final boolean report;
     private final boolean reportTransitive;
+    private final ManagedDatabase database;
+    private final boolean aggregate;
+    private final FindingsCache findingsCache;
+    private final boolean diff;
+    private final String baseRevision;
+    private final boolean diffRuntimeOnly;
 
     public OWASPDependencyCheckProcessor(Configuration aConfiguration) {
+        environment = MavenEnvironment.get();
+        metrics = RunMetrics.get();
         properties = new Properties();
         try (InputStream theStream = getClass().getResourceAsStream("/default-owaspdependencycheck.properties")) {
             properties.load(theStream);
@@ -110,6 +154,13 @@ public class OWASPDependencyCheckProcessor implements ReviewProcessor {
         severity = Severity.valueOf(properties.getProperty("owaspdependencycheck.severity"));
         report = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.report"));
         reportTransitive = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.reporttransitive"));
+        database = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.manageddatabase")) ? createManagedDatabase() : null;
+        aggregate = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.aggregate"));
+        findingsCache = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.cache")) ? createFindingsCache() : null;
+        diff = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.diff"));
+        baseRevision = DependencyDelta.baseRevisionOf(properties.getProperty("owaspdependencycheck.baserevision"),
+                aConfiguration.getProperty(CliOption.REVISION_ID));
+        diffRuntimeOnly = Boolean.parseBoolean(properties.getProperty("owaspdependencycheck.diffruntimeonly"));
     }
 
     @NotNull @Override
@@ -117,181 +168,531 @@ public class OWASPDependencyCheckProcessor implements ReviewProcessor {
         return "OWASP Dependency Check";
     }
 
+    private ManagedDatabase createManagedDatabase() {
+        String theDirectory = properties.getProperty("owaspdependencycheck.datadirectory");
+        File theDataDirectory = StringUtils.isEmpty(theDirectory)
+                ? new File(new File(System.getProperty("user.home"), ".sputnik"), "owasp-data")
+                : new File(theDirectory);
+        long theUpdateInterval = TimeUnit.HOURS.toMillis(Long.parseLong(properties.getProperty("owaspdependencycheck.updateinterval")));
+        return new ManagedDatabase(theDataDirectory, theUpdateInterval);
+    }
+
+    private FindingsCache createFindingsCache() {
+        if (database == null) {
+            // Without a managed database, the version of the database is unknown before the check
+            log.warn("The OWASP findings cache requires the managed database, disabling it");
+            return null;
+        }
+        String theDirectory = properties.getProperty("owaspdependencycheck.cachedirectory");
+        return new FindingsCache(StringUtils.isEmpty(theDirectory)
+                ? new File(new File(System.getProperty("user.home"), ".sputnik"), "owasp-cache")
+                : new File(theDirectory));
+    }
+
+    private void updateDatabase(ManagedDatabase aDatabase) throws Exception {
+        MavenProject theProject = environment.getMavenSession().getCurrentProject();
+        aDatabase.updateIfStale(() -> {
+            try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.EXECUTE_MOJO, "dependency-check-maven:update-only")) {
+                executeMojo(
+                        plugin(
+                                groupId("org.owasp"),
+                                artifactId("dependency-check-maven"),
+                                version(properties.getProperty("owaspdependencycheck.pluginversion"))
+                        ),
+                        goal("update-only"),
+                        plainTextConfigurationFrom("<configuration><autoUpdate>true</autoUpdate><dataDirectory>"
+                                + aDatabase.getDataDirectory() + "</dataDirectory></configuration>"),
+                        executionEnvironment(
+                                theProject,
+                                environment.createSessionFor(theProject),
+                                environment.getBuildPluginManager()
+                        )
+                );
+            }
+        });
+    }
+
+    /**
+     * Computes the configuration of a check. With a managed database, checks do not update the database,
+     * and open it read only, so concurrent builds can share it.
+     */
+    private Xpp3Dom checkConfiguration(File aOutputDirectory) throws IOException, XmlPullParserException {
+        StringBuilder theConfiguration = new StringBuilder("<configuration>");
+        if (database != null) {
+            theConfiguration.append("<autoUpdate>false</autoUpdate><dataDirectory>").append(database.getDataDirectory()).append("</dataDirectory>");
+            String theConnectionString = ManagedDatabase.connectionStringWith(properties.getProperty("owaspdependencycheck.connectionstring"),
+                    properties.getProperty("owaspdependencycheck.readonlyoptions"));
+            theConfiguration.append("<connectionString>").append(StringEscapeUtils.escapeXml(theConnectionString)).append("</connectionString>");
+        } else {
+            theConfiguration.append("<autoUpdate>true</autoUpdate>");
+        }
+        // The processor only reads the XML report, other formats are only generated on request
+        theConfiguration.append("<format>").append(properties.getProperty("owaspdependencycheck.format")).append("</format>");
+        theConfiguration.append("<outputDirectory>").append(aOutputDirectory).append("</outputDirectory></configuration>");
+        return plainTextConfigurationFrom(theConfiguration.toString());
+    }
+
     @Nullable @Override
     public ReviewResult process(@NotNull Review aReview) {
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PROCESSOR, getName())) {
+            ReviewResult theResult = processReview(aReview);
+            theSpan.setViolations(theResult.getViolations().size());
+            return theResult;
+        }
+    }
+
+    private ReviewResult processReview(Review aReview) {
         ReviewResult theResult = new ReviewResult();
+        if (database != null) {
+            try {
+                updateDatabase(database);
+                aReview.getMessages().add(database.describeAge(System.currentTimeMillis()));
+            } catch (Exception e) {
+                // Checks can still use the existing database
+                log.warn("Error updating the vulnerability database", e);
+            }
+        }
+        List<ReviewFile> theChangedPoms = new ArrayList<>();
         for (ReviewFile theFile : aReview.getFiles()) {
             File theIOFile = theFile.getIoFile();
             if (theIOFile != null && theIOFile.exists() && theIOFile.isFile() && theIOFile.getName().equals("pom.xml")) {
+                theChangedPoms.add(theFile);
+            } else {
+                log.debug("Ignoring {}", theIOFile);
+            }
+        }
+        Map<ReviewFile, MavenProject> theModules = new LinkedHashMap<>();
+        for (ReviewFile theFile : theChangedPoms) {
+            try {
+                theModules.put(theFile, projectFor(theFile.getIoFile().getAbsoluteFile()));
+            } catch (Exception e) {
+                throw new ReviewException("Error invoking OWASP Dependency Checker for " + theFile.getIoFile(), e);
+            }
+        }
+
+        // The dependencies are only needed to use the cache or to split an aggregate report
+        boolean theAggregate = aggregate && !diff && theModules.size() > 1;
+        Map<ReviewFile, Set<String>> theDependencies = new HashMap<>();
+        Map<ReviewFile, Map<String, Artifact>> theDeltas = new HashMap<>();
+        if (diff) {
+            for (Iterator<Map.Entry<ReviewFile, MavenProject>> i = theModules.entrySet().iterator(); i.hasNext(); ) {
+                Map.Entry<ReviewFile, MavenProject> theEntry = i.next();
+                Map<String, Artifact> theDelta = deltaOf(theEntry.getValue());
+                if (theDelta == null) {
+                    theDependencies.put(theEntry.getKey(), keysOf(dependenciesOf(theEntry.getValue(), diffRuntimeOnly)));
+                } else if (theDelta.isEmpty()) {
+                    log.info("No dependencies of {} were added or changed, skipping", theEntry.getValue().getFile());
+                    i.remove();
+                } else {
+                    theDeltas.put(theEntry.getKey(), theDelta);
+                    theDependencies.put(theEntry.getKey(), theDelta.keySet());
+                }
+            }
+        } else if (theAggregate || findingsCache != null) {
+            for (Map.Entry<ReviewFile, MavenProject> theEntry : theModules.entrySet()) {
+                theDependencies.put(theEntry.getKey(), keysOf(dependenciesOf(theEntry.getValue(), false)));
+            }
+        }
+
+        long theDatabaseVersion = 0;
+        if (findingsCache != null && report) {
+            try {
+                theDatabaseVersion = database.lastUpdate();
+                for (Iterator<Map.Entry<ReviewFile, MavenProject>> i = theModules.entrySet().iterator(); i.hasNext(); ) {
+                    Map.Entry<ReviewFile, MavenProject> theEntry = i.next();
+                    Set<String> theModuleDependencies = theDependencies.get(theEntry.getKey());
+                    List<Finding> theFindings = theModuleDependencies == null ? null : findingsCache.lookup(cacheKeyOf(theModuleDependencies), theDatabaseVersion);
+                    if (theFindings != null) {
+                        log.info("Dependencies of {} are unchanged, using cached findings", theEntry.getValue().getFile());
+                        reportFindings(theFindings, theEntry.getKey(), theEntry.getValue(), theResult);
+                        i.remove();
+                    }
+                }
+            } catch (IOException e) {
+                throw new ReviewException("Error reading the OWASP findings cache", e);
+            }
+            if (theModules.size() < 2) {
+                theAggregate = false;
+            }
+        }
+
+        Map<ReviewFile, MavenProject> theSeparateModules = theModules;
+        if (theAggregate) {
+            // An aggregate report can only be split by the dependencies of the modules, so modules with
+            // unknown dependencies are checked separately
+            Map<ReviewFile, MavenProject> theAggregatedModules = new LinkedHashMap<>();
+            theSeparateModules = new LinkedHashMap<>();
+            for (Map.Entry<ReviewFile, MavenProject> theEntry : theModules.entrySet()) {
+                if (theDependencies.get(theEntry.getKey()) != null) {
+                    theAggregatedModules.put(theEntry.getKey(), theEntry.getValue());
+                } else {
+                    log.info("The dependencies of {} are unknown, checking it separately", theEntry.getValue().getFile());
+                    theSeparateModules.put(theEntry.getKey(), theEntry.getValue());
+                }
+            }
+            if (theAggregatedModules.size() > 1) {
+                List<Finding> theFindings;
                 try {
-                    processChangedMavenModule(theFile, theIOFile.getAbsoluteFile(), aReview, theResult);
+                    theFindings = processChangedMavenModules(theAggregatedModules.values());
                 } catch (Exception e) {
-                    throw new ReviewException("Error invoking OWASP Dependency Checker for " + theIOFile);
+                    throw new ReviewException("Error invoking OWASP Dependency Checker for " + theAggregatedModules.size() + " modules", e);
+                }
+                for (Map.Entry<ReviewFile, MavenProject> theEntry : theAggregatedModules.entrySet()) {
+                    // An aggregate report contains the findings of all modules
+                    processFindings(theEntry.getKey(), theEntry.getValue(), findingsOf(theFindings, theDependencies.get(theEntry.getKey())),
+                            theDependencies.get(theEntry.getKey()), theDatabaseVersion, theResult);
                 }
             } else {
-                log.debug("Ignoring {}", theIOFile);
+                theSeparateModules.putAll(theAggregatedModules);
+            }
+        }
+        for (Map.Entry<ReviewFile, MavenProject> theEntry : theSeparateModules.entrySet()) {
+            File theIOFile = theEntry.getKey().getIoFile();
+            Map<String, Artifact> theDelta = theDeltas.get(theEntry.getKey());
+            try {
+                // In diff mode, only the added or changed dependencies are checked
+                MavenProject theCheckedProject = theDelta != null ? deltaProjectFor(theEntry.getValue(), theDelta) : theEntry.getValue();
+                processFindings(theEntry.getKey(), theEntry.getValue(), processChangedMavenModule(theIOFile.getAbsoluteFile(), theCheckedProject),
+                        theDependencies.get(theEntry.getKey()), theDatabaseVersion, theResult);
+            } catch (Exception e) {
+                throw new ReviewException("Error invoking OWASP Dependency Checker for " + theIOFile, e);
             }
         }
+
+        if (findingsCache != null) {
+            findingsCache.logStatistics();
+        }
         return theResult;
     }
 
-    public static Xpp3Dom plainTextConfigurationFrom(String aXML) throws IOException, XmlPullParserException {
-        return Xpp3DomBuilder.build(new StringReader(aXML));
+    private String cacheKeyOf(Set<String> aDependencies) {
+        return FindingsCache.keyOf(properties.getProperty("owaspdependencycheck.pluginversion"), aDependencies);
     }
 
-    private void processChangedMavenModule(ReviewFile aReviewFile, File aPomXMLFile, Review aReview, ReviewResult aReviewResult)
-            throws IOException, XmlPullParserException, MojoExecutionException, ParserConfigurationException, SAXException {
-
-        log.info("Processing changed maven module {}", aPomXMLFile);
-
-        MavenEnvironment theEnvironment = MavenEnvironment.get();
+    /**
+     * Reports the findings of a checked module, and stores them in the cache.
+     */
+    private void processFindings(ReviewFile aReviewFile, MavenProject aProject, @Nullable List<Finding> aFindings, @Nullable Set<String> aDependencies,
+            long aDatabaseVersion, ReviewResult aReviewResult) {
+        if (aFindings == null) {
+            return;
+        }
+        try {
+            reportFindings(aFindings, aReviewFile, aProject, aReviewResult);
+            if (findingsCache != null && aDependencies != null) {
+                findingsCache.store(cacheKeyOf(aDependencies), aDatabaseVersion, aFindings);
+            }
+        } catch (IOException e) {
+            throw new ReviewException("Error reporting OWASP findings for " + aReviewFile.getIoFile(), e);
+        }
+    }
 
-        MavenProject theProject = null;
-        for (MavenProject theSingleProject : theEnvironment.getMavenSession().getAllProjects()) {
+    private MavenProject projectFor(File aPomXMLFile) {
+        for (MavenProject theSingleProject : environment.getMavenSession().getAllProjects()) {
             if ((theSingleProject.getFile() != null) && (theSingleProject.getFile().equals(aPomXMLFile))) {
-                theProject = theSingleProject;
+                return theSingleProject;
+            }
+        }
+        throw new IllegalStateException("Cannot find Maven project for " + aPomXMLFile);
+    }
+
+    /**
+     * Computes the reactor of an aggregate check. The aggregate goal scans the descendants of the
+     * top level project in the reactor, so the reactor is limited to the changed modules and the
+     * parents connecting them to the top level project, in reactor order.
+     */
+    static List<MavenProject> aggregateReactorFor(MavenProject aTopLevelProject, Collection<MavenProject> aChangedModules,
+            List<MavenProject> aReactor) {
+        Set<MavenProject> theRequired = new HashSet<>();
+        theRequired.add(aTopLevelProject);
+        for (MavenProject theModule : aChangedModules) {
+            MavenProject theProject = theModule;
+            while (theProject != null && theRequired.add(theProject)) {
+                theProject = theProject.getParent();
+            }
+        }
+        List<MavenProject> theResult = new ArrayList<>();
+        for (MavenProject theProject : aReactor) {
+            if (theRequired.contains(theProject)) {
+                theResult.add(theProject);
             }
         }
+        return theResult;
+    }
 
-        if (theProject == null) {
-            throw new IllegalStateException("Cannot find Maven project for " + aPomXMLFile);
+    private static String keyOf(Artifact aArtifact) {
+        return aArtifact.getGroupId() + ":" + aArtifact.getArtifactId() + ":" + aArtifact.getBaseVersion();
+    }
+
+    /**
+     * Checks if a dependency is scanned. Test dependencies are not scanned by the dependency check, and
+     * if only runtime dependencies are scanned, provided and system dependencies are ignored too.
+     */
+    static boolean isScanned(Artifact aArtifact, boolean aRuntimeOnly) {
+        String theScope = aArtifact.getScope();
+        if (aRuntimeOnly) {
+            return theScope == null || Artifact.SCOPE_COMPILE.equals(theScope) || Artifact.SCOPE_RUNTIME.equals(theScope);
         }
+        return !Artifact.SCOPE_TEST.equals(theScope);
+    }
 
-        File theOutputDirectory = new File(new File(aPomXMLFile.getParent(), "target"), "owasp-dependency-check");
-        log.info("Writing reports to {}", theOutputDirectory);
+    /**
+     * Computes the scanned dependencies of a module by their coordinates, including the transitive ones.
+     */
+    static Map<String, Artifact> dependenciesOf(DependencyNode aRoot, boolean aRuntimeOnly) {
+        Map<String, Artifact> theResult = new HashMap<>();
+        for (Iterator<DependencyNode> i = aRoot.preorderIterator(); i.hasNext(); ) {
+            DependencyNode theNode = i.next();
+            if (theNode != aRoot && theNode.getState() == DependencyNode.INCLUDED && isScanned(theNode.getArtifact(), aRuntimeOnly)) {
+                theResult.put(keyOf(theNode.getArtifact()), theNode.getArtifact());
+            }
+        }
+        return theResult;
+    }
 
-        theOutputDirectory.mkdirs();
+    static Map<String, Artifact> dependenciesOf(Collection<Artifact> aArtifacts, boolean aRuntimeOnly) {
+        Map<String, Artifact> theResult = new HashMap<>();
+        for (Artifact theArtifact : aArtifacts) {
+            if (isScanned(theArtifact, aRuntimeOnly)) {
+                theResult.put(keyOf(theArtifact), theArtifact);
+            }
+        }
+        return theResult;
+    }
 
-        MavenProject theOldCurrent = theEnvironment.getMavenSession().getCurrentProject();
+    /**
+     * Computes the scanned dependencies of a module from its resolved artifacts, or if they are not
+     * resolved, from its dependency tree. Returns null if the dependencies cannot be computed.
+     */
+    @Nullable
+    private Map<String, Artifact> dependenciesOf(MavenProject aProject, boolean aRuntimeOnly) {
+        Set<Artifact> theArtifacts = aProject.getArtifacts();
+        if (theArtifacts != null && !theArtifacts.isEmpty()) {
+            return dependenciesOf(theArtifacts, aRuntimeOnly);
+        }
         try {
-            theEnvironment.getMavenSession().setCurrentProject(theProject);
-
-            executeMojo(
-                    plugin(
-                            groupId("org.owasp"),
-                            artifactId("dependency-check-maven"),
-                            version(properties.getProperty("owaspdependencycheck.pluginversion"))
-                    ),
-                    goal("check"),
-                    plainTextConfigurationFrom("<configuration><autoUpdate>true</autoUpdate><format>ALL</format><outputDirectory>"
-                            + theOutputDirectory + "</outputDirectory></configuration>"),
-                    executionEnvironment(
-                            theProject,
-                            theEnvironment.getMavenSession(),
-                            theEnvironment.getBuildPluginManager()
-                    )
-            );
-        } finally {
-            theEnvironment.getMavenSession().setCurrentProject(theOldCurrent);
-        }
-
-        if (report) {
-            File theXMLReport = new File(theOutputDirectory, "dependency-check-report.xml");
-            DocumentBuilderFactory theFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder theBuilder = theFactory.newDocumentBuilder();
-            Document theDocument = theBuilder.parse(theXMLReport);
-            NodeList theDependencies = theDocument.getElementsByTagName("dependency");
-            for (int i = 0; i < theDependencies.getLength(); i++) {
-                Element theDependency = (Element) theDependencies.item(i);
-                NodeList theIdentifiers = theDependency.getElementsByTagName("identifier");
-
-                NodeList theVulnerabilities = theDependency.getElementsByTagName("vulnerability");
-                if (theVulnerabilities != null && theVulnerabilities.getLength() > 0 && theIdentifiers.getLength() > 0) {
-                    for (int j = 0; j < theIdentifiers.getLength(); j++) {
-                        Element theIdentifier = (Element) theIdentifiers.item(j);
-                        if ("maven".equals(theIdentifier.getAttribute("type"))) {
-                            NodeList theNames = theIdentifier.getElementsByTagName("name");
-                            for (int k = 0; k < theNames.getLength(); k++) {
-                                Element theName = (Element) theNames.item(k);
-                                processSingleDependency(aPomXMLFile, theVulnerabilities, aReviewResult, aReviewFile,
-                                        new MavenIdentifier(theName.getTextContent()));
-                            }
-                        }
-                    }
-                }
-            }
+            return dependenciesOf(environment.getDependencyTreeBuilder()
+                    .buildDependencyTree(aProject, environment.getLocalRepository(), null), aRuntimeOnly);
+        } catch (DependencyTreeBuilderException e) {
+            log.warn("Cannot compute the dependencies of {}", aProject.getFile(), e);
+            return null;
         }
     }
 
-    private String getElementContent(Element aElement, String aTagname) {
-        NodeList theChilds = aElement.getChildNodes();
-        for (int i=0;i<theChilds.getLength();i++) {
-            Node theChild = theChilds.item(i);
-            if (aTagname.equals(theChild.getNodeName())) {
-                return theChild.getTextContent();
+    @Nullable
+    private static Set<String> keysOf(@Nullable Map<String, Artifact> aDependencies) {
+        return aDependencies == null ? null : aDependencies.keySet();
+    }
+
+    /**
+     * Checks if the parent poms of a module in the source tree are unchanged since the base revision, so the
+     * base pom.xml of the module can be resolved against them. Parents from a repository do not change.
+     */
+    private boolean parentsUnchanged(MavenProject aProject) throws IOException, InterruptedException {
+        for (MavenProject theParent = aProject.getParent(); theParent != null; theParent = theParent.getParent()) {
+            File thePomXMLFile = theParent.getFile();
+            if (thePomXMLFile == null || !"pom.xml".equals(thePomXMLFile.getName())) {
+                return true;
+            }
+            byte[] theBaseContent = DependencyDelta.contentInRevision(thePomXMLFile, baseRevision);
+            if (theBaseContent == null || !Arrays.equals(theBaseContent, Files.readAllBytes(thePomXMLFile.toPath()))) {
+                return false;
             }
         }
-        return "";
+        return true;
     }
 
-    private void processSingleDependency(File aPomXML, NodeList aVulnerabilities, ReviewResult aResult, ReviewFile aReviewFile, MavenIdentifier aMavenIdentifier)
-            throws IOException {
-        List<String> theLines = new ArrayList<>();
-        try (BufferedReader theReader = new BufferedReader(new FileReader(aPomXML))) {
-            while(theReader.ready()) {
-                String theLine = theReader.readLine();
-                if (theLine != null) {
-                    theLines.add(theLine);
-                }
+    /**
+     * Computes the dependencies added or changed by the review, by comparing the dependencies with the
+     * dependencies of the pom.xml in the base revision. Returns null if they cannot be computed, or if
+     * the module is new or its parent changed, so the whole module is checked.
+     */
+    @Nullable
+    private Map<String, Artifact> deltaOf(MavenProject aProject) {
+        Map<String, Artifact> theAfter = dependenciesOf(aProject, diffRuntimeOnly);
+        if (theAfter == null) {
+            return null;
+        }
+        File thePomXMLFile = aProject.getFile();
+        try {
+            byte[] theBaseContent = DependencyDelta.contentInRevision(thePomXMLFile, baseRevision);
+            if (theBaseContent == null) {
+                return null;
+            }
+            File theBaseFile = new File(new File(new File(aProject.getBuild().getDirectory(), "owasp-dependency-check"), "base"), "pom.xml");
+            Xpp3Dom theBasePom = DependencyDelta.basePomFor(theBaseContent, aProject, theBaseFile);
+            if (theBasePom == null || !parentsUnchanged(aProject)) {
+                log.info("The parent of {} changed since {}, checking all dependencies", thePomXMLFile, baseRevision);
+                return null;
             }
+            DependencyDelta.write(theBasePom, theBaseFile);
+            MavenProject theBaseProject = environment.getProjectBuilder().build(theBaseFile, environment.getLocalRepository(), null);
+            Map<String, Artifact> theBefore = dependenciesOf(theBaseProject, diffRuntimeOnly);
+            if (theBefore == null) {
+                return null;
+            }
+            Map<String, Artifact> theDelta = DependencyDelta.of(theBefore, theAfter);
+            log.info("{} of {} dependencies of {} were added or changed since {}", theDelta.size(), theAfter.size(), thePomXMLFile, baseRevision);
+            return theDelta;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException | ProjectBuildingException e) {
+            log.warn("Cannot compute the dependency delta of {}, checking all dependencies", thePomXMLFile, e);
+            return null;
         }
+    }
+
+    /**
+     * Creates the project to check the dependency delta of a module.
+     */
+    private MavenProject deltaProjectFor(MavenProject aProject, Map<String, Artifact> aDelta) throws IOException, ProjectBuildingException {
+        File thePomXMLFile = new File(new File(new File(aProject.getBuild().getDirectory(), "owasp-dependency-check"), "delta"), "pom.xml");
+        DependencyDelta.write(DependencyDelta.modelFor(aProject, aDelta.values()), thePomXMLFile);
+        return environment.getProjectBuilder().build(thePomXMLFile, environment.getLocalRepository(), null);
+    }
+
+    /**
+     * Runs one aggregate check for all changed modules, so every distinct dependency is analyzed
+     * only once, and reports the findings to the pom.xml files of the modules depending on them.
+     */
+    @Nullable
+    private List<Finding> processChangedMavenModules(Collection<MavenProject> aModules) throws Exception {
+        MavenSession theSession = environment.getMavenSession();
 
-        for (int i=0;i<aVulnerabilities.getLength();i++) {
-            Element theSingleElement = (Element) aVulnerabilities.item(i);
-            String theDescription = getElementContent(theSingleElement, "description");
-            String theCWE = getElementContent(theSingleElement, "cwe");
-            String theSeverity = getElementContent(theSingleElement, "severity");
-            String theName = getElementContent(theSingleElement, "name");
+        MavenProject theTopLevelProject = theSession.getTopLevelProject();
+        List<MavenProject> theReactor = aggregateReactorFor(theTopLevelProject, aModules, theSession.getProjects());
+        log.info("Running aggregate check for {} changed modules on {}", aModules.size(), theTopLevelProject.getFile());
 
-            StringBuilder theReviewComment = new StringBuilder(theSeverity);
-            theReviewComment.append(" Severity");
-            theReviewComment.append("\n\n");
-            if (theCWE.length() > 0) {
-                theReviewComment.append(theCWE);
-                theReviewComment.append(" : ");
+        File theOutputDirectory = new File(new File(theTopLevelProject.getBuild().getDirectory()), "owasp-dependency-check");
+        theOutputDirectory.mkdirs();
+
+        Xpp3Dom theConfiguration = checkConfiguration(theOutputDirectory);
+        ManagedDatabase.Task theCheck = () -> {
+            MavenSession theAggregateSession = environment.createSessionFor(theTopLevelProject);
+            theAggregateSession.setProjects(theReactor);
+            theAggregateSession.setCurrentProject(theTopLevelProject);
+            try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.EXECUTE_MOJO, "dependency-check-maven:aggregate", theTopLevelProject.getArtifactId())) {
+                executeMojo(
+                        plugin(
+                                groupId("org.owasp"),
+                                artifactId("dependency-check-maven"),
+                                version(properties.getProperty("owaspdependencycheck.pluginversion"))
+                        ),
+                        goal("aggregate"),
+                        theConfiguration,
+                        executionEnvironment(
+                                theTopLevelProject,
+                                theAggregateSession,
+                                environment.getBuildPluginManager()
+                        )
+                );
             }
-            theReviewComment.append(theDescription);
-            theReviewComment.append("\n\n");
-
-            NodeList theReferences = theSingleElement.getElementsByTagName("reference");
-            for (int k=0;k<theReferences.getLength();k++) {
-                Element theReference = (Element) theReferences.item(k);
-                String theSource = getElementContent(theReference, "source");
-                String theURL = getElementContent(theReference, "url");
-                String theReferenceName = getElementContent(theReference, "name");
-
-                theReviewComment.append("*");
-                theReviewComment.append(" ");
-                theReviewComment.append(theSource);
-                theReviewComment.append(" ");
-                theReviewComment.append(theURL);
-                theReviewComment.append("\n");
+        };
+        if (database != null) {
+            database.read(theCheck);
+        } else {
+            theCheck.run();
+        }
+
+        return report ? parseReport(theOutputDirectory, theTopLevelProject) : null;
+    }
+
+    private List<Finding> parseReport(File aOutputDirectory, MavenProject aProject) throws IOException {
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PARSE, "dependency-check-report.xml", aProject.getArtifactId())) {
+            List<Finding> theFindings = DependencyCheckReportParser.parse(new File(aOutputDirectory, "dependency-check-report.xml"));
+            theSpan.setViolations(theFindings.size());
+            return theFindings;
+        }
+    }
+
+    public static Xpp3Dom plainTextConfigurationFrom(String aXML) throws IOException, XmlPullParserException {
+        return Xpp3DomBuilder.build(new StringReader(aXML));
+    }
+
+    @Nullable
+    private List<Finding> processChangedMavenModule(File aPomXMLFile, MavenProject aProject) throws Exception {
+
+        log.info("Processing changed maven module {}", aPomXMLFile);
+
+
+        MavenProject theProject = aProject;
+
+        File theOutputDirectory = new File(new File(aPomXMLFile.getParent(), "target"), "owasp-dependency-check");
+        log.info("Writing reports to {}", theOutputDirectory);
+
+        theOutputDirectory.mkdirs();
+
+        Xpp3Dom theConfiguration = checkConfiguration(theOutputDirectory);
+        ManagedDatabase.Task theCheck = () -> {
+            try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.EXECUTE_MOJO, "dependency-check-maven:check", theProject.getArtifactId())) {
+                executeMojo(
+                        plugin(
+                                groupId("org.owasp"),
+                                artifactId("dependency-check-maven"),
+                                version(properties.getProperty("owaspdependencycheck.pluginversion"))
+                        ),
+                        goal("check"),
+                        theConfiguration,
+                        executionEnvironment(
+                                theProject,
+                                environment.createSessionFor(theProject),
+                                environment.getBuildPluginManager()
+                        )
+                );
             }
+        };
+        if (database != null) {
+            database.read(theCheck);
+        } else {
+            theCheck.run();
+        }
 
-            String theCompleteComment = theReviewComment.toString();
+        return report ? parseReport(theOutputDirectory, theProject) : null;
+    }
 
-            boolean theSomethingFound = false;
-            for (int k=0;k<theLines.size();k++) {
-                String theSingleLine = theLines.get(k);
-                if (theSingleLine.contains("<artifactId>" + aMavenIdentifier.getArtifactId() + "</artifactId")) {
+    /**
+     * Returns the findings for the given dependencies. Modules with unknown dependencies are not part of an
+     * aggregate check, as their findings cannot be told apart from the findings of the other modules.
+     */
+    static List<Finding> findingsOf(@Nullable List<Finding> aFindings, Set<String> aDependencies) {
+        if (aFindings == null) {
+            return null;
+        }
+        List<Finding> theResult = new ArrayList<>();
+        for (Finding theFinding : aFindings) {
+            if (aDependencies.contains(theFinding.getIdentifier().getKey())) {
+                theResult.add(theFinding);
+            }
+        }
+        return theResult;
+    }
 
-                    boolean theGroupIdFound = false;
-                    if (k>0) {
-                        theGroupIdFound = theGroupIdFound || theLines.get(k-1).contains("<groupId>" + aMavenIdentifier.getGroupId() + "</groupId");
-                    }
-                    if (k<theLines.size() - 1) {
-                        theGroupIdFound = theGroupIdFound || theLines.get(k+1).contains("<groupId>" + aMavenIdentifier.getGroupId() + "</groupId");
-                    }
-                    if (theGroupIdFound) {
-                        Violation theViolation = new Violation(aReviewFile.getReviewFilename(), k + 1, theCompleteComment,
-                                severity);
-                        aResult.add(theViolation);
-                        theSomethingFound = true;
-                    }
-                }
+    /**
+     * Reports the findings to the pom.xml of a module. The pom.xml is parsed only once, and the findings
+     * are looked up in the resulting index.
+     */
+    private void reportFindings(List<Finding> aFindings, ReviewFile aReviewFile, MavenProject aProject, ReviewResult aReviewResult) throws IOException {
+        if (aFindings.isEmpty()) {
+            return;
+        }
+        PomLineIndex theIndex = PomLineIndex.parse(aReviewFile.getIoFile().getAbsoluteFile(), aProject.getProperties());
+        for (Finding theFinding : aFindings) {
+            processSingleDependency(theIndex, theFinding.getVulnerabilities(), aReviewResult, aReviewFile, theFinding.getIdentifier());
+        }
+    }
+
+    private void processSingleDependency(PomLineIndex aIndex, List<String> aVulnerabilities, ReviewResult aResult, ReviewFile aReviewFile,
+            MavenIdentifier aMavenIdentifier) {
+        List<Integer> theLines = aIndex.linesOf(aMavenIdentifier.getGroupId(), aMavenIdentifier.getArtifactId());
+        for (String theCompleteComment : aVulnerabilities) {
+            for (int theLine : theLines) {
+                Violation theViolation = new Violation(aReviewFile.getReviewFilename(), theLine, theCompleteComment,
+                        severity);
+                aResult.add(theViolation);
             }
 
-            if (!theSomethingFound && reportTransitive) {
+            if (theLines.isEmpty() && reportTransitive) {
                 Violation theViolation = new Violation(aReviewFile.getReviewFilename(), 1, "Transitive Dependency Warning\n\n" + theCompleteComment,
                         severity);
                 aResult.add(theViolation);
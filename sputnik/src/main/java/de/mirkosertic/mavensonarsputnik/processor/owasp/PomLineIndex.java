@@ -0,0 +1,151 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the lines declaring the dependencies of a pom.xml, including managed dependencies and the
+ * dependencies of profiles and plugins. Coordinates referencing properties are interpolated using the
+ * properties of the pom.xml, the project coordinates and the given inherited properties.
+ */
+class PomLineIndex {
+
+    private static final Pattern PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static class Declaration {
+
+        private final String groupId;
+        private final String artifactId;
+        private final int line;
+
+        private Declaration(String aGroupId, String aArtifactId, int aLine) {
+            groupId = aGroupId;
+            artifactId = aArtifactId;
+            line = aLine;
+        }
+    }
+
+    private final Map<String, List<Integer>> lines;
+
+    private PomLineIndex(Map<String, List<Integer>> aLines) {
+        lines = aLines;
+    }
+
+    /**
+     * Returns the lines declaring a dependency, or an empty list if it is not declared in the pom.xml.
+     */
+    List<Integer> linesOf(String aGroupId, String aArtifactId) {
+        List<Integer> theResult = lines.get(aGroupId + ":" + aArtifactId);
+        return theResult == null ? Collections.emptyList() : theResult;
+    }
+
+    static PomLineIndex parse(File aPomXMLFile, Properties aInheritedProperties) throws IOException {
+        try (InputStream theStream = new FileInputStream(aPomXMLFile)) {
+            return parse(theStream, aInheritedProperties);
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot parse " + aPomXMLFile, e);
+        }
+    }
+
+    static PomLineIndex parse(InputStream aStream, Properties aInheritedProperties) throws XMLStreamException {
+        Properties theProperties = new Properties();
+        theProperties.putAll(aInheritedProperties);
+        List<Declaration> theDeclarations = new ArrayList<>();
+
+        XMLInputFactory theFactory = XMLInputFactory.newInstance();
+        theFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XMLStreamReader theReader = theFactory.createXMLStreamReader(aStream);
+        try {
+            List<String> thePath = new ArrayList<>();
+            String theGroupId = null;
+            String theArtifactId = null;
+            int theLine = 0;
+            while (theReader.hasNext()) {
+                int theEvent = theReader.next();
+                if (theEvent == XMLStreamReader.START_ELEMENT) {
+                    String theName = theReader.getLocalName();
+                    String theParent = thePath.isEmpty() ? null : thePath.get(thePath.size() - 1);
+                    thePath.add(theName);
+                    if ("dependency".equals(theName) && "dependencies".equals(theParent)) {
+                        theGroupId = null;
+                        theArtifactId = null;
+                        theLine = theReader.getLocation().getLineNumber();
+                    } else if ("dependency".equals(theParent)) {
+                        if ("groupId".equals(theName)) {
+                            theGroupId = theReader.getElementText().trim();
+                            thePath.remove(thePath.size() - 1);
+                        } else if ("artifactId".equals(theName)) {
+                            // Violations are reported at the artifactId
+                            theLine = theReader.getLocation().getLineNumber();
+                            theArtifactId = theReader.getElementText().trim();
+                            thePath.remove(thePath.size() - 1);
+                        }
+                    } else if (thePath.size() == 3 && "properties".equals(theParent)) {
+                        theProperties.setProperty(theName, theReader.getElementText().trim());
+                        thePath.remove(thePath.size() - 1);
+                    } else if (thePath.size() == 2 && ("groupId".equals(theName) || "version".equals(theName))) {
+                        theProperties.setProperty("project." + theName, theReader.getElementText().trim());
+                        thePath.remove(thePath.size() - 1);
+                    } else if (thePath.size() == 3 && "parent".equals(theParent) && ("groupId".equals(theName) || "version".equals(theName))) {
+                        String theValue = theReader.getElementText().trim();
+                        theProperties.setProperty("project.parent." + theName, theValue);
+                        // The project inherits the coordinates of its parent unless it declares its own
+                        if (!theProperties.containsKey("project." + theName)) {
+                            theProperties.setProperty("project." + theName, theValue);
+                        }
+                        thePath.remove(thePath.size() - 1);
+                    }
+                } else if (theEvent == XMLStreamReader.END_ELEMENT) {
+                    thePath.remove(thePath.size() - 1);
+                    String theParent = thePath.isEmpty() ? null : thePath.get(thePath.size() - 1);
+                    if ("dependency".equals(theReader.getLocalName()) && "dependencies".equals(theParent)
+                            && theGroupId != null && theArtifactId != null) {
+                        theDeclarations.add(new Declaration(theGroupId, theArtifactId, theLine));
+                    }
+                }
+            }
+        } finally {
+            theReader.close();
+        }
+
+        // Properties can be declared after the dependencies, so coordinates are interpolated afterwards
+        Map<String, List<Integer>> theLines = new HashMap<>();
+        for (Declaration theDeclaration : theDeclarations) {
+            String theKey = interpolate(theDeclaration.groupId, theProperties) + ":" + interpolate(theDeclaration.artifactId, theProperties);
+            theLines.computeIfAbsent(theKey, k -> new ArrayList<>()).add(theDeclaration.line);
+        }
+        return new PomLineIndex(theLines);
+    }
+
+    static String interpolate(String aValue, Properties aProperties) {
+        String theResult = aValue;
+        // Properties can reference other properties, the depth is limited to stop on cycles
+        for (int i = 0; i < 10 && theResult.contains("${"); i++) {
+            Matcher theMatcher = PROPERTY.matcher(theResult);
+            StringBuffer theInterpolated = new StringBuffer();
+            while (theMatcher.find()) {
+                String theValue = aProperties.getProperty(theMatcher.group(1));
+                theMatcher.appendReplacement(theInterpolated, Matcher.quoteReplacement(theValue != null ? theValue : theMatcher.group()));
+            }
+            theMatcher.appendTail(theInterpolated);
+            if (theInterpolated.toString().equals(theResult)) {
+                break;
+            }
+            theResult = theInterpolated.toString();
+        }
+        return theResult;
+    }
+}
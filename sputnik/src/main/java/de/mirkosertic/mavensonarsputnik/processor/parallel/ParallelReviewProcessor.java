@@ -0,0 +1,125 @@
+package de.mirkosertic.mavensonarsputnik.processor.parallel;
+
+import de.mirkosertic.mavensonarsputnik.RunMetrics;
+import de.mirkosertic.mavensonarsputnik.processor.DefaultConfigurationOption;
+import de.mirkosertic.mavensonarsputnik.processor.IndexedReviewProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
+import de.mirkosertic.mavensonarsputnik.processor.ViolationConsolidator;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pl.touk.sputnik.configuration.Configuration;
+import pl.touk.sputnik.configuration.ConfigurationOption;
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewException;
+import pl.touk.sputnik.review.ReviewProcessor;
+import pl.touk.sputnik.review.ReviewResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the enabled Sonar, PITest and OWASP processors on a bounded executor, and merges their results into
+ * a single ReviewResult. In parallel mode, the processors run concurrently, otherwise one after the other.
+ * The merged result is consolidated once, so violations of several processors on the same line are merged,
+ * and the limit of violations per file applies to all processors.
+ */
+@Slf4j
+public class ParallelReviewProcessor implements ReviewProcessor {
+
+    public static final ConfigurationOption PARALLEL_ENABLED = new DefaultConfigurationOption("parallelprocessing.enabled", "Run the Sonar, PITest and OWASP processors concurrently", "false");
+    public static final ConfigurationOption PARALLEL_THREADS = new DefaultConfigurationOption("parallelprocessing.threads", "Maximum number of processors running concurrently", "3");
+
+    private static final String NAME = "Sonar, PITest and OWASP";
+
+    private final List<ReviewProcessor> processors;
+    private final int threads;
+    private final ViolationConsolidator consolidator;
+    private final RunMetrics metrics;
+
+    public ParallelReviewProcessor(List<ReviewProcessor> aProcessors, int aThreads, ViolationConsolidator aConsolidator) {
+        processors = aProcessors;
+        threads = Math.max(1, aThreads);
+        consolidator = aConsolidator;
+        metrics = RunMetrics.get();
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    public static boolean isParallel(Configuration aConfiguration) {
+        return Boolean.valueOf(aConfiguration.getProperty(PARALLEL_ENABLED));
+    }
+
+    @Nullable
+    @Override
+    public ReviewResult process(@NotNull final Review aReview) {
+        // The processors record their own metrics, this is the wall time of running all of them
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PROCESSOR, getName())) {
+            ReviewResult theFound = processReview(aReview);
+            theSpan.setViolations(theFound.getViolations().size());
+            ReviewResult theResult = consolidator.consolidate(getName(), theFound, aReview);
+            theSpan.setReportedViolations(theResult.getViolations().size());
+            return theResult;
+        }
+    }
+
+    private ReviewResult processReview(Review aReview) {
+        ReviewResult theResult = new ReviewResult();
+        if (processors.isEmpty()) {
+            return theResult;
+        }
+
+        // The index of the review is built once and shared by all processors
+        ReviewFileIndex theIndex = new ReviewFileIndex(aReview.getFiles());
+        ExecutorService theExecutor = Executors.newFixedThreadPool(Math.min(threads, processors.size()));
+        try {
+            List<Future<ReviewResult>> theFutures = new ArrayList<>();
+            for (final ReviewProcessor theProcessor : processors) {
+                log.info("Scheduling {}", theProcessor.getName());
+                if (theProcessor instanceof IndexedReviewProcessor) {
+                    theFutures.add(theExecutor.submit(() -> ((IndexedReviewProcessor) theProcessor).process(aReview, theIndex)));
+                } else {
+                    theFutures.add(theExecutor.submit(() -> theProcessor.process(aReview)));
+                }
+            }
+
+            List<String> theFailures = new ArrayList<>();
+            for (int i = 0; i < theFutures.size(); i++) {
+                ReviewProcessor theProcessor = processors.get(i);
+                try {
+                    ReviewResult theSingleResult = theFutures.get(i).get();
+                    if (theSingleResult != null) {
+                        theSingleResult.getViolations().forEach(theResult::add);
+                    }
+                } catch (ExecutionException e) {
+                    log.warn("Error running {}, but analysis will continue", theProcessor.getName(), e.getCause());
+                    theFailures.add(theProcessor.getName() + " failed : " + e.getCause().getMessage());
+                }
+            }
+
+            if (theFailures.size() == processors.size()) {
+                throw new ReviewException("All processors failed : " + theFailures);
+            }
+            aReview.getMessages().addAll(theFailures);
+
+            return theResult;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReviewException("Interrupted while waiting for processors", e);
+        } finally {
+            theExecutor.shutdownNow();
+        }
+    }
+
+    @NotNull
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,42 @@
+package de.mirkosertic.mavensonarsputnik.processor.parallel;
+
+import de.mirkosertic.mavensonarsputnik.processor.ViolationConsolidator;
+import de.mirkosertic.mavensonarsputnik.processor.owasp.OWASPDependencyCheckProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.pitest.PITestProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.sonar.SonarProcessor;
+import pl.touk.sputnik.configuration.Configuration;
+import pl.touk.sputnik.processor.ReviewProcessorFactory;
+import pl.touk.sputnik.review.ReviewProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParallelReviewProcessorFactory implements ReviewProcessorFactory<ParallelReviewProcessor> {
+
+    /**
+     * The processors are always run by the ParallelReviewProcessor, so their violations are consolidated once.
+     */
+    @Override
+    public boolean isEnabled(Configuration aConfiguration) {
+        return Boolean.valueOf(aConfiguration.getProperty(SonarProcessor.SONAR_ENABLED))
+                || Boolean.valueOf(aConfiguration.getProperty(PITestProcessor.PITEST_ENABLED))
+                || Boolean.valueOf(aConfiguration.getProperty(OWASPDependencyCheckProcessor.OWASPDEPENDENCYCHECK_ENABLED));
+    }
+
+    @Override
+    public ParallelReviewProcessor create(Configuration aConfiguration) {
+        List<ReviewProcessor> theProcessors = new ArrayList<>();
+        if (Boolean.valueOf(aConfiguration.getProperty(SonarProcessor.SONAR_ENABLED))) {
+            theProcessors.add(new SonarProcessor(aConfiguration));
+        }
+        if (Boolean.valueOf(aConfiguration.getProperty(PITestProcessor.PITEST_ENABLED))) {
+            theProcessors.add(new PITestProcessor(aConfiguration));
+        }
+        if (Boolean.valueOf(aConfiguration.getProperty(OWASPDependencyCheckProcessor.OWASPDEPENDENCYCHECK_ENABLED))) {
+            theProcessors.add(new OWASPDependencyCheckProcessor(aConfiguration));
+        }
+        int theThreads = ParallelReviewProcessor.isParallel(aConfiguration)
+                ? Integer.parseInt(aConfiguration.getProperty(ParallelReviewProcessor.PARALLEL_THREADS)) : 1;
+        return new ParallelReviewProcessor(theProcessors, theThreads, new ViolationConsolidator(aConfiguration));
+    }
+}
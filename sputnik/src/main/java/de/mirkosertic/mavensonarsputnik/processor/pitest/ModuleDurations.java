@@ -0,0 +1,108 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * Durations of previous PITest runs per module, persisted as a property file.
+ * The file is shared by concurrent builds, so it is only written while holding a lock on a sibling
+ * lock file. The durations of this run are merged into the current content and the file is
+ * replaced atomically, so durations recorded by other builds in the meantime are kept.
+ */
+@Slf4j
+class ModuleDurations {
+
+    /**
+     * A FileLock is held by the JVM, so threads of the same JVM storing durations must be serialized as well.
+     */
+    private static final Object STORE_LOCK = new Object();
+
+    private final File file;
+    private final Properties durations;
+    private final Properties recorded;
+
+    ModuleDurations(File aFile) {
+        file = aFile;
+        durations = load(file);
+        recorded = new Properties();
+    }
+
+    private static Properties load(File aFile) {
+        Properties theResult = new Properties();
+        if (aFile.exists()) {
+            try (InputStream theStream = new FileInputStream(aFile)) {
+                theResult.load(theStream);
+            } catch (IOException e) {
+                log.warn("Cannot read module durations from {}", aFile, e);
+            }
+        }
+        return theResult;
+    }
+
+    private static String keyOf(MavenProject aProject) {
+        return aProject.getGroupId() + ":" + aProject.getArtifactId();
+    }
+
+    /**
+     * Returns the duration of the last run in milliseconds, or -1 if the module was never run before.
+     */
+    synchronized long durationOf(MavenProject aProject) {
+        String theValue = durations.getProperty(keyOf(aProject));
+        if (theValue == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(theValue);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records the duration of a successful run.
+     */
+    synchronized void record(MavenProject aProject, long aDuration) {
+        durations.setProperty(keyOf(aProject), Long.toString(aDuration));
+        recorded.setProperty(keyOf(aProject), Long.toString(aDuration));
+    }
+
+    synchronized void store() {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        File theDirectory = file.getAbsoluteFile().getParentFile();
+        theDirectory.mkdirs();
+        synchronized (STORE_LOCK) {
+            try (FileChannel theChannel = FileChannel.open(new File(theDirectory, file.getName() + ".lock").toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock theLock = theChannel.lock()) {
+                Properties theMerged = load(file);
+                theMerged.putAll(recorded);
+
+                File theTemp = File.createTempFile(file.getName(), ".tmp", theDirectory);
+                try {
+                    try (OutputStream theStream = new FileOutputStream(theTemp)) {
+                        theMerged.store(theStream, "PITest durations per module in milliseconds");
+                    }
+                    Files.move(theTemp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    theTemp.delete();
+                }
+            } catch (IOException e) {
+                log.warn("Cannot write module durations to {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.project.MavenProject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a task for a set of modules on a fixed number of workers. Modules are started
+ * longest first, based on the durations of previous runs, to reduce the tail latency.
+ * Modules without history are started first, as their duration is unknown.
+ * Only the durations of successful runs are recorded, as failed runs end early.
+ */
+@Slf4j
+class ModuleScheduler {
+
+    interface ModuleTask {
+        void run(MavenProject aProject) throws Exception;
+    }
+
+    private final int workers;
+    private final ModuleDurations durations;
+
+    ModuleScheduler(int aWorkers, ModuleDurations aDurations) {
+        workers = Math.max(1, aWorkers);
+        durations = aDurations;
+    }
+
+    List<MavenProject> scheduleOrder(Collection<MavenProject> aModules) {
+        List<MavenProject> theResult = new ArrayList<>(aModules);
+        theResult.sort((o1, o2) -> {
+            long d1 = durations.durationOf(o1);
+            long d2 = durations.durationOf(o2);
+            if (d1 < 0 || d2 < 0) {
+                return Boolean.compare(d2 < 0, d1 < 0);
+            }
+            return Long.compare(d2, d1);
+        });
+        return theResult;
+    }
+
+    void execute(Collection<MavenProject> aModules, ModuleTask aTask) throws InterruptedException {
+        List<MavenProject> theOrder = scheduleOrder(aModules);
+        if (theOrder.isEmpty()) {
+            return;
+        }
+
+        ExecutorService theExecutor = Executors.newFixedThreadPool(Math.min(workers, theOrder.size()));
+        try {
+            List<Future<?>> theFutures = new ArrayList<>();
+            for (MavenProject theModule : theOrder) {
+                theFutures.add(theExecutor.submit(() -> {
+                    long theStart = System.currentTimeMillis();
+                    try {
+                        aTask.run(theModule);
+                        durations.record(theModule, System.currentTimeMillis() - theStart);
+                    } catch (Exception e) {
+                        log.warn("Error processing {}:{}, but analysis will continue", theModule.getGroupId(), theModule.getArtifactId(), e);
+                    }
+                }));
+            }
+            for (Future<?> theFuture : theFutures) {
+                try {
+                    theFuture.get();
+                } catch (ExecutionException e) {
+                    log.warn("Error processing module", e.getCause());
+                }
+            }
+        } finally {
+            theExecutor.shutdownNow();
+            durations.store();
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import de.mirkosertic.mavensonarsputnik.pitest.MutationRecordFormat;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reader for the indexed mutation record report written by the PITestRecordResultListener. The file
+ * is memory mapped in windows, so reports larger than 2 GB can be read, and if it has a footer, only
+ * the records of the source files of interest are read. Files without a footer, for instance from a
+ * crashed run, are read sequentially. Files still being written can be read incrementally using a {@link Tail}.
+ */
+@Slf4j
+class MutationRecordReader {
+
+    /**
+     * Size of the mapped windows of a report.
+     */
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Set<String> includedStatus;
+    private final Predicate<String> sourceFileFilter;
+    private final int windowSize;
+
+    MutationRecordReader(Set<String> aIncludedStatus, Predicate<String> aSourceFileFilter) {
+        this(aIncludedStatus, aSourceFileFilter, WINDOW_SIZE);
+    }
+
+    MutationRecordReader(Set<String> aIncludedStatus, Predicate<String> aSourceFileFilter, int aWindowSize) {
+        includedStatus = aIncludedStatus;
+        sourceFileFilter = aSourceFileFilter;
+        windowSize = aWindowSize;
+    }
+
+    void read(File aFile, Consumer<MutationReportParser.Mutation> aConsumer) throws IOException {
+        try (FileChannel theChannel = FileChannel.open(aFile.toPath(), StandardOpenOption.READ)) {
+            long theStart = System.nanoTime();
+            int[] theCounts = read(new Cursor(theChannel, windowSize, 0, theChannel.size()), aConsumer);
+            log.info("Read {} mutation records in {} ms, {} of them relevant for the review",
+                    theCounts[0], (System.nanoTime() - theStart) / 1000000, theCounts[1]);
+        }
+    }
+
+    /**
+     * Reads a report and returns the number of mutation records read and the number of mutations passed to the consumer.
+     */
+    int[] read(ByteBuffer aBuffer, Consumer<MutationReportParser.Mutation> aConsumer) {
+        return read(new Cursor(aBuffer), aConsumer);
+    }
+
+    private int[] read(Cursor aCursor, Consumer<MutationReportParser.Mutation> aConsumer) {
+        long theFooterOffset = aCursor.footerOffset();
+        if (theFooterOffset < 0) {
+            log.info("Report has no index, reading it sequentially");
+            return readSequentially(aCursor, aConsumer);
+        }
+        return readIndexed(aCursor, theFooterOffset, aConsumer);
+    }
+
+    private int[] readIndexed(Cursor aCursor, long aFooterOffset, Consumer<MutationReportParser.Mutation> aConsumer) {
+        aCursor.position(aFooterOffset);
+        aCursor.expect(MutationRecordFormat.STRINGS);
+        List<String> theStrings = new ArrayList<>();
+        while (aCursor.peek() != ']') {
+            theStrings.add(aCursor.readString());
+            aCursor.skipSeparator();
+        }
+        aCursor.nextLine();
+
+        aCursor.expect(MutationRecordFormat.INDEX);
+        List<Long> theOffsets = new ArrayList<>();
+        while (aCursor.peek() == '[') {
+            aCursor.expect("[");
+            String theSourceFile = theStrings.get(aCursor.readInt());
+            boolean theRelevant = sourceFileFilter.test(theSourceFile);
+            while (aCursor.peek() == ',') {
+                aCursor.expect(",");
+                long theOffset = aCursor.readLong();
+                if (theRelevant) {
+                    theOffsets.add(theOffset);
+                }
+            }
+            aCursor.expect("]");
+            aCursor.skipSeparator();
+        }
+
+        int theRelevantCount = 0;
+        for (long theOffset : theOffsets) {
+            aCursor.position(theOffset);
+            aCursor.expect(MutationRecordFormat.MUTATION);
+            if (readMutation(aCursor, theStrings, aConsumer)) {
+                theRelevantCount++;
+            }
+        }
+        return new int[] {theOffsets.size(), theRelevantCount};
+    }
+
+    private int[] readSequentially(Cursor aCursor, Consumer<MutationReportParser.Mutation> aConsumer) {
+        aCursor.position(0);
+        return readRecords(aCursor, new ArrayList<>(), aConsumer);
+    }
+
+    /**
+     * Reads the complete records from the current position, a report still being written or left
+     * by a crashed run might have an incomplete last line. Afterwards, the cursor is positioned
+     * behind the last complete record.
+     */
+    private int[] readRecords(Cursor aCursor, List<String> aStrings, Consumer<MutationReportParser.Mutation> aConsumer) {
+        int theTotal = 0;
+        int theRelevant = 0;
+        while (aCursor.hasCompleteLine()) {
+            if (aCursor.startsWith(MutationRecordFormat.STRING)) {
+                aCursor.expect(MutationRecordFormat.STRING);
+                aStrings.add(aCursor.readString());
+            } else if (aCursor.startsWith(MutationRecordFormat.MUTATION)) {
+                aCursor.expect(MutationRecordFormat.MUTATION);
+                theTotal++;
+                if (readMutation(aCursor, aStrings, aConsumer)) {
+                    theRelevant++;
+                }
+            }
+            aCursor.nextLine();
+        }
+        return new int[] {theTotal, theRelevant};
+    }
+
+    Tail tail(File aFile) {
+        return new Tail(aFile);
+    }
+
+    /**
+     * Reads a report while it is written, by polling for records appended since the last poll.
+     */
+    class Tail {
+
+        private final File file;
+        private final List<String> strings = new ArrayList<>();
+        private long position;
+
+        Tail(File aFile) {
+            file = aFile;
+        }
+
+        File getFile() {
+            return file;
+        }
+
+        /**
+         * Reads the records appended since the last poll and returns the number of mutations passed to the consumer.
+         */
+        int poll(Consumer<MutationReportParser.Mutation> aConsumer) throws IOException {
+            try (FileChannel theChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long theSize = theChannel.size();
+                if (theSize <= position) {
+                    return 0;
+                }
+                Cursor theCursor = new Cursor(theChannel, windowSize, position, theSize);
+                int[] theCounts = readRecords(theCursor, strings, aConsumer);
+                position = theCursor.position;
+                return theCounts[1];
+            }
+        }
+    }
+
+    private static String stringOf(List<String> aStrings, int aId) {
+        return aId < 0 ? null : aStrings.get(aId);
+    }
+
+    private boolean readMutation(Cursor aCursor, List<String> aStrings, Consumer<MutationReportParser.Mutation> aConsumer) {
+        String theStatus = stringOf(aStrings, aCursor.readInt());
+        if (!includedStatus.contains(theStatus)) {
+            return false;
+        }
+        aCursor.skipSeparator();
+        String theSourceFile = stringOf(aStrings, aCursor.readInt());
+        if (!sourceFileFilter.test(theSourceFile)) {
+            return false;
+        }
+        aCursor.skipSeparator();
+        String theMutatedClass = stringOf(aStrings, aCursor.readInt());
+        aCursor.skipSeparator();
+        // Mutated method and method description
+        aCursor.readInt();
+        aCursor.skipSeparator();
+        aCursor.readInt();
+        aCursor.skipSeparator();
+        int theLineNumber = aCursor.readInt();
+        aCursor.skipSeparator();
+        String theMutator = stringOf(aStrings, aCursor.readInt());
+        aCursor.skipSeparator();
+        // Index and killing test
+        aCursor.readInt();
+        aCursor.skipSeparator();
+        aCursor.readInt();
+        aCursor.skipSeparator();
+        String theDescription = stringOf(aStrings, aCursor.readInt());
+        aCursor.skipSeparator();
+
+        List<String> theTestInfos = new ArrayList<>();
+        aCursor.expect("[");
+        while (aCursor.peek() != ']') {
+            theTestInfos.add(stringOf(aStrings, aCursor.readInt()));
+            aCursor.skipSeparator();
+        }
+
+        aConsumer.accept(new MutationReportParser.Mutation(theStatus, theSourceFile, theMutatedClass, theLineNumber, theMutator,
+                theDescription, theTestInfos));
+        return true;
+    }
+
+    /**
+     * Position in the report. The report is either given as one buffer, or mapped from a file in windows,
+     * which are moved when the position leaves them. As the report only contains ASCII, every byte is a character.
+     */
+    private static class Cursor {
+
+        private final FileChannel channel;
+        private final int windowSize;
+        private final long limit;
+        private ByteBuffer window;
+        private long windowStart;
+        private long position;
+
+        private Cursor(ByteBuffer aBuffer) {
+            channel = null;
+            windowSize = aBuffer.limit();
+            limit = aBuffer.limit();
+            window = aBuffer;
+        }
+
+        private Cursor(FileChannel aChannel, int aWindowSize, long aPosition, long aLimit) {
+            channel = aChannel;
+            windowSize = aWindowSize;
+            limit = aLimit;
+            window = ByteBuffer.allocate(0);
+            windowStart = aPosition;
+            position = aPosition;
+        }
+
+        private byte byteAt(long aPosition) {
+            if (aPosition < windowStart || aPosition >= windowStart + window.limit()) {
+                if (channel == null || aPosition < 0 || aPosition >= limit) {
+                    throw new IndexOutOfBoundsException("Offset " + aPosition + " is outside of the report");
+                }
+                try {
+                    windowStart = aPosition;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, aPosition, Math.min(windowSize, limit - aPosition));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return window.get((int) (aPosition - windowStart));
+        }
+
+        private void position(long aPosition) {
+            position = aPosition;
+        }
+
+        /**
+         * Returns the offset of the footer, or -1 if the report is incomplete.
+         */
+        private long footerOffset() {
+            long theStart = limit - MutationRecordFormat.FOOTER_LENGTH;
+            if (theStart < position) {
+                return -1;
+            }
+            position = theStart;
+            if (!startsWith(MutationRecordFormat.FOOTER)) {
+                return -1;
+            }
+            position += MutationRecordFormat.FOOTER.length();
+            return readLong();
+        }
+
+        private char peek() {
+            return (char) byteAt(position);
+        }
+
+        private boolean startsWith(String aValue) {
+            if (position + aValue.length() > limit) {
+                return false;
+            }
+            for (int i = 0; i < aValue.length(); i++) {
+                if (byteAt(position + i) != aValue.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void expect(String aValue) {
+            if (!startsWith(aValue)) {
+                throw new IllegalStateException("Expected " + aValue + " at offset " + position);
+            }
+            position += aValue.length();
+        }
+
+        private void skipSeparator() {
+            if (peek() == ',') {
+                position++;
+            }
+        }
+
+        private int readInt() {
+            return (int) readLong();
+        }
+
+        private long readLong() {
+            boolean theNegative = false;
+            if (peek() == '-') {
+                theNegative = true;
+                position++;
+            }
+            long theValue = 0;
+            while (position < limit) {
+                byte theByte = byteAt(position);
+                if (theByte < '0' || theByte > '9') {
+                    break;
+                }
+                theValue = theValue * 10 + (theByte - '0');
+                position++;
+            }
+            return theNegative ? -theValue : theValue;
+        }
+
+        private String readString() {
+            expect("\"");
+            StringBuilder theResult = new StringBuilder();
+            while (true) {
+                char theChar = (char) byteAt(position++);
+                if (theChar == '"') {
+                    return theResult.toString();
+                }
+                if (theChar == '\\') {
+                    char theEscaped = (char) byteAt(position++);
+                    if (theEscaped == 'u') {
+                        int theCode = 0;
+                        for (int i = 0; i < 4; i++) {
+                            theCode = (theCode << 4) + Character.digit((char) byteAt(position++), 16);
+                        }
+                        theResult.append((char) theCode);
+                    } else {
+                        theResult.append(theEscaped);
+                    }
+                } else {
+                    theResult.append(theChar);
+                }
+            }
+        }
+
+        private boolean hasCompleteLine() {
+            for (long i = position; i < limit; i++) {
+                if (byteAt(i) == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void nextLine() {
+            while (position < limit && byteAt(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Locates the mutation reports written by the current invocation. Reports are looked up in the
+ * reports directory of every mutated module. Only if none is found there, the working directory
+ * is searched, descending only into modules and their target directories, but not into the
+ * compiler output.
+ */
+@Slf4j
+class MutationReportLocator {
+
+    private static final String TARGET = "target";
+    private static final Set<String> COMPILER_OUTPUT = new HashSet<>(Arrays.asList("classes", "test-classes"));
+
+    private final String fileName;
+    private final long notBefore;
+
+    /**
+     * @param aFileName name of the report files
+     * @param aNotBefore reports modified before this point in time are stale and ignored. As some
+     *                   file systems only store seconds, it is truncated to seconds.
+     */
+    MutationReportLocator(String aFileName, long aNotBefore) {
+        fileName = aFileName;
+        notBefore = aNotBefore - aNotBefore % 1000;
+    }
+
+    /**
+     * Computes the PITest reports directory of a module, which is the configured reportsDirectory
+     * of the pitest-maven plugin or pit-reports in the build directory.
+     */
+    static File reportsDirectoryOf(MavenProject aProject) {
+        Plugin thePlugin = aProject.getPlugin("org.pitest:pitest-maven");
+        if (thePlugin != null && thePlugin.getConfiguration() instanceof Xpp3Dom) {
+            Xpp3Dom theDirectory = ((Xpp3Dom) thePlugin.getConfiguration()).getChild("reportsDirectory");
+            if (theDirectory != null && theDirectory.getValue() != null) {
+                File theFile = new File(theDirectory.getValue().trim());
+                if (!theFile.isAbsolute()) {
+                    theFile = new File(aProject.getBasedir(), theFile.getPath());
+                }
+                return theFile;
+            }
+        }
+        return new File(aProject.getBuild().getDirectory(), "pit-reports");
+    }
+
+    /**
+     * Returns the current reports in the reports directories of the given modules.
+     */
+    List<File> locateInModules(Collection<MavenProject> aModules) throws IOException {
+        List<File> theResult = new ArrayList<>();
+        for (MavenProject theModule : aModules) {
+            File theDirectory = reportsDirectoryOf(theModule);
+            if (theDirectory.isDirectory()) {
+                // PITest writes timestamped sub directories by default
+                theResult.addAll(search(theDirectory.toPath(), false));
+            }
+        }
+        return theResult;
+    }
+
+    List<File> locate(Collection<MavenProject> aModules, File aWorkingDirectory) throws IOException {
+        List<File> theResult = locateInModules(aModules);
+        if (theResult.isEmpty()) {
+            log.info("No reports found in the module reports directories, searching in {}", aWorkingDirectory);
+            theResult.addAll(search(aWorkingDirectory.toPath(), true));
+        }
+        return theResult;
+    }
+
+    List<File> search(Path aDirectory, boolean aPruned) throws IOException {
+        List<File> theResult = new ArrayList<>();
+        Files.walkFileTree(aDirectory, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path aDir, BasicFileAttributes aAttributes) {
+                if (!aPruned || aDir.equals(aDirectory)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                if (isInTarget(aDirectory.relativize(aDir))) {
+                    return COMPILER_OUTPUT.contains(aDir.getFileName().toString()) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+                if (Files.exists(aDir.resolve("pom.xml"))) {
+                    return FileVisitResult.CONTINUE;
+                }
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path aFile, BasicFileAttributes aAttributes) {
+                if (aFile.getFileName().toString().equals(fileName)) {
+                    if (aAttributes.lastModifiedTime().toMillis() >= notBefore) {
+                        theResult.add(aFile.toFile());
+                    } else {
+                        log.info("Ignoring stale report {}", aFile);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path aFile, IOException aException) {
+                log.debug("Cannot access {}", aFile, aException);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return theResult;
+    }
+
+    private static boolean isInTarget(Path aRelativePath) {
+        for (Path theSegment : aRelativePath) {
+            if (TARGET.equals(theSegment.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
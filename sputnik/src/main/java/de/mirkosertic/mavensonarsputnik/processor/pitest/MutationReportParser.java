@@ -0,0 +1,215 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Streaming parser for the extended mutation XML report. Mutations are processed one at a time,
+ * and mutations with a status not of interest are skipped before their content is read. The listeners
+ * of this plugin write the source file first, so mutations of other source files are skipped as soon as
+ * it is read. Reports writing the elements in another order are read completely, and the source file
+ * is checked at the end of the mutation.
+ */
+@Slf4j
+class MutationReportParser {
+
+    static class Mutation {
+
+        private final String status;
+        private String sourceFile;
+        private String mutatedClass;
+        private int lineNumber;
+        private String mutator;
+        private String description;
+        private final List<String> testInfos = new ArrayList<>();
+
+        Mutation(String aStatus, String aSourceFile) {
+            status = aStatus;
+            sourceFile = aSourceFile;
+        }
+
+        Mutation(String aStatus, String aSourceFile, String aMutatedClass, int aLineNumber, String aMutator,
+                String aDescription, List<String> aTestInfos) {
+            this(aStatus, aSourceFile);
+            mutatedClass = aMutatedClass;
+            lineNumber = aLineNumber;
+            mutator = aMutator;
+            description = aDescription;
+            testInfos.addAll(aTestInfos);
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getSourceFile() {
+            return sourceFile;
+        }
+
+        public String getMutatedClass() {
+            return mutatedClass;
+        }
+
+        /**
+         * Returns the package of the mutated class, or an empty string if it is unknown.
+         */
+        public String getPackageName() {
+            if (mutatedClass == null) {
+                return "";
+            }
+            int p = mutatedClass.lastIndexOf('.');
+            return p < 0 ? "" : mutatedClass.substring(0, p);
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMutator() {
+            return mutator;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public List<String> getTestInfos() {
+            return testInfos;
+        }
+    }
+
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    private final Set<String> includedStatus;
+    private final Predicate<String> sourceFileFilter;
+
+    MutationReportParser(Set<String> aIncludedStatus, Predicate<String> aSourceFileFilter) {
+        includedStatus = aIncludedStatus;
+        sourceFileFilter = aSourceFileFilter;
+    }
+
+    void parse(File aFile, Consumer<Mutation> aConsumer) throws IOException, XMLStreamException {
+        try (InputStream theStream = new BufferedInputStream(new FileInputStream(aFile))) {
+            long theStart = System.nanoTime();
+            int[] theCounts = parse(theStream, aConsumer);
+            long theDuration = Math.max(1, System.nanoTime() - theStart);
+            log.info("Parsed {} mutations in {} ms ({} mutations/s), {} of them relevant for the review",
+                    theCounts[0], theDuration / 1000000, theCounts[0] * 1000000000L / theDuration, theCounts[1]);
+        }
+    }
+
+    /**
+     * Parses a report and returns the number of mutations found and the number of mutations passed to the consumer.
+     */
+    int[] parse(InputStream aStream, Consumer<Mutation> aConsumer) throws XMLStreamException {
+        int theTotal = 0;
+        int theRelevant = 0;
+        XMLStreamReader theReader = FACTORY.createXMLStreamReader(aStream);
+        try {
+            while (theReader.hasNext()) {
+                if (theReader.next() == XMLStreamConstants.START_ELEMENT && "mutation".equals(theReader.getLocalName())) {
+                    theTotal++;
+                    Mutation theMutation = readMutation(theReader);
+                    if (theMutation != null) {
+                        theRelevant++;
+                        aConsumer.accept(theMutation);
+                    }
+                }
+            }
+        } finally {
+            theReader.close();
+        }
+        return new int[] {theTotal, theRelevant};
+    }
+
+    /**
+     * Skips the current element including all its children.
+     */
+    private static void skipElement(XMLStreamReader aReader) throws XMLStreamException {
+        int theDepth = 1;
+        while (theDepth > 0) {
+            int theEvent = aReader.next();
+            if (theEvent == XMLStreamConstants.START_ELEMENT) {
+                theDepth++;
+            } else if (theEvent == XMLStreamConstants.END_ELEMENT) {
+                theDepth--;
+            }
+        }
+    }
+
+    private static boolean nextChildElement(XMLStreamReader aReader) throws XMLStreamException {
+        while (aReader.hasNext()) {
+            int theEvent = aReader.next();
+            if (theEvent == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (theEvent == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private Mutation readMutation(XMLStreamReader aReader) throws XMLStreamException {
+        String theStatus = aReader.getAttributeValue(null, "status");
+        if (!includedStatus.contains(theStatus)) {
+            skipElement(aReader);
+            return null;
+        }
+
+        Mutation theMutation = new Mutation(theStatus, null);
+        while (nextChildElement(aReader)) {
+            String theElement = aReader.getLocalName();
+            if ("sourceFile".equals(theElement)) {
+                theMutation.sourceFile = aReader.getElementText();
+                if (!sourceFileFilter.test(theMutation.sourceFile)) {
+                    skipElement(aReader);
+                    return null;
+                }
+                continue;
+            }
+            switch (theElement) {
+                case "mutatedClass":
+                    theMutation.mutatedClass = aReader.getElementText();
+                    break;
+                case "lineNumber":
+                    theMutation.lineNumber = Integer.parseInt(aReader.getElementText().trim());
+                    break;
+                case "mutator":
+                    theMutation.mutator = aReader.getElementText();
+                    break;
+                case "description":
+                    theMutation.description = aReader.getElementText();
+                    break;
+                case "testInfos":
+                    while (nextChildElement(aReader)) {
+                        theMutation.testInfos.add(aReader.getElementText());
+                    }
+                    break;
+                default:
+                    skipElement(aReader);
+            }
+        }
+        // Without a source file, the mutation cannot be mapped to a file of the review
+        return theMutation.sourceFile != null ? theMutation : null;
+    }
+}
@@ -0,0 +1,93 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the record reports of the modules while PITest is still running, so building the violations
+ * overlaps the mutation analysis. Records are read as soon as the listener has flushed them, hence
+ * results of runs which are killed or time out are reported too.
+ */
+@Slf4j
+class MutationReportTailer {
+
+    private final MutationReportLocator locator;
+    private final List<MavenProject> modules;
+    private final MutationRecordReader reader;
+    private final Consumer<MutationReportParser.Mutation> consumer;
+    private final Map<File, MutationRecordReader.Tail> tails;
+    private ScheduledExecutorService executor;
+
+    MutationReportTailer(MutationReportLocator aLocator, List<MavenProject> aModules, MutationRecordReader aReader,
+            Consumer<MutationReportParser.Mutation> aConsumer) {
+        locator = aLocator;
+        modules = aModules;
+        reader = aReader;
+        consumer = aConsumer;
+        tails = new HashMap<>();
+    }
+
+    void start(long aIntervalMillis) {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread theThread = new Thread(r, "PITest report tailer");
+            theThread.setDaemon(true);
+            return theThread;
+        });
+        executor.scheduleWithFixedDelay(this::pollSafely, aIntervalMillis, aIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Error reading PITest reports, will retry", e);
+        }
+    }
+
+    synchronized void poll() throws IOException {
+        for (File theFile : locator.locateInModules(modules)) {
+            MutationRecordReader.Tail theTail = tails.get(theFile);
+            if (theTail == null) {
+                log.info("Reading {} while PITest is running", theFile);
+                theTail = reader.tail(theFile);
+                tails.put(theFile, theTail);
+            }
+            int theCount = theTail.poll(consumer);
+            if (theCount > 0) {
+                log.debug("Read {} relevant mutations from {}", theCount, theFile);
+            }
+        }
+    }
+
+    /**
+     * Stops polling, the reports can then be finished with {@link #finish(File)}.
+     */
+    void stop() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Reads the rest of a report. Reports not seen while PITest was running are read completely, using their index.
+     */
+    synchronized void finish(File aFile) throws IOException {
+        MutationRecordReader.Tail theTail = tails.remove(aFile);
+        if (theTail == null) {
+            reader.read(aFile, consumer);
+        } else {
+            theTail.poll(consumer);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import de.mirkosertic.mavensonarsputnik.pitest.ModuleBytecode;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationCacheEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent cache of the mutation results of top level classes and their nested classes, written by the
+ * CachingResultListener of the PITest plugins. An entry is only used if the bytecode of the classes, of the
+ * other classes of the module and of all test classes of the module is unchanged, and PITest runs in the same
+ * version with the same mutators. The least recently used entries are evicted if the cache exceeds its size limit.
+ */
+@Slf4j
+class MutationResultCache {
+
+    private final File directory;
+    private final long maxSize;
+    private final String status;
+    private final String pitestVersion;
+    private final String mutators;
+
+    private int hits;
+    private int misses;
+
+    MutationResultCache(File aDirectory, long aMaxSize, String aStatus, String aPITestVersion, String aMutators) {
+        directory = aDirectory;
+        maxSize = aMaxSize;
+        status = aStatus;
+        pitestVersion = aPITestVersion;
+        mutators = aMutators;
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    String getPITestVersion() {
+        return pitestVersion;
+    }
+
+    String getMutators() {
+        return mutators;
+    }
+
+    /**
+     * Returns the entry of a top level class, or null if there is no entry for the current bytecode.
+     */
+    synchronized MutationCacheEntry lookup(String aClassName, ModuleBytecode aBytecode) throws IOException {
+        MutationCacheEntry theEntry = new MutationCacheEntry(directory, aClassName);
+        if (theEntry.matches(aBytecode, status, pitestVersion, mutators)) {
+            hits++;
+            // The modification time of the key is the last access time used for eviction
+            theEntry.getKeyFile().setLastModified(System.currentTimeMillis());
+            return theEntry;
+        }
+        misses++;
+        return null;
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    private static long lastUsed(File aEntryDirectory) {
+        File theKeyFile = new File(aEntryDirectory, MutationCacheEntry.KEY_FILE);
+        // Incomplete entries are evicted first
+        return theKeyFile.isFile() ? theKeyFile.lastModified() : 0;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits into its size limit, and returns the number of evicted entries.
+     */
+    synchronized int evict() {
+        File[] theFiles = directory.listFiles(File::isDirectory);
+        if (theFiles == null) {
+            return 0;
+        }
+        List<File> theEntries = new ArrayList<>();
+        long theSize = 0;
+        for (File theEntry : theFiles) {
+            theEntries.add(theEntry);
+            theSize += FileUtils.sizeOfDirectory(theEntry);
+        }
+        theEntries.sort((a, b) -> Long.compare(lastUsed(a), lastUsed(b)));
+
+        int theEvicted = 0;
+        for (File theEntry : theEntries) {
+            if (theSize <= maxSize) {
+                break;
+            }
+            long theEntrySize = FileUtils.sizeOfDirectory(theEntry);
+            try {
+                FileUtils.deleteDirectory(theEntry);
+                theSize -= theEntrySize;
+                theEvicted++;
+            } catch (IOException e) {
+                log.warn("Cannot evict {}", theEntry, e);
+            }
+        }
+        return theEvicted;
+    }
+
+    void logStatistics(int aEvicted) {
+        int theLookups = hits + misses;
+        log.info("PITest cache {} : {} hits, {} misses, {}% hit rate, {} entries evicted", directory, hits, misses,
+                theLookups == 0 ? 0 : hits * 100 / theLookups, aEvicted);
+    }
+}
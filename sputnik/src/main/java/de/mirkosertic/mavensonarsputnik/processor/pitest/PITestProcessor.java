@@ -10,11 +10,18 @@ import static org.twdata.maven.mojoexecutor.MojoExecutor.plugin;
 import static org.twdata.maven.mojoexecutor.MojoExecutor.version;
 
 import de.mirkosertic.mavensonarsputnik.MavenEnvironment;
+import de.mirkosertic.mavensonarsputnik.RunMetrics;
+import de.mirkosertic.mavensonarsputnik.ReactorScope;
 import de.mirkosertic.mavensonarsputnik.processor.DefaultConfigurationOption;
+import de.mirkosertic.mavensonarsputnik.processor.IndexedReviewProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
+import de.mirkosertic.mavensonarsputnik.pitest.CachingResultListener;
+import de.mirkosertic.mavensonarsputnik.pitest.ModuleBytecode;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationCacheEntry;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationFilter;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationRecordFormat;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.filefilter.AbstractFileFilter;
-import org.apache.commons.io.filefilter.DirectoryFileFilter;
+import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
@@ -24,23 +31,16 @@ import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 import pl.touk.sputnik.configuration.Configuration;
 import pl.touk.sputnik.configuration.ConfigurationOption;
 import pl.touk.sputnik.review.Review;
 import pl.touk.sputnik.review.ReviewException;
 import pl.touk.sputnik.review.ReviewFile;
-import pl.touk.sputnik.review.ReviewProcessor;
 import pl.touk.sputnik.review.ReviewResult;
 import pl.touk.sputnik.review.Severity;
 import pl.touk.sputnik.review.Violation;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -48,24 +48,37 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 @Slf4j
-public class PITestProcessor implements ReviewProcessor {
+public class PITestProcessor implements IndexedReviewProcessor {
 
     public static final ConfigurationOption PITEST_ENABLED = new DefaultConfigurationOption("pitest.enabled", "PITest enabled", "true");
     public static final ConfigurationOption PITEST_CONFIGURATION = new DefaultConfigurationOption("pitest.configurationFile", "PITest configuration file", "");
 
     private static final String NAME = "PITest";
 
+    private static final String XML_FORMAT = "EXTENDEDXML";
+    private static final String RECORD_FORMAT = "EXTENDEDRECORDS";
+
     private final Properties properties;
+    private final MavenEnvironment environment;
+    private final RunMetrics metrics;
     private final Set<String> includedStatus;
     private final Severity severity;
 
     public PITestProcessor(Configuration aConfiguration) {
+        environment = MavenEnvironment.get();
+        metrics = RunMetrics.get();
         properties = new Properties();
         try (InputStream theStream = getClass().getResourceAsStream("/default-pitest.properties")) {
             properties.load(theStream);
@@ -92,159 +105,387 @@ public class PITestProcessor implements ReviewProcessor {
         log.info("Searching for the following mutation status {}", includedStatus);
     }
 
-    private String getElementValue(Element aElement, String aElementName) {
-        NodeList theElements = aElement.getElementsByTagName(aElementName);
-        for (int i=0;i<theElements.getLength();i++) {
-            Element theElement = (Element) theElements.item(i);
-            return theElement.getTextContent();
-        }
-        return null;
-    }
-
-    private void addFromMutationReportTo(Review aReview, File aFile, ReviewResult aResult)
-            throws ParserConfigurationException, IOException, SAXException {
-        log.info("Parsing {}", aFile);
+    /**
+     * Creates a consumer adding the violations of a mutation to the result.
+     */
+    private Consumer<MutationReportParser.Mutation> violationsFor(ReviewFileIndex aIndex, ReviewResult aResult) {
+        return theMutation -> {
+            log.debug("Found mutation in file {}", theMutation.getSourceFile());
+            for (ReviewFile theFile : aIndex.findBySourceFile(theMutation.getPackageName(), theMutation.getSourceFile())) {
+                StringBuilder theMessage = new StringBuilder(theMutation.getStatus());
+                theMessage.append(" Mutation : ");
+                theMessage.append(theMutation.getMutator());
+                if (theMutation.getDescription() != null) {
+                    theMessage.append("\n");
+                    theMessage.append("\n");
+                    theMessage.append(theMutation.getDescription());
+                }
 
-        DocumentBuilderFactory theFactory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder theBuilder = theFactory.newDocumentBuilder();
-        Document theDocument = theBuilder.parse(aFile);
-
-        NodeList theMutations = theDocument.getElementsByTagName("mutation");
-        for (int i=0;i<theMutations.getLength();i++) {
-            Element theElement = (Element) theMutations.item(i);
-            boolean theDetected = Boolean.parseBoolean(theElement.getAttribute("detected"));
-            String theStatus = theElement.getAttribute("status");
-
-            String theSourceFile = getElementValue(theElement, "sourceFile");
-            int theLineNumber = Integer.valueOf(getElementValue(theElement, "lineNumber"));
-
-            if (includedStatus.contains(theStatus)) {
-                String theMutator = getElementValue(theElement, "mutator");
-                String theDescription = getElementValue(theElement, "description");
-
-                log.debug("Found mutation in file {}", theSourceFile);
-                for (ReviewFile theFile : aReview.getFiles()) {
-                    if (theFile.getIoFile().getName().equals(theSourceFile)) {
-
-                        StringBuilder theMessage = new StringBuilder(theStatus);
-                        theMessage.append(" Mutation : ");
-                        theMessage.append(theMutator);
-                        if (theDescription != null) {
-                            theMessage.append("\n");
-                            theMessage.append("\n");
-                            theMessage.append(theDescription);
-                        }
-
-                        NodeList theTestInfos = theElement.getElementsByTagName("testInfo");
-                        if (theTestInfos != null && theTestInfos.getLength() > 0) {
-                            theMessage.append("\n");
-                            theMessage.append("\n");
-                            theMessage.append("Related Unit Tests:");
-                            theMessage.append("\n");
-                            for (int j = 0; j < theTestInfos.getLength(); j++) {
-                                Element theTestInfo = (Element) theTestInfos.item(j);
-                                theMessage.append(" * ");
-                                theMessage.append(theTestInfo.getTextContent());
-                                theMessage.append("\n");
-                            }
-                        }
-
-                        Violation theViolation = new Violation(theFile.getReviewFilename(), theLineNumber, theMessage.toString(),
-                                severity);
-
-                        aResult.add(theViolation);
+                if (!theMutation.getTestInfos().isEmpty()) {
+                    theMessage.append("\n");
+                    theMessage.append("\n");
+                    theMessage.append("Related Unit Tests:");
+                    theMessage.append("\n");
+                    for (String theTestInfo : theMutation.getTestInfos()) {
+                        theMessage.append(" * ");
+                        theMessage.append(theTestInfo);
+                        theMessage.append("\n");
                     }
                 }
-            } else {
-                log.info("Ignoring mutation of type {} in file {}:{}", theStatus, theSourceFile, theLineNumber);
+
+                Violation theViolation = new Violation(theFile.getReviewFilename(), theMutation.getLineNumber(), theMessage.toString(),
+                        severity);
+
+                aResult.add(theViolation);
             }
+        };
+    }
+
+    private void addFromMutationReportTo(ReviewFileIndex aIndex, File aFile, Consumer<MutationReportParser.Mutation> aConsumer)
+            throws IOException, XMLStreamException {
+        log.info("Parsing {}", aFile);
+
+        if (isRecordFormat()) {
+            new MutationRecordReader(includedStatus, aIndex::containsFileName).read(aFile, aConsumer);
+        } else {
+            new MutationReportParser(includedStatus, aIndex::containsFileName).parse(aFile, aConsumer);
         }
     }
 
+    private boolean isRecordFormat() {
+        return RECORD_FORMAT.equals(properties.getProperty("pitest.reportformat"));
+    }
+
+    private String reportFileName() {
+        if (isRecordFormat()) {
+            return MutationRecordFormat.FILE_NAME;
+        }
+        return properties.getProperty("pitest.mutationxmlreportfilename");
+    }
+
     public static Xpp3Dom plainTextConfigurationFrom(String aXML) throws IOException, XmlPullParserException {
         return Xpp3DomBuilder.build(new StringReader(aXML));
     }
 
-    private Xpp3Dom createConfiguration() throws IOException, XmlPullParserException {
+    /**
+     * Computes the configuration of the report listener, so only mutations with a reported status
+     * in the source files of the review are written.
+     */
+    static String listenerConfigurationFor(Set<String> aIncludedStatus, Collection<ReviewFile> aFiles) {
+        Set<String> theSourceFiles = new TreeSet<>();
+        for (ReviewFile theFile : aFiles) {
+            theSourceFiles.add(theFile.getIoFile().getName());
+        }
+        return "<pluginConfiguration>"
+                + "<" + MutationFilter.REPORT_STATUS + ">" + StringEscapeUtils.escapeXml(StringUtils.join(new TreeSet<>(aIncludedStatus), ","))
+                + "</" + MutationFilter.REPORT_STATUS + ">"
+                + "<" + MutationFilter.SOURCE_FILES + ">" + StringEscapeUtils.escapeXml(StringUtils.join(theSourceFiles, ","))
+                + "</" + MutationFilter.SOURCE_FILES + ">"
+                + "</pluginConfiguration>";
+    }
 
-        String theDefaultConfiguration = "<failWhenNoMutations>false</failWhenNoMutations><outputFormats><outputFormat>EXTENDEDXML</outputFormat></outputFormats>";
+    /**
+     * Returns the configured mutators, or an empty list for the default mutators of PITest.
+     */
+    private List<String> mutators() {
+        List<String> theResult = new ArrayList<>();
+        for (String theMutator : StringUtils.split(properties.getProperty("pitest.mutators", ""), ",")) {
+            if (!theMutator.trim().isEmpty()) {
+                theResult.add(theMutator.trim());
+            }
+        }
+        return theResult;
+    }
+
+    private Xpp3Dom createConfiguration(Review aReview) throws IOException, XmlPullParserException {
+
+        String theDefaultConfiguration = "<failWhenNoMutations>false</failWhenNoMutations><outputFormats><outputFormat>"
+                + (isRecordFormat() ? RECORD_FORMAT : XML_FORMAT) + "</outputFormat></outputFormats>"
+                + listenerConfigurationFor(includedStatus, aReview.getFiles());
 
         if (Boolean.parseBoolean(properties.getProperty("pitest.verbose"))) {
             theDefaultConfiguration = theDefaultConfiguration + "<verbose>true</verbose>";
         }
 
+        List<String> theMutators = mutators();
+        if (!theMutators.isEmpty()) {
+            StringBuilder theMutatorConfiguration = new StringBuilder("<mutators>");
+            for (String theMutator : theMutators) {
+                theMutatorConfiguration.append("<mutator>").append(StringEscapeUtils.escapeXml(theMutator)).append("</mutator>");
+            }
+            theDefaultConfiguration = theDefaultConfiguration + theMutatorConfiguration.append("</mutators>");
+        }
+
         if (Boolean.parseBoolean(properties.getProperty("pitest.onlylastcommit"))) {
             return plainTextConfigurationFrom("<configuration><analyseLastCommit>true</analyseLastCommit>" + theDefaultConfiguration + "</configuration>");
         }
         return plainTextConfigurationFrom("<configuration>" + theDefaultConfiguration + " </configuration>");
     }
 
-    private void invokePITest() {
-        MavenEnvironment theEnvironment = MavenEnvironment.get();
-        MavenSession theSession = theEnvironment.getMavenSession();
-        for (MavenProject theProject : theSession.getAllProjects()) {
-            MavenProject theOldProject = theSession.getCurrentProject();
+    /**
+     * Computes the modules to run PITest on. These are the modules owning files of the review, as the scm goals
+     * only mutate the modified classes of the module they run on. Modules depending on them would not mutate
+     * the classes of the review, so their tests are not run.
+     */
+    private Collection<MavenProject> modulesToMutate(Review aReview) {
+        MavenSession theSession = environment.getMavenSession();
+        if (!Boolean.parseBoolean(properties.getProperty("pitest.onlyaffectedmodules"))) {
+            return theSession.getAllProjects();
+        }
 
-            log.info("Invoking PITest for {}:{}", theProject.getGroupId(), theProject.getArtifact());
+        ReactorScope theScope = new ReactorScope(theSession);
+        Set<MavenProject> theModules = theScope.modulesOwning(aReview.getFiles());
+        log.info("Review affects {} of {} modules", theModules.size(), theSession.getAllProjects().size());
+        return theModules;
+    }
 
-            theSession.setCurrentProject(theProject);
+    private File durationsFile() {
+        String theFileName = properties.getProperty("pitest.durationsfile");
+        if (!StringUtils.isEmpty(theFileName)) {
+            return new File(theFileName);
+        }
+        return new File(new File(System.getProperty("user.home"), ".sputnik"), "pitest-durations.properties");
+    }
 
-            String theCurrentVersion = getClass().getPackage().getImplementationVersion();
+    private void invokePITest(MavenProject aProject, Xpp3Dom aConfiguration) throws Exception {
+
+        log.info("Invoking PITest for {}:{}", aProject.getGroupId(), aProject.getArtifact());
+
+        String theCurrentVersion = getClass().getPackage().getImplementationVersion();
+
+        List<Dependency> theDependencies = new ArrayList<>();
+        theDependencies.add(dependency("de.mirkosertic.mavensonarsputnik", "pitest-plugins", theCurrentVersion));
+
+        // Every module gets its own session view, so modules can be processed concurrently
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.EXECUTE_MOJO, "pitest-maven", aProject.getArtifactId())) {
+            executeMojo(
+                    plugin(
+                            groupId("org.pitest"),
+                            artifactId("pitest-maven"),
+                            version(properties.getProperty("pitest.pluginversion")),
+                            theDependencies
+                    ),
+                    goal(properties.getProperty("pitest.pluginGoal")),
+                    aConfiguration,
+                    executionEnvironment(
+                            aProject,
+                            environment.createSessionFor(aProject),
+                            environment.getBuildPluginManager()
+                    )
+            );
+        }
+    }
 
-            List<Dependency> theDependencies = new ArrayList<>();
-            theDependencies.add(dependency("de.mirkosertic.mavensonarsputnik", "pitest-plugins", theCurrentVersion));
+    /**
+     * Returns the artifactId of the module a report file belongs to, or an empty string if it is not in a module.
+     */
+    static String moduleOf(File aReportFile, Collection<MavenProject> aModules) {
+        String thePath = aReportFile.getAbsolutePath();
+        for (MavenProject theModule : aModules) {
+            String theDirectory = new File(theModule.getBuild().getDirectory()).getAbsolutePath() + File.separator;
+            if (thePath.startsWith(theDirectory)) {
+                return theModule.getArtifactId();
+            }
+        }
+        return "";
+    }
 
-            try {
+    private List<MavenProject> modulesToRun(Review aReview) {
+        List<MavenProject> theModules = new ArrayList<>();
+        for (MavenProject theProject : modulesToMutate(aReview)) {
+            if ("pom".equals(theProject.getPackaging())) {
+                log.debug("Skipping {}:{} as it has pom packaging", theProject.getGroupId(), theProject.getArtifactId());
+            } else {
+                theModules.add(theProject);
+            }
+        }
+        return theModules;
+    }
 
-                executeMojo(
-                        plugin(
-                                groupId("org.pitest"),
-                                artifactId("pitest-maven"),
-                                version(properties.getProperty("pitest.pluginversion")),
-                                theDependencies
-                        ),
-                        goal(properties.getProperty("pitest.pluginGoal")),
-                        createConfiguration(),
-                        executionEnvironment(
-                                theProject,
-                                theEnvironment.getMavenSession(),
-                                theEnvironment.getBuildPluginManager()
-                        )
-                );
-            } catch (Exception e) {
-                log.warn("Error invoking PITest, but analysis will continue", e);
-            } finally {
-                theSession.setCurrentProject(theOldProject);
+    private static List<File> classDirectoriesOf(MavenProject aProject) {
+        return Collections.singletonList(new File(aProject.getBuild().getOutputDirectory()));
+    }
+
+    private static List<File> testClassDirectoriesOf(MavenProject aProject) {
+        return Collections.singletonList(new File(aProject.getBuild().getTestOutputDirectory()));
+    }
+
+    /**
+     * Computes the names of the classes of the module defined by Java files of the review.
+     */
+    static List<String> classesOf(MavenProject aProject, Collection<ReviewFile> aFiles) {
+        List<String> theResult = new ArrayList<>();
+        for (ReviewFile theFile : aFiles) {
+            String thePath = theFile.getIoFile().getAbsolutePath();
+            if (!thePath.endsWith(".java")) {
+                continue;
+            }
+            for (String theRoot : aProject.getCompileSourceRoots()) {
+                String theRootPath = new File(theRoot).getAbsolutePath() + File.separator;
+                if (thePath.startsWith(theRootPath)) {
+                    String theRelative = thePath.substring(theRootPath.length(), thePath.length() - ".java".length());
+                    theResult.add(theRelative.replace(File.separatorChar, '.'));
+                }
+            }
+        }
+        return theResult;
+    }
+
+    private MutationResultCache createCache() {
+        String theDirectory = properties.getProperty("pitest.cachedirectory");
+        File theCacheDirectory = StringUtils.isEmpty(theDirectory)
+                ? new File(new File(System.getProperty("user.home"), ".sputnik"), "pitest-cache")
+                : new File(theDirectory);
+        long theMaxSize = Long.parseLong(properties.getProperty("pitest.cachemaxsize")) * 1024 * 1024;
+        return new MutationResultCache(theCacheDirectory, theMaxSize, StringUtils.join(new TreeSet<>(includedStatus), ","),
+                properties.getProperty("pitest.pluginversion"), StringUtils.join(mutators(), ","));
+    }
+
+    /**
+     * Uses the cached results for the classes of the review, and returns the cached classes of every module.
+     * Modules with only cached classes are removed from the modules to run.
+     */
+    private Map<MavenProject, List<String>> useCachedResults(MutationResultCache aCache, Review aReview, List<MavenProject> aModules,
+            MutationRecordReader aReader, Consumer<MutationReportParser.Mutation> aConsumer) throws IOException {
+        Map<MavenProject, List<String>> theCachedClasses = new HashMap<>();
+        for (Iterator<MavenProject> i = aModules.iterator(); i.hasNext(); ) {
+            MavenProject theModule = i.next();
+            List<String> theClasses = classesOf(theModule, aReview.getFiles());
+            List<String> theCached = new ArrayList<>();
+            ModuleBytecode theBytecode = theClasses.isEmpty() ? null : new ModuleBytecode(classDirectoriesOf(theModule), testClassDirectoriesOf(theModule));
+            for (String theClass : theClasses) {
+                MutationCacheEntry theEntry = aCache.lookup(theClass, theBytecode);
+                if (theEntry != null) {
+                    log.info("Using cached mutation results for {}", theClass);
+                    aReader.read(theEntry.getMutationsFile(), aConsumer);
+                    theCached.add(theClass);
+                }
+            }
+            theCachedClasses.put(theModule, theCached);
+            if (!theClasses.isEmpty() && theCached.size() == theClasses.size()) {
+                log.info("Skipping {}:{} as the results of all its classes are cached", theModule.getGroupId(), theModule.getArtifactId());
+                i.remove();
+            }
+        }
+        return theCachedClasses;
+    }
+
+    /**
+     * Adds the module specific settings of the cache to the configuration. Cached classes are excluded, as
+     * the scm goals compute the target classes themselves.
+     */
+    private static Xpp3Dom configurationFor(Xpp3Dom aConfiguration, MavenProject aProject, MutationResultCache aCache, List<String> aCachedClasses) {
+        Xpp3Dom theConfiguration = new Xpp3Dom(aConfiguration);
+        if (aCache == null) {
+            return theConfiguration;
+        }
+
+        Xpp3Dom theListenerConfiguration = theConfiguration.getChild("pluginConfiguration");
+        Xpp3Dom theCacheDirectory = new Xpp3Dom(CachingResultListener.CACHE_DIRECTORY);
+        theCacheDirectory.setValue(aCache.getDirectory().getAbsolutePath());
+        theListenerConfiguration.addChild(theCacheDirectory);
+        Xpp3Dom theClassDirectories = new Xpp3Dom(CachingResultListener.CLASS_DIRECTORIES);
+        theClassDirectories.setValue(StringUtils.join(classDirectoriesOf(aProject), File.pathSeparator));
+        theListenerConfiguration.addChild(theClassDirectories);
+        Xpp3Dom theTestClassDirectories = new Xpp3Dom(CachingResultListener.TEST_CLASS_DIRECTORIES);
+        theTestClassDirectories.setValue(StringUtils.join(testClassDirectoriesOf(aProject), File.pathSeparator));
+        theListenerConfiguration.addChild(theTestClassDirectories);
+        Xpp3Dom thePITestVersion = new Xpp3Dom(CachingResultListener.PITEST_VERSION);
+        thePITestVersion.setValue(aCache.getPITestVersion());
+        theListenerConfiguration.addChild(thePITestVersion);
+        Xpp3Dom theMutators = new Xpp3Dom(CachingResultListener.MUTATORS);
+        theMutators.setValue(aCache.getMutators());
+        theListenerConfiguration.addChild(theMutators);
+
+        if (aCachedClasses != null && !aCachedClasses.isEmpty()) {
+            Xpp3Dom theExcluded = new Xpp3Dom("excludedClasses");
+            for (String theClass : aCachedClasses) {
+                // The cached results include the nested and anonymous classes
+                for (String theGlob : new String[] {theClass, theClass + "$*"}) {
+                    Xpp3Dom theParam = new Xpp3Dom("param");
+                    theParam.setValue(theGlob);
+                    theExcluded.addChild(theParam);
+                }
             }
+            theConfiguration.addChild(theExcluded);
         }
+        return theConfiguration;
+    }
+
+    private void invokePITest(Review aReview, List<MavenProject> aModules, MutationResultCache aCache, Map<MavenProject, List<String>> aCachedClasses)
+            throws InterruptedException, IOException, XmlPullParserException {
+        Xpp3Dom theConfiguration = createConfiguration(aReview);
+
+        int theThreads = Integer.parseInt(properties.getProperty("pitest.threads"));
+        ModuleScheduler theScheduler = new ModuleScheduler(theThreads, new ModuleDurations(durationsFile()));
+        theScheduler.execute(aModules, theProject -> invokePITest(theProject, configurationFor(theConfiguration, theProject, aCache, aCachedClasses.get(theProject))));
     }
 
     @Nullable @Override
     public ReviewResult process(@NotNull Review aReview) {
+        return process(aReview, new ReviewFileIndex(aReview.getFiles()));
+    }
 
+    @Override
+    public ReviewResult process(Review aReview, ReviewFileIndex aIndex) {
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PROCESSOR, getName())) {
+            ReviewResult theResult = processReview(aReview, aIndex);
+            theSpan.setViolations(theResult.getViolations().size());
+            return theResult;
+        }
+    }
+
+    private ReviewResult processReview(Review aReview, ReviewFileIndex aIndex) {
         try {
 
-            invokePITest();
+            long theStartTime = System.currentTimeMillis();
 
-            final String theMutationsFileName = properties.getProperty("pitest.mutationxmlreportfilename");
+            List<MavenProject> theModules = modulesToRun(aReview);
 
-            File theWorkingDir = new File(System.getProperty("user.dir"));
-            log.info("Searching recursively in {} for {}", theWorkingDir, theMutationsFileName);
+            MutationReportLocator theLocator = new MutationReportLocator(reportFileName(), theStartTime);
+            ReviewResult theResult = new ReviewResult();
+            Consumer<MutationReportParser.Mutation> theConsumer = violationsFor(aIndex, theResult);
 
-            Collection<File> theFiles = FileUtils.listFiles(theWorkingDir, new AbstractFileFilter() {
-                @Override
-                public boolean accept(File aFile) {
-                    return aFile.getName().equals(theMutationsFileName);
+            MutationResultCache theCache = null;
+            Map<MavenProject, List<String>> theCachedClasses = new HashMap<>();
+            if (Boolean.parseBoolean(properties.getProperty("pitest.cache"))) {
+                theCache = createCache();
+                theCachedClasses = useCachedResults(theCache, aReview, theModules, new MutationRecordReader(includedStatus, aIndex::containsFileName), theConsumer);
+            }
+
+            // The record reports are read while PITest is running
+            MutationReportTailer theTailer = null;
+            long thePollInterval = Long.parseLong(properties.getProperty("pitest.reportpollinterval"));
+            if (isRecordFormat() && thePollInterval > 0) {
+                theTailer = new MutationReportTailer(theLocator, theModules, new MutationRecordReader(includedStatus, aIndex::containsFileName), theConsumer);
+                theTailer.start(thePollInterval);
+            }
+
+            try {
+                invokePITest(aReview, theModules, theCache, theCachedClasses);
+            } finally {
+                if (theTailer != null) {
+                    theTailer.stop();
                 }
-            }, DirectoryFileFilter.DIRECTORY);
+            }
 
-            ReviewResult theResult = new ReviewResult();
+            if (theCache != null) {
+                theCache.logStatistics(theCache.evict());
+            }
+
+            List<File> theFiles = theLocator.locate(theModules, new File(System.getProperty("user.dir")));
 
             for (File theFile :theFiles) {
-                try {
+                try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PARSE, theFile.getName(), moduleOf(theFile, theModules))) {
                     log.info("Parsing report file {}", theFile);
 
-                    addFromMutationReportTo(aReview, theFile, theResult);
+                    int theViolationsBefore = theResult.getViolations().size();
+                    if (theTailer != null) {
+                        theTailer.finish(theFile);
+                    } else {
+                        addFromMutationReportTo(aIndex, theFile, theConsumer);
+                    }
+                    theSpan.setViolations(theResult.getViolations().size() - theViolationsBefore);
                 } catch (Exception e) {
                     log.warn("Error parsing file {}", theFile, e);
                 }
@@ -0,0 +1,102 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.sonarsource.scanner.api.EmbeddedScanner;
+import org.sonarsource.scanner.maven.ExtensionsFactory;
+import org.sonarsource.scanner.maven.bootstrap.MavenProjectConverter;
+import org.sonarsource.scanner.maven.bootstrap.PropertyDecryptor;
+import org.sonarsource.scanner.maven.bootstrap.ScannerBootstrapper;
+
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Runs an analysis like the {@link ScannerBootstrapper} of the Sonar Maven Plugin, but takes the started
+ * scanner from the {@link ScannerPool} and returns it afterwards instead of stopping it. The ScannerBootstrapper
+ * always starts and stops its scanner, and the EmbeddedScanner cannot be subclassed, so its steps are
+ * repeated here. Scanners of servers not supporting several analyses per start are used for this analysis
+ * only, and stopped afterwards.
+ */
+class PooledScannerBootstrapper {
+
+    private final Log log;
+    private final MavenSession session;
+    private final EmbeddedScanner scanner;
+    private final ScannerLogOutput logOutput;
+    private final SonarCache cache;
+    private final MavenProjectConverter mavenProjectConverter;
+    private final ExtensionsFactory extensionsFactory;
+    private final PropertyDecryptor propertyDecryptor;
+
+    PooledScannerBootstrapper(Log aLog, MavenSession aSession, EmbeddedScanner aScanner, ScannerLogOutput aLogOutput, SonarCache aCache,
+            MavenProjectConverter aConverter, ExtensionsFactory aExtensionsFactory, PropertyDecryptor aDecryptor) {
+        log = aLog;
+        session = aSession;
+        scanner = aScanner;
+        logOutput = aLogOutput;
+        cache = aCache;
+        mavenProjectConverter = aConverter;
+        extensionsFactory = aExtensionsFactory;
+        propertyDecryptor = aDecryptor;
+    }
+
+    void execute(ScannerPool aPool, long aIdleTimeoutMillis) throws IOException, MojoExecutionException {
+        EmbeddedScanner theScanner = aPool.acquire(scanner, logOutput, cache);
+        boolean theReusable = false;
+        boolean theSuccess = false;
+        try {
+            String theServerVersion = theScanner.serverVersion();
+            if (theServerVersion != null) {
+                log.info("SonarQube version: " + theServerVersion);
+            }
+            if (isVersionPriorTo(theServerVersion, "4.5")) {
+                log.warn("With SonarQube prior to 4.5, it is recommended to use sonar-maven-plugin 2.6");
+            }
+            theReusable = theServerVersion != null && ScannerPool.supportsReuse(theServerVersion);
+            if (!theReusable) {
+                log.info("SonarQube " + theServerVersion + " does not support reusing scanners, the scanner is stopped after the analysis");
+                if (isVersionPriorTo(theServerVersion, "5.0")) {
+                    theScanner.addExtensions(extensionsFactory.createExtensions().toArray());
+                } else {
+                    theScanner.addExtensions(extensionsFactory.createExtensionsWithDependencyProperty().toArray());
+                }
+            }
+            if (log.isDebugEnabled()) {
+                theScanner.setGlobalProperty("sonar.verbose", "true");
+            }
+
+            theScanner.runAnalysis(collectProperties());
+            theSuccess = true;
+        } finally {
+            if (theReusable && theSuccess) {
+                aPool.release(theScanner, aIdleTimeoutMillis);
+            } else {
+                aPool.discard(theScanner);
+            }
+        }
+    }
+
+    private Properties collectProperties() throws MojoExecutionException {
+        MavenProject theTopLevelProject = null;
+        for (MavenProject theProject : session.getProjects()) {
+            if (theProject.isExecutionRoot()) {
+                theTopLevelProject = theProject;
+            }
+        }
+        if (theTopLevelProject == null) {
+            throw new IllegalStateException("Maven session does not declare a top level project");
+        }
+
+        Properties theProperties = mavenProjectConverter.configure(session.getProjects(), theTopLevelProject, session.getUserProperties());
+        theProperties.putAll(propertyDecryptor.decryptProperties(theProperties));
+        return theProperties;
+    }
+
+    private static boolean isVersionPriorTo(String aServerVersion, String aVersion) {
+        return aServerVersion == null || new ComparableVersion(aServerVersion).compareTo(new ComparableVersion(aVersion)) < 0;
+    }
+}
@@ -0,0 +1,55 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sonarsource.scanner.api.LogOutput;
+
+/**
+ * Log output of a pooled scanner. A scanner keeps the log output it was created with, so the output of a
+ * pooled scanner forwards to the log of the build currently using it. The {@link ScannerPool} binds it to
+ * the log of the build taking the scanner, and to the log of the pool while the scanner is idle, so no
+ * scanner writes to the Maven log of a finished build.
+ */
+@Slf4j
+class ScannerLogOutput implements LogOutput {
+
+    /**
+     * Output used while the scanner is idle, for instance when it is stopped after its idle timeout.
+     */
+    static final LogOutput IDLE = (aMessage, aLevel) -> {
+        switch (aLevel) {
+            case ERROR:
+                log.error(aMessage);
+                break;
+            case WARN:
+                log.warn(aMessage);
+                break;
+            case INFO:
+                log.info(aMessage);
+                break;
+            case DEBUG:
+                log.debug(aMessage);
+                break;
+            default:
+                log.trace(aMessage);
+        }
+    };
+
+    private volatile LogOutput target;
+
+    ScannerLogOutput(LogOutput aTarget) {
+        target = aTarget;
+    }
+
+    LogOutput getTarget() {
+        return target;
+    }
+
+    void bindTo(LogOutput aTarget) {
+        target = aTarget;
+    }
+
+    @Override
+    public void log(String aMessage, Level aLevel) {
+        target.log(aMessage, aLevel);
+    }
+}
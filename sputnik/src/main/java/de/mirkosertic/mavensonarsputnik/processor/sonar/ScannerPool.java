@@ -0,0 +1,194 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.sonarsource.scanner.api.EmbeddedScanner;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of started scanners, keyed by the server and the global Sonar properties. A started scanner
+ * keeps the scanner engine and its plugins loaded, so subsequent analyses in the same JVM, like
+ * in a long-lived Maven daemon, start warm. Scanners idle for longer than the timeout given when
+ * they were returned are stopped.
+ * A started scanner holds the Sonar cache until it is stopped, as its plugins are loaded from there.
+ * Pooled scanners are created with a {@link ScannerLogOutput}, which is bound to the log of the build
+ * taking the scanner from the pool.
+ */
+@Slf4j
+class ScannerPool {
+
+    static final ScannerPool INSTANCE = new ScannerPool();
+
+    private static class PooledScanner {
+        private final EmbeddedScanner scanner;
+        private final long idleUntil;
+
+        private PooledScanner(EmbeddedScanner aScanner, long aIdleUntil) {
+            scanner = aScanner;
+            idleUntil = aIdleUntil;
+        }
+    }
+
+    private final Map<String, Deque<PooledScanner>> idleScanners = new HashMap<>();
+    private final Map<EmbeddedScanner, String> keys = new HashMap<>();
+    private final Map<EmbeddedScanner, SonarCache.Usage> usages = new HashMap<>();
+    private final Map<EmbeddedScanner, ScannerLogOutput> logOutputs = new HashMap<>();
+    private ScheduledExecutorService reaper;
+
+    /**
+     * Computes the pool key of a scanner. Only the Sonar properties are taken into account, as the
+     * global properties also contain the system properties of the current Maven invocation.
+     */
+    static String keyOf(Properties aGlobalProperties) {
+        Map<String, String> theSorted = new TreeMap<>();
+        for (String theKey : aGlobalProperties.stringPropertyNames()) {
+            if (theKey.startsWith("sonar.")) {
+                theSorted.put(theKey, aGlobalProperties.getProperty(theKey));
+            }
+        }
+        return theSorted.toString();
+    }
+
+    /**
+     * Analyses using a pooled scanner require the scanner engine to support several
+     * analyses per start, which is the case since SonarQube 5.2.
+     */
+    static boolean supportsReuse(String aServerVersion) {
+        String[] theParts = aServerVersion.split("\\.");
+        try {
+            int theMajor = Integer.parseInt(theParts[0]);
+            int theMinor = theParts.length > 1 ? Integer.parseInt(theParts[1]) : 0;
+            return theMajor > 5 || (theMajor == 5 && theMinor >= 2);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a started scanner for the configuration of the given new scanner. This is either an idle
+     * scanner from the pool, or the given scanner, which is started then. The given scanner must have been
+     * created with the given log output, and the log output of the returned scanner is bound to its target.
+     */
+    EmbeddedScanner acquire(EmbeddedScanner aNewScanner, ScannerLogOutput aLogOutput, SonarCache aCache) throws IOException {
+        String theKey = keyOf(aNewScanner.globalProperties());
+        synchronized (this) {
+            Deque<PooledScanner> theIdle = idleScanners.get(theKey);
+            if (theIdle != null && !theIdle.isEmpty()) {
+                log.info("Reusing started scanner for {}", aNewScanner.globalProperty("sonar.host.url", ""));
+                EmbeddedScanner theScanner = theIdle.pop().scanner;
+                logOutputs.get(theScanner).bindTo(aLogOutput.getTarget());
+                return theScanner;
+            }
+        }
+
+        log.info("Starting new scanner for {}", aNewScanner.globalProperty("sonar.host.url", ""));
+        SonarCache.Usage theUsage = aCache.use();
+        try {
+            applyMasks(aNewScanner);
+            aNewScanner.start();
+        } catch (RuntimeException e) {
+            theUsage.close();
+            throw e;
+        }
+        synchronized (this) {
+            keys.put(aNewScanner, theKey);
+            usages.put(aNewScanner, theUsage);
+            logOutputs.put(aNewScanner, aLogOutput);
+        }
+        return aNewScanner;
+    }
+
+    /**
+     * Returns a scanner to the pool, to be reused by the next analysis. The scanner is stopped if it is
+     * not reused within the given timeout.
+     */
+    void release(EmbeddedScanner aScanner, long aIdleTimeoutMillis) {
+        synchronized (this) {
+            logOutputs.get(aScanner).bindTo(ScannerLogOutput.IDLE);
+            String theKey = keys.get(aScanner);
+            idleScanners.computeIfAbsent(theKey, k -> new ArrayDeque<>()).push(new PooledScanner(aScanner, System.currentTimeMillis() + aIdleTimeoutMillis));
+            if (reaper == null) {
+                reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread theThread = new Thread(r, "Sonar scanner pool");
+                    theThread.setDaemon(true);
+                    return theThread;
+                });
+            }
+            reaper.schedule(() -> stopIdleScanners(System.currentTimeMillis()), aIdleTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops a scanner and removes it from the pool, for instance after a failed analysis.
+     */
+    void discard(EmbeddedScanner aScanner) {
+        SonarCache.Usage theUsage;
+        synchronized (this) {
+            keys.remove(aScanner);
+            logOutputs.remove(aScanner);
+            theUsage = usages.remove(aScanner);
+        }
+        stop(aScanner, theUsage);
+    }
+
+    /**
+     * Stops the scanners whose idle timeout has expired at the given time.
+     */
+    void stopIdleScanners(long aNow) {
+        Map<EmbeddedScanner, SonarCache.Usage> theToStop = new HashMap<>();
+        synchronized (this) {
+            for (Deque<PooledScanner> theIdle : idleScanners.values()) {
+                for (Iterator<PooledScanner> i = theIdle.iterator(); i.hasNext(); ) {
+                    PooledScanner thePooled = i.next();
+                    if (thePooled.idleUntil <= aNow) {
+                        i.remove();
+                        keys.remove(thePooled.scanner);
+                        logOutputs.remove(thePooled.scanner);
+                        theToStop.put(thePooled.scanner, usages.remove(thePooled.scanner));
+                    }
+                }
+            }
+        }
+        for (Map.Entry<EmbeddedScanner, SonarCache.Usage> theScanner : theToStop.entrySet()) {
+            log.info("Stopping idle scanner");
+            stop(theScanner.getKey(), theScanner.getValue());
+        }
+    }
+
+    private static void stop(EmbeddedScanner aScanner, SonarCache.Usage aUsage) {
+        try {
+            aScanner.stop();
+        } catch (Exception e) {
+            log.warn("Error stopping scanner", e);
+        } finally {
+            if (aUsage != null) {
+                aUsage.close();
+            }
+        }
+    }
+
+    /**
+     * Same classloader masks as applied by the ScannerBootstrapper of the Sonar Maven Plugin.
+     */
+    private static void applyMasks(EmbeddedScanner aScanner) {
+        aScanner.mask("org.slf4j.LoggerFactory");
+        aScanner.unmask("org.slf4j.Logger");
+        aScanner.unmask("org.slf4j.ILoggerFactory");
+        aScanner.unmask("org.slf4j.Marker");
+        aScanner.mask("org.slf4j.");
+        aScanner.mask("ch.qos.logback.");
+        aScanner.mask("org.sonar.");
+        aScanner.mask("com.google.common");
+        aScanner.unmask("");
+    }
+}
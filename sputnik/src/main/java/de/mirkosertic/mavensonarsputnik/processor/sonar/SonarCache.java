@@ -0,0 +1,338 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Persistent Sonar user home shared by all builds on a host. The scanner stores the scanner engine and the
+ * analyzer plugins in cache/&lt;checksum&gt;/, so every entry is content-addressed. This class keeps track of
+ * the usage of the entries and evicts the least recently used ones if the cache exceeds its size limit.
+ * <p>
+ * The scanner does not report which entries it loaded, and file access times are not maintained on most
+ * mounts, so the usage is kept in a bookkeeping file. The entries an analysis uses are the entries it
+ * downloaded, and the entries used by the previous analysis against the same server. A download replaces
+ * the other versions of the same file in this working set, so entries of updated plugins age out.
+ * <p>
+ * Analyses and started scanners hold a shared lock on the cache while they use it. Entries are only
+ * evicted when no one holds the cache, so plugins of running scanners are never deleted.
+ */
+@Slf4j
+class SonarCache {
+
+    private static final String INDEX_FILE = "sputnik-cache.properties";
+    private static final String LOCK_FILE = "sputnik-cache.lock";
+    private static final String USAGE_FILE = "sputnik-cache.usage";
+    private static final String SERVER_PREFIX = "server.";
+
+    /**
+     * A use of the cache, which must be closed when the cache is no longer used.
+     */
+    interface Usage extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static class Holder {
+        private final FileChannel channel;
+        private final FileLock lock;
+        private int count;
+
+        private Holder(FileChannel aChannel, FileLock aLock) {
+            channel = aChannel;
+            lock = aLock;
+        }
+    }
+
+    /**
+     * File locks are held by the JVM, so the shared locks are counted per JVM and released by the last holder.
+     */
+    private static final Map<File, Holder> HOLDERS = new HashMap<>();
+
+    private final File userHome;
+    private final long maxSize;
+
+    private Set<String> entriesBefore = Collections.emptySet();
+    private String server = "";
+    private Usage analysisUsage;
+
+    SonarCache(File aUserHome, long aMaxSize) {
+        userHome = aUserHome;
+        maxSize = aMaxSize;
+    }
+
+    File getUserHome() {
+        return userHome;
+    }
+
+    /**
+     * Configures a scanner to use this cache.
+     */
+    void configure(Properties aSonarProperties) {
+        aSonarProperties.setProperty("sonar.userHome", userHome.toString());
+    }
+
+    private File cacheDir() {
+        return new File(userHome, "cache");
+    }
+
+    Set<String> entries() {
+        Set<String> theResult = new HashSet<>();
+        File[] theFiles = cacheDir().listFiles();
+        if (theFiles != null) {
+            for (File theFile : theFiles) {
+                if (theFile.isDirectory() && !theFile.getName().startsWith("_")) {
+                    theResult.add(theFile.getName());
+                }
+            }
+        }
+        return theResult;
+    }
+
+    /**
+     * Starts using the cache. Entries are not evicted before the usage is closed.
+     */
+    Usage use() throws IOException {
+        userHome.mkdirs();
+        File theUsageFile = new File(userHome, USAGE_FILE).getAbsoluteFile();
+        synchronized (HOLDERS) {
+            Holder theHolder = HOLDERS.get(theUsageFile);
+            if (theHolder == null) {
+                FileChannel theChannel = FileChannel.open(theUsageFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    theHolder = new Holder(theChannel, theChannel.lock(0, Long.MAX_VALUE, true));
+                } catch (IOException | RuntimeException e) {
+                    theChannel.close();
+                    throw e;
+                }
+                HOLDERS.put(theUsageFile, theHolder);
+            }
+            theHolder.count++;
+        }
+        boolean[] theClosed = new boolean[1];
+        return () -> {
+            synchronized (theClosed) {
+                if (theClosed[0]) {
+                    return;
+                }
+                theClosed[0] = true;
+            }
+            release(theUsageFile);
+        };
+    }
+
+    private void release(File aUsageFile) {
+        synchronized (HOLDERS) {
+            Holder theHolder = HOLDERS.get(aUsageFile);
+            if (--theHolder.count > 0) {
+                return;
+            }
+            HOLDERS.remove(aUsageFile);
+            try {
+                theHolder.lock.release();
+                theHolder.channel.close();
+            } catch (IOException e) {
+                log.warn("Cannot release Sonar cache {}", userHome, e);
+            }
+            evictIfUnused();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries if no one holds the cache. Returns the number of evicted
+     * entries, or -1 if the cache is in use.
+     */
+    int evictIfUnused() {
+        File theUsageFile = new File(userHome, USAGE_FILE).getAbsoluteFile();
+        synchronized (HOLDERS) {
+            if (HOLDERS.containsKey(theUsageFile)) {
+                return -1;
+            }
+            try (FileChannel theChannel = FileChannel.open(theUsageFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    FileLock theLock = theChannel.tryLock()) {
+                if (theLock == null) {
+                    log.info("Not evicting entries from Sonar cache {}, as it is used by another build", userHome);
+                    return -1;
+                }
+                int[] theEvicted = new int[1];
+                withLock(() -> {
+                    Properties theIndex = loadIndex();
+                    theEvicted[0] = evict(theIndex);
+                    storeIndex(theIndex);
+                });
+                return theEvicted[0];
+            } catch (IOException e) {
+                log.warn("Error evicting entries from Sonar cache {}", userHome, e);
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Starts an analysis against the given server, holding the cache until the analysis is finished.
+     */
+    void beforeAnalysis(String aServer) throws IOException {
+        server = aServer;
+        analysisUsage = use();
+        entriesBefore = entries();
+    }
+
+    void afterAnalysis() {
+        try {
+            withLock(() -> {
+                Properties theIndex = loadIndex();
+                Set<String> theEntries = entries();
+                Set<String> theMisses = new HashSet<>(theEntries);
+                theMisses.removeAll(entriesBefore);
+
+                String theServerKey = SERVER_PREFIX + server;
+                Set<String> theWorkingSet = new LinkedHashSet<>();
+                String theLastWorkingSet = theIndex.getProperty(theServerKey);
+                if (theLastWorkingSet != null) {
+                    theWorkingSet.addAll(Arrays.asList(StringUtils.split(theLastWorkingSet, ',')));
+                } else {
+                    // Without history, all entries might be needed by the server
+                    theWorkingSet.addAll(entriesBefore);
+                }
+                theWorkingSet.retainAll(theEntries);
+
+                Set<String> theDownloaded = new HashSet<>();
+                for (String theMiss : theMisses) {
+                    theDownloaded.add(fileNameOf(theMiss));
+                }
+                theWorkingSet.removeIf(aEntry -> theDownloaded.contains(fileNameOf(aEntry)));
+                int theHits = theWorkingSet.size();
+                theWorkingSet.addAll(theMisses);
+
+                String theNow = Long.toString(System.currentTimeMillis());
+                for (String theEntry : theWorkingSet) {
+                    theIndex.setProperty(theEntry, theNow);
+                }
+                theIndex.setProperty(theServerKey, StringUtils.join(theWorkingSet, ','));
+                storeIndex(theIndex);
+                log.info("Sonar cache {} : {} hits, {} misses", userHome, theHits, theMisses.size());
+            });
+        } catch (IOException e) {
+            log.warn("Error maintaining Sonar cache {}", userHome, e);
+        } finally {
+            if (analysisUsage != null) {
+                analysisUsage.close();
+                analysisUsage = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the file in an entry without its version, like sonar-java-plugin for
+     * sonar-java-plugin-4.2.jar, so the versions of the same file can be recognized.
+     */
+    String fileNameOf(String aEntry) {
+        String[] theFiles = new File(cacheDir(), aEntry).list();
+        if (theFiles == null || theFiles.length == 0) {
+            return aEntry;
+        }
+        Arrays.sort(theFiles);
+        String theName = theFiles[0];
+        int theVersion = theName.length();
+        for (int i = 0; i < theName.length() - 1; i++) {
+            if (theName.charAt(i) == '-' && Character.isDigit(theName.charAt(i + 1))) {
+                theVersion = i;
+                break;
+            }
+        }
+        if (theVersion == theName.length() && theName.lastIndexOf('.') > 0) {
+            theVersion = theName.lastIndexOf('.');
+        }
+        return theName.substring(0, theVersion);
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache fits into its size limit.
+     * Must only be called if no one holds the cache.
+     */
+    int evict(Properties aIndex) {
+        List<String> theCandidates = new ArrayList<>();
+        long theTotalSize = 0;
+        for (String theEntry : entries()) {
+            theTotalSize += FileUtils.sizeOfDirectory(new File(cacheDir(), theEntry));
+            theCandidates.add(theEntry);
+        }
+        theCandidates.sort((o1, o2) -> Long.compare(lastUsed(aIndex, o1), lastUsed(aIndex, o2)));
+
+        int theEvicted = 0;
+        for (String theEntry : theCandidates) {
+            if (theTotalSize <= maxSize) {
+                break;
+            }
+            File theDirectory = new File(cacheDir(), theEntry);
+            long theSize = FileUtils.sizeOfDirectory(theDirectory);
+            try {
+                FileUtils.deleteDirectory(theDirectory);
+                aIndex.remove(theEntry);
+                theTotalSize -= theSize;
+                theEvicted++;
+            } catch (IOException e) {
+                log.warn("Cannot evict {} from Sonar cache", theDirectory, e);
+            }
+        }
+        if (theEvicted > 0) {
+            log.info("Sonar cache {} : {} entries evicted", userHome, theEvicted);
+        }
+        return theEvicted;
+    }
+
+    private static long lastUsed(Properties aIndex, String aEntry) {
+        return Long.parseLong(aIndex.getProperty(aEntry, "0"));
+    }
+
+    private Properties loadIndex() throws IOException {
+        Properties theIndex = new Properties();
+        File theFile = new File(userHome, INDEX_FILE);
+        if (theFile.exists()) {
+            try (InputStream theStream = new FileInputStream(theFile)) {
+                theIndex.load(theStream);
+            }
+        }
+        return theIndex;
+    }
+
+    private void storeIndex(Properties aIndex) throws IOException {
+        try (OutputStream theStream = new FileOutputStream(new File(userHome, INDEX_FILE))) {
+            aIndex.store(theStream, "Last usage of Sonar cache entries, and the entries used per server");
+        }
+    }
+
+    private interface LockedAction {
+        void run() throws IOException;
+    }
+
+    private void withLock(LockedAction aAction) throws IOException {
+        // File locks are held by the JVM, so threads of the same JVM have to be synchronized separately
+        synchronized (SonarCache.class) {
+            try (FileChannel theChannel = FileChannel.open(new File(userHome, LOCK_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                    FileLock theLock = theChannel.lock()) {
+                aAction.run();
+            }
+        }
+    }
+}
@@ -2,10 +2,16 @@ package de.mirkosertic.mavensonarsputnik.processor.sonar;
 
 import com.google.common.annotations.VisibleForTesting;
 import de.mirkosertic.mavensonarsputnik.MavenEnvironment;
+import de.mirkosertic.mavensonarsputnik.ReactorScope;
+import de.mirkosertic.mavensonarsputnik.RunMetrics;
 import de.mirkosertic.mavensonarsputnik.processor.DefaultConfigurationOption;
+import de.mirkosertic.mavensonarsputnik.processor.IndexedReviewProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.sonarsource.scanner.api.EmbeddedScanner;
@@ -23,70 +29,102 @@ import pl.touk.sputnik.configuration.ConfigurationOption;
 import pl.touk.sputnik.review.Review;
 import pl.touk.sputnik.review.ReviewException;
 import pl.touk.sputnik.review.ReviewFile;
-import pl.touk.sputnik.review.ReviewProcessor;
 import pl.touk.sputnik.review.ReviewResult;
 import pl.touk.sputnik.review.Violation;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Slf4j
-public class SonarProcessor implements ReviewProcessor {
+public class SonarProcessor implements IndexedReviewProcessor {
 
     private static final String PROCESSOR_NAME = "Custom Sonar";
 
+    private static final String PROJECT_BASE_DIR = "sonar.projectBaseDir";
+    private static final String[] EXCLUSIONS = {"sonar.exclusions", "sonar.test.exclusions"};
+
     public static final ConfigurationOption SONAR_ENABLED = new DefaultConfigurationOption("customsonar.enabled", "Custom Sonar enabled", "true");
     public static final ConfigurationOption SONAR_CONFIGURATION = new DefaultConfigurationOption("customsonar.configurationFile", "Custom Sonar configuration file", "");
 
+    public static final ConfigurationOption CACHE_DIRECTORY = new DefaultConfigurationOption("customsonar.cacheDirectory", "Directory of the Sonar cache shared by all builds, defaults to ~/.sputnik/sonar", "");
+    public static final ConfigurationOption CACHE_MAX_SIZE = new DefaultConfigurationOption("customsonar.cacheMaxSize", "Maximum size of the Sonar cache in MB", "2048");
+
+    public static final ConfigurationOption INCREMENTAL = new DefaultConfigurationOption("customsonar.incremental", "Only analyze the files of the review", "false");
+
+    public static final ConfigurationOption SCANNER_POOLING = new DefaultConfigurationOption("customsonar.scannerPooling", "Keep started scanners for reuse by later analyses in the same JVM", "false");
+    public static final ConfigurationOption SCANNER_IDLE_TIMEOUT = new DefaultConfigurationOption("customsonar.scannerIdleTimeout", "Seconds after which an idle pooled scanner is stopped", "600");
+
     public static final ConfigurationOption ADDITIONAL_REPORTS = new DefaultConfigurationOption("customsonar.additionalReviewCommentFiles", "Comma saparated list of additional reports to add to add as comments", "");
 
     private final Configuration configuration;
+    private final MavenEnvironment environment;
+    private final RunMetrics metrics;
 
     public SonarProcessor(@NotNull final Configuration aConfiguration) {
         configuration = aConfiguration;
+        environment = MavenEnvironment.get();
+        metrics = RunMetrics.get();
     }
 
     @Nullable
     @Override
     public ReviewResult process(@NotNull Review review) {
+        return process(review, new ReviewFileIndex(review.getFiles()));
+    }
+
+    @Override
+    public ReviewResult process(Review review, ReviewFileIndex aIndex) {
+        try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PROCESSOR, getName())) {
+            ReviewResult theResult = processReview(review, aIndex);
+            theSpan.setViolations(theResult.getViolations().size());
+            return theResult;
+        }
+    }
+
+    private ReviewResult processReview(Review review, ReviewFileIndex aIndex) {
         if (review.getFiles().isEmpty()) {
             return new ReviewResult();
         }
 
         try {
-            MavenEnvironment theEnvironment = MavenEnvironment.get();
-
-            File theWorkingDirectory = MavenEnvironment.getSonarWorkDir(theEnvironment.getMavenSession().getCurrentProject());
+            File theWorkingDirectory = MavenEnvironment.getSonarWorkDir(environment.getMavenSession().getCurrentProject());
             theWorkingDirectory.mkdirs();
 
-            // This will switch the cache to the working directory
-            System.setProperty("SONAR_USER_HOME", theWorkingDirectory.toString());
+            SonarCache theCache = createCache();
 
-            ExtensionsFactory theExtensionsFactory = new ExtensionsFactory(theEnvironment.getLog(), theEnvironment.getMavenSession(), theEnvironment.getLifecycleExecutor(), theEnvironment.getArtifactFactory(), theEnvironment.getLocalRepository(), theEnvironment.getArtifactMetadataSource(), theEnvironment.getArtifactCollector(),
-                    theEnvironment.getDependencyTreeBuilder(), theEnvironment.getProjectBuilder());
-            DependencyCollector theDependencyCollector = new DependencyCollector(theEnvironment.getDependencyTreeBuilder(), theEnvironment.getLocalRepository());
+            ExtensionsFactory theExtensionsFactory = new ExtensionsFactory(environment.getLog(), environment.getMavenSession(), environment.getLifecycleExecutor(), environment.getArtifactFactory(), environment.getLocalRepository(), environment.getArtifactMetadataSource(), environment.getArtifactCollector(),
+                    environment.getDependencyTreeBuilder(), environment.getProjectBuilder());
+            DependencyCollector theDependencyCollector = new DependencyCollector(environment.getDependencyTreeBuilder(), environment.getLocalRepository());
 
-            JavaVersionResolver theVersionResolver = new JavaVersionResolver(theEnvironment.getMavenSession(), theEnvironment.getLifecycleExecutor(), theEnvironment.getLog());
+            JavaVersionResolver theVersionResolver = new JavaVersionResolver(environment.getMavenSession(), environment.getLifecycleExecutor(), environment.getLog());
 
             Properties theEnvProps = Utils.loadEnvironmentProperties(System.getenv());
 
-            MavenProjectConverter theMavenProjectConverter = new MavenProjectConverter(theEnvironment.getLog(), theDependencyCollector, theVersionResolver, theEnvProps);
-            LogHandler theLogHandler = new LogHandler(theEnvironment.getLog());
+            // Pooled scanners outlive this build, so their log output is rebound to the log of every build using them
+            ScannerLogOutput theLogOutput = new ScannerLogOutput(new LogHandler(environment.getLog()));
 
-            PropertyDecryptor thePropertyDecryptor = new PropertyDecryptor(theEnvironment.getLog(), theEnvironment.getSecurityDispatcher());
+            PropertyDecryptor thePropertyDecryptor = new PropertyDecryptor(environment.getLog(), environment.getSecurityDispatcher());
 
-            ScannerFactory theRunnerFactory = new ScannerFactory(theLogHandler,
-                    theEnvironment.getLog(),
-                    theEnvironment.getRuntimeInformation(),
-                    theEnvironment.getMojoExecution(),
-                    theEnvironment.getMavenSession(),
+            ScannerFactory theRunnerFactory = new ScannerFactory(theLogOutput,
+                    environment.getLog(),
+                    environment.getRuntimeInformation(),
+                    environment.getMojoExecution(),
+                    environment.getMavenSession(),
                     theEnvProps,
                     thePropertyDecryptor);
 
-            EmbeddedScanner theScanner = theRunnerFactory.create();
-
             Properties theSonarConfigurationToAdd = new Properties();
             theSonarConfigurationToAdd.load(getClass().getResourceAsStream("/default-sonar.properties"));
 
@@ -97,9 +135,44 @@ public class SonarProcessor implements ReviewProcessor {
                 }
             }
 
-            theScanner.addGlobalProperties(theSonarConfigurationToAdd);
+            // The cache is configured per scanner, so concurrent scanners do not depend on global state
+            theCache.configure(theSonarConfigurationToAdd);
 
-            new ScannerBootstrapper(theEnvironment.getLog(), theEnvironment.getMavenSession(), theScanner, theMavenProjectConverter, theExtensionsFactory, thePropertyDecryptor).execute();
+            MavenProjectConverter theMavenProjectConverter;
+            if (Boolean.parseBoolean(configuration.getProperty(INCREMENTAL)) && !hasInclusions(theSonarConfigurationToAdd)) {
+                Map<Path, Set<String>> theInclusions = inclusionsFor(new ReactorScope(environment.getMavenSession()), review.getFiles());
+                if (theInclusions.isEmpty()) {
+                    log.info("No module owns a file of the review, skipping analysis");
+                    return new ReviewResult();
+                }
+                log.info("Limiting analysis to {}", theInclusions.values());
+                // The inclusions are specific to this review, so they are part of the analysis properties,
+                // and never of the global properties of a pooled scanner
+                theMavenProjectConverter = new MavenProjectConverter(environment.getLog(), theDependencyCollector, theVersionResolver, theEnvProps) {
+                    @Override
+                    public Properties configure(List<MavenProject> aProjects, MavenProject aRoot, Properties aUserProperties) throws MojoExecutionException {
+                        Properties theProperties = super.configure(aProjects, aRoot, aUserProperties);
+                        limitToInclusions(theProperties, theInclusions);
+                        return theProperties;
+                    }
+                };
+            } else {
+                theMavenProjectConverter = new MavenProjectConverter(environment.getLog(), theDependencyCollector, theVersionResolver, theEnvProps);
+            }
+
+            theCache.beforeAnalysis(theSonarConfigurationToAdd.getProperty("sonar.host.url", ""));
+            try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.ANALYSIS, getName())) {
+                EmbeddedScanner theScanner = theRunnerFactory.create();
+                theScanner.addGlobalProperties(theSonarConfigurationToAdd);
+                if (Boolean.parseBoolean(configuration.getProperty(SCANNER_POOLING))) {
+                    new PooledScannerBootstrapper(environment.getLog(), environment.getMavenSession(), theScanner, theLogOutput, theCache, theMavenProjectConverter, theExtensionsFactory, thePropertyDecryptor)
+                            .execute(ScannerPool.INSTANCE, Long.parseLong(configuration.getProperty(SCANNER_IDLE_TIMEOUT)) * 1000);
+                } else {
+                    new ScannerBootstrapper(environment.getLog(), environment.getMavenSession(), theScanner, theMavenProjectConverter, theExtensionsFactory, thePropertyDecryptor).execute();
+                }
+            } finally {
+                theCache.afterAnalysis();
+            }
 
             File resultFile = new File(theWorkingDirectory, "sonar-report.json");
 
@@ -120,13 +193,101 @@ public class SonarProcessor implements ReviewProcessor {
                 }
             }
 
-            return filterResults(parser.parseResults(Boolean.parseBoolean(theSonarConfigurationToAdd.getProperty("sonar.includeAllIssues"))), review);
+            try (RunMetrics.Span theSpan = RunMetrics.start(metrics, RunMetrics.PARSE, resultFile.getName())) {
+                ReviewResult theResult = reviewedResultsOf(parser, Boolean.parseBoolean(theSonarConfigurationToAdd.getProperty("sonar.includeAllIssues")), aIndex);
+                theSpan.setViolations(theResult.getViolations().size());
+                return theResult;
+            }
         }
         catch (Exception e) {
             throw new ReviewException("SonarResultParser error", e);
         }
     }
 
+    private static boolean hasInclusions(Properties aSonarConfiguration) {
+        if (aSonarConfiguration.containsKey("sonar.inclusions") || aSonarConfiguration.containsKey("sonar.test.inclusions")) {
+            log.info("Not limiting analysis to the files of the review, as inclusions are already configured");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes inclusion patterns for the files of a review, keyed by the base directory of the
+     * owning module. Sonar matches the patterns against the path relative to the module directory.
+     */
+    @VisibleForTesting
+    static Map<Path, Set<String>> inclusionsFor(ReactorScope aScope, Collection<ReviewFile> aFiles) {
+        Map<Path, Set<String>> theInclusions = new LinkedHashMap<>();
+        for (ReviewFile theFile : aFiles) {
+            MavenProject theOwner = aScope.owningModuleOf(theFile.getIoFile());
+            if (theOwner != null && theOwner.getBasedir() != null) {
+                Path theBaseDir = theOwner.getBasedir().getAbsoluteFile().toPath().normalize();
+                Path thePath = theFile.getIoFile().getAbsoluteFile().toPath().normalize();
+                theInclusions.computeIfAbsent(theBaseDir, k -> new LinkedHashSet<>()).add(theBaseDir.relativize(thePath).toString().replace('\\', '/'));
+            }
+        }
+        return theInclusions;
+    }
+
+    /**
+     * Sets the inclusions of every module of the analysis properties. The properties of a module are
+     * prefixed by its key, and inherited by its submodules. Modules without files of the review
+     * exclude everything, so their submodules reset the exclusions to their own.
+     */
+    @VisibleForTesting
+    static void limitToInclusions(Properties aAnalysisProperties, Map<Path, Set<String>> aInclusions) {
+        Map<String, Path> theModules = new TreeMap<>();
+        for (String theKey : aAnalysisProperties.stringPropertyNames()) {
+            if (theKey.endsWith(PROJECT_BASE_DIR)) {
+                String thePrefix = theKey.substring(0, theKey.length() - PROJECT_BASE_DIR.length());
+                if (thePrefix.isEmpty() || thePrefix.endsWith(".")) {
+                    theModules.put(thePrefix, new File(aAnalysisProperties.getProperty(theKey)).getAbsoluteFile().toPath().normalize());
+                }
+            }
+        }
+
+        Set<String> theExcluded = new HashSet<>();
+        for (Map.Entry<String, Path> theModule : theModules.entrySet()) {
+            if (!aInclusions.containsKey(theModule.getValue())) {
+                theExcluded.add(theModule.getKey());
+            }
+        }
+
+        for (Map.Entry<String, Path> theModule : theModules.entrySet()) {
+            String thePrefix = theModule.getKey();
+            Set<String> thePatterns = aInclusions.get(theModule.getValue());
+            if (thePatterns == null) {
+                continue;
+            }
+            String theInclusions = StringUtils.join(thePatterns, ",");
+            aAnalysisProperties.setProperty(thePrefix + "sonar.inclusions", theInclusions);
+            aAnalysisProperties.setProperty(thePrefix + "sonar.test.inclusions", theInclusions);
+            for (String theExcludedModule : theExcluded) {
+                if (thePrefix.startsWith(theExcludedModule)) {
+                    for (String theKey : EXCLUSIONS) {
+                        aAnalysisProperties.setProperty(thePrefix + theKey, aAnalysisProperties.getProperty(thePrefix + theKey,
+                                aAnalysisProperties.getProperty(theKey, "")));
+                    }
+                    break;
+                }
+            }
+        }
+        for (String theExcludedModule : theExcluded) {
+            for (String theKey : EXCLUSIONS) {
+                aAnalysisProperties.setProperty(theExcludedModule + theKey, "**/*");
+            }
+        }
+    }
+
+    private SonarCache createCache() {
+        String theDirectory = configuration.getProperty(CACHE_DIRECTORY);
+        File theUserHome = StringUtils.isEmpty(theDirectory)
+                ? new File(new File(System.getProperty("user.home"), ".sputnik"), "sonar")
+                : new File(theDirectory);
+        return new SonarCache(theUserHome, Long.parseLong(configuration.getProperty(CACHE_MAX_SIZE)) * 1024 * 1024);
+    }
+
     /**
      * Filters a ReviewResult to keep only the violations that are about a file
      * which is modified by a given review.
@@ -134,18 +295,29 @@ public class SonarProcessor implements ReviewProcessor {
     @VisibleForTesting
     ReviewResult filterResults(ReviewResult results, Review review) {
         ReviewResult filteredResults = new ReviewResult();
-
-        // Sonar might not report the full qualified file names, so this is the best guess
+        ReviewFileIndex theIndex = new ReviewFileIndex(review.getFiles());
         for (Violation violation : results.getViolations()) {
-            for (ReviewFile theFile : review.getFiles()) {
-                if (theFile.getReviewFilename().endsWith(violation.getFilenameOrJavaClassName())) {
-                    filteredResults.add(new Violation(theFile.getReviewFilename(), violation.getLine(), violation.getMessage(), violation.getSeverity()));
-                }
-            }
+            addIfReviewed(violation, theIndex, filteredResults);
         }
         return filteredResults;
     }
 
+    /**
+     * Parses the Sonar report, keeping only the violations that are about a file which is modified by the review.
+     */
+    static ReviewResult reviewedResultsOf(SonarResultParser aParser, boolean aIncludeAllIssues, ReviewFileIndex aIndex) throws IOException {
+        ReviewResult theResult = new ReviewResult();
+        aParser.parseResults(aIncludeAllIssues, violation -> addIfReviewed(violation, aIndex, theResult));
+        return theResult;
+    }
+
+    private static void addIfReviewed(Violation violation, ReviewFileIndex aIndex, ReviewResult aResult) {
+        // Sonar might not report the full qualified file names, so this is the best guess
+        for (ReviewFile theFile : aIndex.findBySuffix(violation.getFilenameOrJavaClassName())) {
+            aResult.add(new Violation(theFile.getReviewFilename(), violation.getLine(), violation.getMessage(), violation.getSeverity()));
+        }
+    }
+
     @NotNull
     @Override
     public String getName() {
@@ -1,7 +1,8 @@
 package de.mirkosertic.mavensonarsputnik.processor.sonar;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
 import lombok.AllArgsConstructor;
@@ -11,10 +12,9 @@ import pl.touk.sputnik.review.Severity;
 import pl.touk.sputnik.review.Violation;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Parses a json file produced by a run of Sonar.
@@ -23,6 +23,8 @@ import java.util.Map;
 @AllArgsConstructor
 class SonarResultParser {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final File resultFile;
 
     /**
@@ -35,39 +37,103 @@ class SonarResultParser {
         final String moduleKey;
     }
 
+    /**
+     * Parses the file and passes all the issues to the given consumer, one at a time.
+     * The file is streamed twice, first to collect the components, and then to read the issues,
+     * so memory usage does not depend on the number of issues.
+     */
+    public void parseResults(boolean aIncludeAllNodes, Consumer<Violation> aConsumer) throws IOException {
+        Map<String, Component> components = getComponents();
+        try (JsonParser theParser = JSON_FACTORY.createParser(resultFile)) {
+            if (!moveToArray(theParser, "issues")) {
+                return;
+            }
+            while (theParser.nextToken() == JsonToken.START_OBJECT) {
+                parseIssue(theParser, aIncludeAllNodes, components, aConsumer);
+            }
+        }
+    }
+
     /**
      * Parses the file and returns all the issues as a ReviewResult.
      */
     public ReviewResult parseResults(boolean aIncludeAllNodes) throws IOException {
         ReviewResult result = new ReviewResult();
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode rootNode = mapper.readTree(new FileReader(resultFile));
-        JsonNode issues = rootNode.path("issues");
-        Iterator<JsonNode> issuesIterator = issues.iterator();
-        Map<String, Component> components = getComponents(rootNode.path("components"));
-
-        while (issuesIterator.hasNext()) {
-            JsonNode issue = issuesIterator.next();
-            if (!aIncludeAllNodes) {
-                boolean isNew = issue.path("isNew").asBoolean();
-                if (!isNew) {
-                    log.debug("Skipping already indexed issue: {}", issue.toString());
-                    continue;
-                }
+        parseResults(aIncludeAllNodes, result::add);
+        return result;
+    }
+
+    /**
+     * Moves the parser to the start of an array field of the root object.
+     */
+    private static boolean moveToArray(JsonParser aParser, String aFieldName) throws IOException {
+        if (aParser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (aParser.nextToken() == JsonToken.FIELD_NAME) {
+            String theName = aParser.getCurrentName();
+            JsonToken theValue = aParser.nextToken();
+            if (aFieldName.equals(theName) && theValue == JsonToken.START_ARRAY) {
+                return true;
             }
-            JsonNode lineNode = issue.path("line");
-            if (lineNode.isMissingNode()) {
-                log.debug("Skipping an issue with no line information: {}", issue.toString());
-                continue;
+            aParser.skipChildren();
+        }
+        return false;
+    }
+
+    private void parseIssue(JsonParser aParser, boolean aIncludeAllNodes, Map<String, Component> aComponents, Consumer<Violation> aConsumer)
+            throws IOException {
+        boolean isNew = false;
+        Integer line = null;
+        String key = "";
+        String message = "";
+        String component = "";
+        String severity = "";
+        String rule = "";
+        while (aParser.nextToken() == JsonToken.FIELD_NAME) {
+            String theName = aParser.getCurrentName();
+            aParser.nextToken();
+            switch (theName) {
+            case "isNew":
+                isNew = aParser.getValueAsBoolean();
+                break;
+            case "line":
+                line = aParser.getValueAsInt();
+                break;
+            case "key":
+                key = aParser.getValueAsString("");
+                break;
+            case "message":
+                message = aParser.getValueAsString("");
+                break;
+            case "component":
+                component = aParser.getValueAsString("");
+                break;
+            case "severity":
+                severity = aParser.getValueAsString("");
+                break;
+            case "rule":
+                rule = aParser.getValueAsString("");
+                break;
+            default:
+                aParser.skipChildren();
             }
-            int line = lineNode.asInt();
-            String message = issue.path("message").asText();
-            String file = getIssueFilePath(issue.path("component").asText(), components);
-            String severity = issue.path("severity").asText();
-            String rule = issue.path("rule").asText();
-            result.add(new Violation(file, line, String.format("%s (Rule: %s)", message, rule), getSeverity(severity)));
         }
-        return result;
+
+        if (!aIncludeAllNodes && !isNew) {
+            log.debug("Skipping already indexed issue: {}", key);
+            return;
+        }
+        if (line == null) {
+            log.debug("Skipping an issue with no line information: {}", key);
+            return;
+        }
+        String file = getIssueFilePath(component, aComponents);
+        if (file == null) {
+            log.debug("Skipping an issue with unknown component: {}", key);
+            return;
+        }
+        aConsumer.accept(new Violation(file, line, String.format("%s (Rule: %s)", message, rule), getSeverity(severity)));
     }
 
     /**
@@ -93,16 +159,36 @@ class SonarResultParser {
     /**
      * Extracts all the components from the json data.
      */
-    private Map<String, Component> getComponents(JsonNode componentsNode) {
-        Iterator<JsonNode> it = componentsNode.iterator();
+    private Map<String, Component> getComponents() throws IOException {
         Map<String, Component> components = Maps.newHashMap();
 
-        while(it.hasNext()){
-            JsonNode componentNode = it.next();
-            JsonNode pathNode = componentNode.path("path");
-            JsonNode moduleNode = componentNode.path("moduleKey");
-            components.put(componentNode.path("key").asText(),
-                    new Component(pathNode.asText(), moduleNode.isMissingNode()?null:moduleNode.asText()));
+        try (JsonParser theParser = JSON_FACTORY.createParser(resultFile)) {
+            if (!moveToArray(theParser, "components")) {
+                return components;
+            }
+            while (theParser.nextToken() == JsonToken.START_OBJECT) {
+                String key = "";
+                String path = "";
+                String moduleKey = null;
+                while (theParser.nextToken() == JsonToken.FIELD_NAME) {
+                    String theName = theParser.getCurrentName();
+                    theParser.nextToken();
+                    switch (theName) {
+                    case "key":
+                        key = theParser.getValueAsString("");
+                        break;
+                    case "path":
+                        path = theParser.getValueAsString("");
+                        break;
+                    case "moduleKey":
+                        moduleKey = theParser.getValueAsString();
+                        break;
+                    default:
+                        theParser.skipChildren();
+                    }
+                }
+                components.put(key, new Component(path, moduleKey));
+            }
         }
 
         return components;
@@ -114,9 +200,13 @@ class SonarResultParser {
      *
      * @param issueComponent "component" field in an issue.
      * @param components information about all components.
+     * @return the path, or null if the component is unknown.
      */
     private String getIssueFilePath(String issueComponent, Map<String, Component> components) {
         Component comp = components.get(issueComponent);
+        if (comp == null) {
+            return null;
+        }
         String file = comp.path;
         if (!Strings.isNullOrEmpty(comp.moduleKey)) {
             Component theChildComp = components.get(comp.moduleKey);
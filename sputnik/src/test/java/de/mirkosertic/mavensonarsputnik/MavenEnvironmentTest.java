@@ -65,4 +65,20 @@ public class MavenEnvironmentTest {
         MavenEnvironment.cleanUp();;
         assertNull(MavenEnvironment.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBoundToThread() throws InterruptedException {
+        MavenEnvironment.initialize(mock(MavenSession.class), null, null, null, null, null, null, null, null, null, null, null, null);
+        try {
+            MavenEnvironment[] theOtherEnvironment = new MavenEnvironment[1];
+            Thread theThread = new Thread(() -> theOtherEnvironment[0] = MavenEnvironment.get());
+            theThread.start();
+            theThread.join();
+
+            assertNotNull(MavenEnvironment.get());
+            assertNull(theOtherEnvironment[0]);
+        } finally {
+            MavenEnvironment.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.mirkosertic.mavensonarsputnik;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import pl.touk.sputnik.review.ReviewFile;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ReactorScopeTest {
+
+    private static final File ROOT = new File("reactor").getAbsoluteFile();
+
+    private static MavenProject module(String aName, String... aDependencies) {
+        MavenProject theProject = new MavenProject();
+        theProject.setGroupId("group");
+        theProject.setArtifactId(aName);
+        File theBaseDir = aName.equals("parent") ? ROOT : new File(ROOT, aName);
+        theProject.setFile(new File(theBaseDir, "pom.xml"));
+        theProject.addCompileSourceRoot(new File(theBaseDir, "src/main/java").getPath());
+        theProject.addTestCompileSourceRoot(new File(theBaseDir, "src/test/java").getPath());
+        for (String theDependency : aDependencies) {
+            Dependency theDep = new Dependency();
+            theDep.setGroupId("group");
+            theDep.setArtifactId(theDependency);
+            theProject.getModel().addDependency(theDep);
+        }
+        return theProject;
+    }
+
+    @Test
+    public void testOwningModule() {
+        MavenProject theParent = module("parent");
+        MavenProject theCore = module("core");
+        ReactorScope theScope = new ReactorScope(Arrays.asList(theParent, theCore));
+
+        assertSame(theCore, theScope.owningModuleOf(new File(ROOT, "core/src/main/java/a/A.java")));
+        assertSame(theCore, theScope.owningModuleOf(new File(ROOT, "core/pom.xml")));
+        assertSame(theParent, theScope.owningModuleOf(new File(ROOT, "pom.xml")));
+    }
+
+    @Test
+    public void testModulesOwning() {
+        MavenProject theParent = module("parent");
+        MavenProject theCore = module("core");
+        MavenProject theService = module("service", "core");
+        MavenProject theWeb = module("web", "service");
+        ReactorScope theScope = new ReactorScope(Arrays.asList(theParent, theCore, theService, theWeb));
+
+        ReviewFile theCoreFile = new ReviewFile(new File(ROOT, "core/src/main/java/a/A.java").getPath());
+        ReviewFile theWebFile = new ReviewFile(new File(ROOT, "web/src/test/java/a/ATest.java").getPath());
+        assertEquals(Arrays.asList(theCore), Arrays.asList(theScope.modulesOwning(Collections.singletonList(theCoreFile)).toArray()));
+        assertEquals(Arrays.asList(theCore, theWeb), Arrays.asList(theScope.modulesOwning(Arrays.asList(theWebFile, theCoreFile)).toArray()));
+    }
+}
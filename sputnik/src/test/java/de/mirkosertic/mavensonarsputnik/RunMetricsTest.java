@@ -0,0 +1,136 @@
+package de.mirkosertic.mavensonarsputnik;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+
+public class RunMetricsTest {
+
+    @After
+    public void cleanUp() {
+        RunMetrics.cleanUp();
+    }
+
+    @Test
+    public void testSpansAreRecorded() {
+        RunMetrics.initialize();
+        try (RunMetrics.Span theSpan = RunMetrics.start(RunMetrics.get(), RunMetrics.PARSE, "report.xml", "module")) {
+            theSpan.setViolations(3);
+        }
+        try (RunMetrics.Span theSpan = RunMetrics.start(RunMetrics.get(), RunMetrics.PROCESSOR, "Processor")) {
+            new StringBuilder(1024).append("allocation");
+            theSpan.setViolations(5);
+            theSpan.setReportedViolations(2);
+        }
+
+        List<RunMetrics.Sample> theSamples = RunMetrics.get().getSamples();
+        assertEquals(2, theSamples.size());
+        RunMetrics.Sample theParse = theSamples.get(0);
+        assertEquals(RunMetrics.PARSE, theParse.getCategory());
+        assertEquals("report.xml", theParse.getName());
+        assertEquals("module", theParse.getModule());
+        assertEquals(3, theParse.getViolations());
+        assertEquals(-1, theParse.getReportedViolations());
+        assertTrue(theParse.getWallNanos() >= 0);
+        assertTrue(theParse.getCpuNanos() >= -1);
+        assertTrue(theParse.getAllocatedBytes() >= -1);
+
+        RunMetrics.Sample theProcessor = theSamples.get(1);
+        assertEquals("", theProcessor.getModule());
+        assertEquals(5, theProcessor.getViolations());
+        assertEquals(2, theProcessor.getReportedViolations());
+    }
+
+    @Test
+    public void testSpansWithoutMetricsAreIgnored() {
+        try (RunMetrics.Span theSpan = RunMetrics.start(RunMetrics.get(), RunMetrics.PROCESSOR, "Processor")) {
+            theSpan.setViolations(1);
+        }
+        assertEquals(null, RunMetrics.get());
+    }
+
+    @Test
+    public void testSpansOfWorkerThreads() throws InterruptedException {
+        RunMetrics.initialize();
+        RunMetrics theMetrics = RunMetrics.get();
+
+        RunMetrics[] theWorkerMetrics = new RunMetrics[1];
+        Thread theWorker = new Thread(() -> {
+            theWorkerMetrics[0] = RunMetrics.get();
+            try (RunMetrics.Span theSpan = RunMetrics.start(theMetrics, RunMetrics.PROCESSOR, "Processor")) {
+                theSpan.setViolations(1);
+            }
+        });
+        theWorker.start();
+        theWorker.join();
+
+        assertEquals(null, theWorkerMetrics[0]);
+        assertEquals(1, theMetrics.getSamples().size());
+    }
+
+    @Test
+    public void testWriteJson() throws Exception {
+        RunMetrics theMetrics = new RunMetrics(1000);
+        theMetrics.add(new RunMetrics.Sample(RunMetrics.PARSE, "a\"b", "module", 10, 5, 100, 2, -1));
+
+        StringWriter theWriter = new StringWriter();
+        theMetrics.writeJson(theWriter, 2048);
+
+        assertEquals("{\"started\":1000,\"peakHeapBytes\":2048,\"samples\":[\n"
+                + "{\"category\":\"parse\",\"name\":\"a\\\"b\",\"module\":\"module\",\"wallNanos\":10,\"cpuNanos\":5,\"allocatedBytes\":100,\"violations\":2,\"reportedViolations\":-1}\n"
+                + "]}\n", theWriter.toString());
+    }
+
+    @Test
+    public void testWritePrometheusSumsSamplesOfAStep() throws Exception {
+        RunMetrics theMetrics = new RunMetrics(5000);
+        theMetrics.add(new RunMetrics.Sample(RunMetrics.PARSE, "report.xml", "module", 1000000000L, 500000000L, 100, 2, -1));
+        theMetrics.add(new RunMetrics.Sample(RunMetrics.PARSE, "report.xml", "module", 1000000000L, -1, -1, 1, -1));
+        theMetrics.add(new RunMetrics.Sample(RunMetrics.PROCESSOR, "Processor", "", 3000000000L, 0, 0, 5, 2));
+
+        StringWriter theWriter = new StringWriter();
+        theMetrics.writePrometheus(theWriter, 2048);
+        String theText = theWriter.toString();
+
+        assertTrue(theText.contains("# TYPE sputnik_step_wall_seconds gauge\n"));
+        assertTrue(theText.contains("sputnik_step_wall_seconds{category=\"parse\",name=\"report.xml\",module=\"module\"} 2.0\n"));
+        assertTrue(theText.contains("sputnik_step_cpu_seconds{category=\"parse\",name=\"report.xml\",module=\"module\"} 0.5\n"));
+        assertTrue(theText.contains("sputnik_step_allocated_bytes{category=\"parse\",name=\"report.xml\",module=\"module\"} 100\n"));
+        assertTrue(theText.contains("sputnik_step_violations{category=\"parse\",name=\"report.xml\",module=\"module\"} 3\n"));
+        assertTrue(theText.contains("sputnik_step_reported_violations{category=\"parse\",name=\"report.xml\",module=\"module\"} 0\n"));
+        assertTrue(theText.contains("sputnik_step_violations{category=\"processor\",name=\"Processor\",module=\"\"} 5\n"));
+        assertTrue(theText.contains("sputnik_step_reported_violations{category=\"processor\",name=\"Processor\",module=\"\"} 2\n"));
+        assertTrue(theText.contains("sputnik_step_count{category=\"parse\",name=\"report.xml\",module=\"module\"} 2\n"));
+        assertTrue(theText.contains("sputnik_step_wall_seconds{category=\"processor\",name=\"Processor\",module=\"\"} 3.0\n"));
+        assertTrue(theText.contains("sputnik_run_timestamp_seconds 5\n"));
+        assertTrue(theText.contains("sputnik_run_peak_heap_bytes 2048\n"));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        File theDirectory = Files.createTempDirectory("metrics").toFile();
+        try {
+            RunMetrics theMetrics = new RunMetrics(1000);
+            theMetrics.add(new RunMetrics.Sample(RunMetrics.ENGINE, "sputnik", "", 10, 5, 100, -1, -1));
+
+            File theJson = new File(theDirectory, "target/sputnik-metrics.json");
+            File thePrometheus = new File(theDirectory, "target/sputnik-metrics.prom");
+            theMetrics.write(theJson, thePrometheus);
+            theMetrics.write(theJson, thePrometheus);
+
+            assertTrue(FileUtils.readFileToString(theJson).contains("\"category\":\"engine\""));
+            assertTrue(FileUtils.readFileToString(thePrometheus).contains("sputnik_step_count{category=\"engine\",name=\"sputnik\",module=\"\"} 1\n"));
+            assertEquals(2, new File(theDirectory, "target").list().length);
+        } finally {
+            FileUtils.deleteDirectory(theDirectory);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package de.mirkosertic.mavensonarsputnik.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import pl.touk.sputnik.review.ReviewFile;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ReviewFileIndexTest {
+
+    private final ReviewFile first = new ReviewFile("core/src/main/java/a/A.java");
+    private final ReviewFile second = new ReviewFile("web/src/main/java/b/A.java");
+    private final ReviewFile third = new ReviewFile("web/src/main/java/b/BA.java");
+    private final ReviewFileIndex index = new ReviewFileIndex(Arrays.asList(first, second, third));
+
+    @Test
+    public void testFindBySuffix() {
+        assertEquals(Arrays.asList(first), index.findBySuffix("core/src/main/java/a/A.java"));
+        assertEquals(Arrays.asList(first), index.findBySuffix("a/A.java"));
+        assertEquals(Arrays.asList(first, second), index.findBySuffix("A.java"));
+        assertEquals(Arrays.asList(first), index.findBySuffix("./core\\src/main/java/a/A.java"));
+        assertEquals(Collections.emptyList(), index.findBySuffix("other/core/src/main/java/a/A.java"));
+        assertEquals(Collections.emptyList(), index.findBySuffix(""));
+    }
+
+    @Test
+    public void testFindBySourceFile() {
+        assertEquals(Arrays.asList(second), index.findBySourceFile("b", "A.java"));
+        assertEquals(Arrays.asList(first, second), index.findBySourceFile("", "A.java"));
+        assertEquals(Collections.emptyList(), index.findBySourceFile("c", "A.java"));
+    }
+
+    @Test
+    public void testResultsCannotModifyTheIndex() {
+        try {
+            index.findBySourceFile("", "A.java").clear();
+            fail("The index was modified");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        assertEquals(Arrays.asList(first, second), index.findBySuffix("A.java"));
+    }
+
+    @Test
+    public void testContainsFileName() {
+        assertTrue(index.containsFileName("BA.java"));
+        assertFalse(index.containsFileName("B.java"));
+    }
+}
@@ -0,0 +1,111 @@
+package de.mirkosertic.mavensonarsputnik.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewResult;
+import pl.touk.sputnik.review.Severity;
+import pl.touk.sputnik.review.Violation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ViolationConsolidatorTest {
+
+    private static ReviewResult resultWith(Violation... aViolations) {
+        ReviewResult theResult = new ReviewResult();
+        for (Violation theViolation : aViolations) {
+            theResult.add(theViolation);
+        }
+        return theResult;
+    }
+
+    private static Review reviewWith(List<String> aMessages) {
+        Review theReview = mock(Review.class);
+        when(theReview.getMessages()).thenReturn(aMessages);
+        return theReview;
+    }
+
+    @Test
+    public void testRemoveDuplicates() {
+        Violation theFirst = new Violation("A.java", 1, "First", Severity.WARNING);
+        Violation theSecond = new Violation("A.java", 2, "First", Severity.WARNING);
+        List<String> theMessages = new ArrayList<>();
+
+        ReviewResult theResult = new ViolationConsolidator(true, false, 0).consolidate("Test",
+                resultWith(theFirst, new Violation("A.java", 1, "First", Severity.WARNING), theSecond), reviewWith(theMessages));
+
+        assertEquals(Arrays.asList(theFirst, theSecond), theResult.getViolations());
+        assertTrue(theMessages.isEmpty());
+    }
+
+    @Test
+    public void testMergeLines() {
+        Violation theOther = new Violation("B.java", 1, "Other", Severity.INFO);
+
+        ReviewResult theResult = new ViolationConsolidator(true, true, 0).consolidate("Test", resultWith(
+                new Violation("A.java", 3, "Info", Severity.INFO),
+                new Violation("A.java", 3, "Error", Severity.ERROR),
+                new Violation("A.java", 3, "Warning", Severity.WARNING),
+                theOther), reviewWith(new ArrayList<>()));
+
+        List<Violation> theViolations = theResult.getViolations();
+        assertEquals(2, theViolations.size());
+        assertEquals("A.java", theViolations.get(0).getFilenameOrJavaClassName());
+        assertEquals(3, (int) theViolations.get(0).getLine());
+        assertEquals("Error\n\nWarning\n\nInfo", theViolations.get(0).getMessage());
+        assertEquals(Severity.ERROR, theViolations.get(0).getSeverity());
+        assertSame(theOther, theViolations.get(1));
+    }
+
+    @Test
+    public void testKeepMostSeverePerFile() {
+        Violation theError = new Violation("A.java", 5, "Error", Severity.ERROR);
+        Violation theFirstWarning = new Violation("A.java", 2, "Warning", Severity.WARNING);
+        Violation theOther = new Violation("B.java", 1, "Other", Severity.INFO);
+        List<String> theMessages = new ArrayList<>();
+
+        ReviewResult theResult = new ViolationConsolidator(true, true, 2).consolidate("Test", resultWith(
+                new Violation("A.java", 1, "Info", Severity.INFO),
+                theFirstWarning,
+                new Violation("A.java", 4, "Warning", Severity.WARNING),
+                theError,
+                theOther), reviewWith(theMessages));
+
+        assertEquals(Arrays.asList(theFirstWarning, theError, theOther), theResult.getViolations());
+        assertEquals(1, theMessages.size());
+        assertEquals("Test : 2 less severe violations were left out, as only 2 violations are reported per file\n"
+                + "* A.java : 2\n", theMessages.get(0));
+    }
+
+    @Test
+    public void testDisabled() {
+        ReviewResult theResult = resultWith(
+                new Violation("A.java", 1, "First", Severity.WARNING),
+                new Violation("A.java", 1, "First", Severity.WARNING));
+
+        assertSame(theResult, new ViolationConsolidator(false, true, 1).consolidate("Test", theResult, mock(Review.class)));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertEquals("false", ViolationConsolidator.CONSOLIDATION_ENABLED.getDefaultValue());
+    }
+
+    @Test
+    public void testMergeRanksSeverities() {
+        Violation theMerged = ViolationConsolidator.merge(Arrays.asList(
+                new Violation("A.java", 1, "Ignore", Severity.IGNORE),
+                new Violation("A.java", 1, "Warning", Severity.WARNING),
+                new Violation("A.java", 1, "Info", Severity.INFO)));
+
+        assertEquals("Warning\n\nInfo\n\nIgnore", theMerged.getMessage());
+        assertEquals(Severity.WARNING, theMerged.getSeverity());
+    }
+}
@@ -0,0 +1,57 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class DependencyCheckReportParserTest {
+
+    private static final String REPORT = "<?xml version=\"1.0\"?>"
+            + "<analysis xmlns=\"https://jeremylong.github.io/DependencyCheck/dependency-check.1.3.xsd\">"
+            + "<projectInfo><name>test</name></projectInfo>"
+            + "<dependencies>"
+            + "<dependency><fileName>safe.jar</fileName>"
+            + "<evidenceCollected><evidence type=\"vendor\"><name>safe</name></evidence></evidenceCollected>"
+            + "<identifiers><identifier type=\"maven\"><name>(group:safe:1.0)</name></identifier></identifiers>"
+            + "</dependency>"
+            + "<dependency><fileName>unsafe.jar</fileName>"
+            + "<identifiers><identifier type=\"cpe\"><name>cpe:/a:unsafe:1.0</name></identifier>"
+            + "<identifier type=\"maven\"><name>(group:unsafe:1.0)</name><url>http://search.maven.org</url></identifier></identifiers>"
+            + "<vulnerabilities>"
+            + "<vulnerability source=\"NVD\"><name>CVE-2017-0001</name><cvssScore>7.5</cvssScore><severity>High</severity>"
+            + "<cwe>CWE-20 Improper Input Validation</cwe><description>Bad &amp; worse</description>"
+            + "<references><reference><source>CONFIRM</source><url>http://example.org/1</url><name>first</name></reference>"
+            + "<reference><source>BID</source><url>http://example.org/2</url><name>second</name></reference></references>"
+            + "<vulnerableSoftware><software>cpe:/a:unsafe:1.0</software></vulnerableSoftware>"
+            + "</vulnerability>"
+            + "<vulnerability source=\"NVD\"><name>CVE-2017-0002</name><severity>Low</severity><description>Minor</description></vulnerability>"
+            + "<suppressedVulnerability source=\"NVD\"><name>CVE-2017-0003</name><severity>High</severity></suppressedVulnerability>"
+            + "</vulnerabilities>"
+            + "<relatedDependencies><relatedDependency><fileName>unsafe-extra.jar</fileName>"
+            + "<identifier type=\"maven\"><name>(group:unsafe-extra:1.0)</name></identifier></relatedDependency></relatedDependencies>"
+            + "</dependency>"
+            + "<dependency><fileName>native.dll</fileName>"
+            + "<identifiers><identifier type=\"cpe\"><name>cpe:/a:native:1.0</name></identifier></identifiers>"
+            + "<vulnerabilities><vulnerability><name>CVE-2017-0004</name><severity>High</severity><description>Native</description></vulnerability></vulnerabilities>"
+            + "</dependency>"
+            + "</dependencies></analysis>";
+
+    @Test
+    public void testParse() throws Exception {
+        List<OWASPDependencyCheckProcessor.Finding> theFindings = DependencyCheckReportParser.parse(
+                new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, theFindings.size());
+        assertEquals("group:unsafe:1.0", theFindings.get(0).getIdentifier().getKey());
+        assertEquals("group:unsafe-extra:1.0", theFindings.get(1).getIdentifier().getKey());
+        assertEquals(Arrays.asList(
+                "High Severity\n\nCWE-20 Improper Input Validation : Bad & worse\n\n* CONFIRM http://example.org/1\n* BID http://example.org/2\n",
+                "Low Severity\n\nMinor\n\n"), theFindings.get(0).getVulnerabilities());
+        assertEquals(theFindings.get(0).getVulnerabilities(), theFindings.get(1).getVulnerabilities());
+    }
+}
@@ -0,0 +1,116 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.Repository;
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DependencyDeltaTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Artifact artifact(String aArtifactId, String aVersion) {
+        return new DefaultArtifact("group", aArtifactId, aVersion, Artifact.SCOPE_COMPILE, "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+    private static Map<String, Artifact> dependencies(Artifact... aArtifacts) {
+        Map<String, Artifact> theResult = new LinkedHashMap<>();
+        for (Artifact theArtifact : aArtifacts) {
+            theResult.put(theArtifact.getGroupId() + ":" + theArtifact.getArtifactId() + ":" + theArtifact.getBaseVersion(), theArtifact);
+        }
+        return theResult;
+    }
+
+    @Test
+    public void testOf() {
+        Map<String, Artifact> theBefore = dependencies(artifact("kept", "1.0"), artifact("updated", "1.0"), artifact("removed", "1.0"));
+        Map<String, Artifact> theAfter = dependencies(artifact("kept", "1.0"), artifact("updated", "1.1"), artifact("added", "1.0"));
+
+        assertEquals(Arrays.asList("group:updated:1.1", "group:added:1.0"),
+                Arrays.asList(DependencyDelta.of(theBefore, theAfter).keySet().toArray()));
+    }
+
+    @Test
+    public void testBaseRevisionOf() {
+        assertEquals("origin/master", DependencyDelta.baseRevisionOf("origin/master", "abc123"));
+        assertEquals("abc123^", DependencyDelta.baseRevisionOf("", "abc123"));
+        assertEquals("HEAD^", DependencyDelta.baseRevisionOf(null, null));
+    }
+
+    private static String pomWithParent(String aParentVersion) {
+        return "<project><modelVersion>4.0.0</modelVersion><parent><groupId>group</groupId><artifactId>parent</artifactId>"
+                + "<version>" + aParentVersion + "</version></parent><artifactId>module</artifactId></project>";
+    }
+
+    @Test
+    public void testBasePomFor() throws Exception {
+        Parent theParent = new Parent();
+        theParent.setGroupId("group");
+        theParent.setArtifactId("parent");
+        theParent.setVersion("1.0");
+        Model theModuleModel = new Model();
+        theModuleModel.setArtifactId("module");
+        theModuleModel.setParent(theParent);
+        MavenProject theModule = new MavenProject(theModuleModel);
+        MavenProject theParentProject = new MavenProject();
+        theParentProject.setFile(new File(folder.getRoot(), "pom.xml"));
+        theModule.setParent(theParentProject);
+        File theBaseFile = new File(folder.getRoot(), "module/target/owasp-dependency-check/base/pom.xml");
+
+        DependencyDelta.write(DependencyDelta.basePomFor(pomWithParent("1.0").getBytes(StandardCharsets.UTF_8), theModule, theBaseFile), theBaseFile);
+        String theContent = new String(Files.readAllBytes(theBaseFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(theContent.contains("<artifactId>module</artifactId>"));
+        assertTrue(theContent.contains("<relativePath>" + new File("../../../../pom.xml").getPath() + "</relativePath>"));
+
+        // A replaced parent cannot be resolved using the current parent
+        assertNull(DependencyDelta.basePomFor(pomWithParent("0.9").getBytes(StandardCharsets.UTF_8), theModule, theBaseFile));
+    }
+
+    @Test
+    public void testModelFor() throws Exception {
+        Model theModuleModel = new Model();
+        theModuleModel.setGroupId("group");
+        theModuleModel.setArtifactId("module");
+        theModuleModel.setVersion("1.0");
+        Repository theRepository = new Repository();
+        theRepository.setId("internal");
+        theRepository.setUrl("http://repository.example.org");
+        theModuleModel.addRepository(theRepository);
+        MavenProject theModule = new MavenProject(theModuleModel);
+
+        Model theModel = DependencyDelta.modelFor(theModule, Arrays.asList(artifact("added", "1.0")));
+        assertEquals("module-dependency-delta", theModel.getArtifactId());
+        assertEquals("internal", theModel.getRepositories().get(0).getId());
+        assertEquals(1, theModel.getDependencies().size());
+        Dependency theDependency = theModel.getDependencies().get(0);
+        assertEquals("added", theDependency.getArtifactId());
+        assertEquals("1.0", theDependency.getVersion());
+        assertEquals("*", theDependency.getExclusions().get(0).getGroupId());
+        assertEquals("*", theDependency.getExclusions().get(0).getArtifactId());
+
+        File thePomXMLFile = new File(folder.getRoot(), "delta/pom.xml");
+        DependencyDelta.write(theModel, thePomXMLFile);
+        String theContent = new String(Files.readAllBytes(thePomXMLFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(theContent.contains("<artifactId>module-dependency-delta</artifactId>"));
+        assertTrue(theContent.contains("<artifactId>added</artifactId>"));
+    }
+}
@@ -0,0 +1,56 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FindingsCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testKeyOf() {
+        String theKey = FindingsCache.keyOf("1.4.5", Arrays.asList("group:a:1.0", "group:b:1.0"));
+        assertEquals(theKey, FindingsCache.keyOf("1.4.5", Arrays.asList("group:b:1.0", "group:a:1.0")));
+        assertFalse(theKey.equals(FindingsCache.keyOf("1.4.5", Arrays.asList("group:a:1.0", "group:b:1.1"))));
+        assertFalse(theKey.equals(FindingsCache.keyOf("2.0.0", Arrays.asList("group:a:1.0", "group:b:1.0"))));
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        FindingsCache theCache = new FindingsCache(folder.newFolder("cache"));
+        String theKey = FindingsCache.keyOf("1.4.5", Collections.singletonList("group:a:1.0"));
+        assertNull(theCache.lookup(theKey, 1000));
+
+        OWASPDependencyCheckProcessor.Finding theFinding = new OWASPDependencyCheckProcessor.Finding(
+                new OWASPDependencyCheckProcessor.MavenIdentifier("(group:a:1.0)"), Arrays.asList("High Severity\n\nFirst", "Low Severity\n\nSecond"));
+        theCache.store(theKey, 1000, Collections.singletonList(theFinding));
+
+        List<OWASPDependencyCheckProcessor.Finding> theFindings = theCache.lookup(theKey, 1000);
+        assertEquals(1, theFindings.size());
+        assertEquals("group:a:1.0", theFindings.get(0).getIdentifier().getKey());
+        assertEquals(theFinding.getVulnerabilities(), theFindings.get(0).getVulnerabilities());
+
+        // Findings of an older database are not used
+        assertNull(theCache.lookup(theKey, 2000));
+        assertEquals(1, theCache.getHits());
+        assertEquals(2, theCache.getMisses());
+    }
+
+    @Test
+    public void testEmptyFindings() throws Exception {
+        FindingsCache theCache = new FindingsCache(folder.newFolder("cache"));
+        String theKey = FindingsCache.keyOf("1.4.5", Collections.singletonList("group:a:1.0"));
+        theCache.store(theKey, 1000, Collections.emptyList());
+        assertEquals(0, theCache.lookup(theKey, 1000).size());
+    }
+}
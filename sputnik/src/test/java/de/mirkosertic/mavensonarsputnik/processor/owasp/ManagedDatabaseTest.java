@@ -0,0 +1,112 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ManagedDatabaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUpdateIfStale() throws Exception {
+        ManagedDatabase theDatabase = new ManagedDatabase(folder.newFolder("data"), TimeUnit.HOURS.toMillis(24));
+        assertTrue(theDatabase.isStale(System.currentTimeMillis()));
+
+        AtomicInteger theUpdates = new AtomicInteger();
+        theDatabase.updateIfStale(theUpdates::incrementAndGet);
+        theDatabase.updateIfStale(theUpdates::incrementAndGet);
+
+        assertEquals(1, theUpdates.get());
+        assertFalse(theDatabase.isStale(System.currentTimeMillis()));
+        assertTrue(theDatabase.isStale(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(25)));
+    }
+
+    @Test
+    public void testFailedUpdateIsRetried() throws Exception {
+        ManagedDatabase theDatabase = new ManagedDatabase(folder.newFolder("data"), TimeUnit.HOURS.toMillis(24));
+        try {
+            theDatabase.updateIfStale(() -> {
+                throw new IllegalStateException("No connection");
+            });
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertTrue(theDatabase.isStale(System.currentTimeMillis()));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        ManagedDatabase theDatabase = new ManagedDatabase(folder.newFolder("data"), TimeUnit.HOURS.toMillis(24));
+        AtomicInteger theReads = new AtomicInteger();
+        theDatabase.read(theReads::incrementAndGet);
+        theDatabase.read(theReads::incrementAndGet);
+        assertEquals(2, theReads.get());
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        File theDirectory = folder.newFolder("data");
+        ManagedDatabase theFirstDatabase = new ManagedDatabase(theDirectory, TimeUnit.HOURS.toMillis(24));
+        ManagedDatabase theSecondDatabase = new ManagedDatabase(theDirectory, TimeUnit.HOURS.toMillis(24));
+        CountDownLatch theBothReading = new CountDownLatch(2);
+        ExecutorService theExecutor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> theFirst = theExecutor.submit(() -> {
+                theFirstDatabase.read(() -> {
+                    theBothReading.countDown();
+                    assertTrue(theBothReading.await(10, TimeUnit.SECONDS));
+                });
+                return null;
+            });
+            Future<?> theSecond = theExecutor.submit(() -> {
+                theSecondDatabase.read(() -> {
+                    theBothReading.countDown();
+                    assertTrue(theBothReading.await(10, TimeUnit.SECONDS));
+                });
+                return null;
+            });
+            theFirst.get(20, TimeUnit.SECONDS);
+            theSecond.get(20, TimeUnit.SECONDS);
+        } finally {
+            theExecutor.shutdownNow();
+        }
+
+        // The shared file lock was released, so the database can be updated
+        AtomicInteger theUpdates = new AtomicInteger();
+        theFirstDatabase.updateIfStale(theUpdates::incrementAndGet);
+        assertEquals(1, theUpdates.get());
+    }
+
+    @Test
+    public void testConnectionStringWith() {
+        assertEquals("jdbc:h2:file:%s;FILE_LOCK=NO;AUTOCOMMIT=ON;ACCESS_MODE_DATA=r;",
+                ManagedDatabase.connectionStringWith("jdbc:h2:file:%s;FILE_LOCK=SERIALIZED;AUTOCOMMIT=ON;", "FILE_LOCK=NO;ACCESS_MODE_DATA=r"));
+        assertEquals("jdbc:h2:file:%s;ACCESS_MODE_DATA=r;", ManagedDatabase.connectionStringWith("jdbc:h2:file:%s", "ACCESS_MODE_DATA=r;"));
+    }
+
+    @Test
+    public void testDescribeAge() throws Exception {
+        ManagedDatabase theDatabase = new ManagedDatabase(folder.newFolder("data"), TimeUnit.HOURS.toMillis(24));
+        assertEquals("OWASP vulnerability database was never updated", theDatabase.describeAge(System.currentTimeMillis()));
+
+        theDatabase.updateIfStale(() -> {
+        });
+        long theLastUpdate = theDatabase.lastUpdate();
+        assertEquals("OWASP vulnerability database was last updated 3 hours ago",
+                theDatabase.describeAge(theLastUpdate + TimeUnit.HOURS.toMillis(3)));
+    }
+}
@@ -2,8 +2,19 @@ package de.mirkosertic.mavensonarsputnik.processor.owasp;
 
 import static org.junit.Assert.assertEquals;
 
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
 public class OWASPDependencyCheckProcessorTest {
 
     @Test
@@ -12,6 +23,75 @@ public class OWASPDependencyCheckProcessorTest {
         assertEquals("org.springframework.security.oauth", theIdentifier.getGroupId());
         assertEquals("spring-security-oauth2", theIdentifier.getArtifactId());
         assertEquals("2.0.4.RELEASE", theIdentifier.getVersion());
+        assertEquals("org.springframework.security.oauth:spring-security-oauth2:2.0.4.RELEASE", theIdentifier.getKey());
+    }
+
+    private static MavenProject project(String aArtifactId, MavenProject aParent) {
+        Model theModel = new Model();
+        theModel.setGroupId("group");
+        theModel.setArtifactId(aArtifactId);
+        theModel.setVersion("1.0");
+        MavenProject theProject = new MavenProject(theModel);
+        theProject.setParent(aParent);
+        return theProject;
+    }
+
+    @Test
+    public void testAggregateReactorFor() {
+        MavenProject theRoot = project("root", null);
+        MavenProject theServices = project("services", theRoot);
+        MavenProject theServiceA = project("service-a", theServices);
+        MavenProject theServiceB = project("service-b", theServices);
+        MavenProject theWeb = project("web", theRoot);
+        MavenProject theTools = project("tools", theRoot);
+        List<MavenProject> theReactor = Arrays.asList(theRoot, theServices, theServiceA, theServiceB, theWeb, theTools);
+
+        assertEquals(Arrays.asList(theRoot, theServices, theServiceB, theWeb),
+                OWASPDependencyCheckProcessor.aggregateReactorFor(theRoot, Arrays.asList(theWeb, theServiceB), theReactor));
+        assertEquals(Collections.singletonList(theRoot),
+                OWASPDependencyCheckProcessor.aggregateReactorFor(theRoot, Collections.singletonList(theRoot), theReactor));
+    }
+
+    private static Artifact artifact(String aArtifactId, String aVersion, String aScope) {
+        return new DefaultArtifact("group", aArtifactId, aVersion, aScope, "jar", null, new DefaultArtifactHandler("jar"));
     }
 
-}
\ No newline at end of file
+    private static Artifact artifact(String aArtifactId, String aVersion) {
+        return artifact(aArtifactId, aVersion, Artifact.SCOPE_COMPILE);
+    }
+
+    @Test
+    public void testDependenciesOf() {
+        DependencyNode theRoot = new DependencyNode(artifact("module", "1.0"));
+        DependencyNode theDirect = new DependencyNode(artifact("direct", "2.0"));
+        theDirect.addChild(new DependencyNode(artifact("transitive", "3.0")));
+        DependencyNode theOmitted = new DependencyNode(artifact("transitive", "2.5"));
+        theOmitted.omitForConflict(artifact("transitive", "3.0"));
+        theDirect.addChild(theOmitted);
+        theRoot.addChild(theDirect);
+        theRoot.addChild(new DependencyNode(artifact("junit", "4.8.2", Artifact.SCOPE_TEST)));
+
+        assertEquals(new HashSet<>(Arrays.asList("group:direct:2.0", "group:transitive:3.0")),
+                OWASPDependencyCheckProcessor.dependenciesOf(theRoot, false).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("group:direct:2.0", "group:runtime:1.0")),
+                OWASPDependencyCheckProcessor.dependenciesOf(Arrays.asList(artifact("direct", "2.0"),
+                        artifact("runtime", "1.0", Artifact.SCOPE_RUNTIME), artifact("junit", "4.8.2", Artifact.SCOPE_TEST)), false).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("group:direct:2.0")),
+                OWASPDependencyCheckProcessor.dependenciesOf(Arrays.asList(artifact("direct", "2.0"),
+                        artifact("provided", "1.0", Artifact.SCOPE_PROVIDED), artifact("junit", "4.8.2", Artifact.SCOPE_TEST)), true).keySet());
+    }
+
+    @Test
+    public void testFindingsOf() {
+        OWASPDependencyCheckProcessor.Finding theA = new OWASPDependencyCheckProcessor.Finding(
+                new OWASPDependencyCheckProcessor.MavenIdentifier("(group:a:1.0)"), Collections.singletonList("A"));
+        OWASPDependencyCheckProcessor.Finding theB = new OWASPDependencyCheckProcessor.Finding(
+                new OWASPDependencyCheckProcessor.MavenIdentifier("(group:b:1.0)"), Collections.singletonList("B"));
+        List<OWASPDependencyCheckProcessor.Finding> theFindings = Arrays.asList(theA, theB);
+
+        assertEquals(Collections.singletonList(theB), OWASPDependencyCheckProcessor.findingsOf(theFindings,
+                new HashSet<>(Arrays.asList("group:a:2.0", "group:b:1.0"))));
+        assertEquals(Collections.emptyList(), OWASPDependencyCheckProcessor.findingsOf(theFindings, Collections.<String>emptySet()));
+        assertEquals(null, OWASPDependencyCheckProcessor.findingsOf(null, Collections.singleton("group:a:1.0")));
+    }
+}
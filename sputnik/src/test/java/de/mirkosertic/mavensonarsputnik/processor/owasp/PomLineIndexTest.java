@@ -0,0 +1,93 @@
+package de.mirkosertic.mavensonarsputnik.processor.owasp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+public class PomLineIndexTest {
+
+    private static PomLineIndex parse(Properties aInheritedProperties, String... aLines) throws Exception {
+        StringBuilder thePom = new StringBuilder();
+        for (String theLine : aLines) {
+            thePom.append(theLine).append("\n");
+        }
+        return PomLineIndex.parse(new ByteArrayInputStream(thePom.toString().getBytes(StandardCharsets.UTF_8)), aInheritedProperties);
+    }
+
+    @Test
+    public void testDependencies() throws Exception {
+        PomLineIndex theIndex = parse(new Properties(),
+                "<project>",
+                "  <parent>",
+                "    <groupId>org.example</groupId>",
+                "    <artifactId>parent</artifactId>",
+                "  </parent>",
+                "  <dependencyManagement>",
+                "    <dependencies>",
+                "      <dependency>",
+                "        <groupId>com.fasterxml.jackson.core</groupId>",
+                "        <version>${jackson.version}</version>",
+                "        <artifactId>jackson-databind</artifactId>",
+                "      </dependency>",
+                "    </dependencies>",
+                "  </dependencyManagement>",
+                "  <dependencies>",
+                "    <dependency>",
+                "      <artifactId>jackson-databind</artifactId>",
+                "      <exclusions>",
+                "        <exclusion>",
+                "          <groupId>org.other</groupId>",
+                "          <artifactId>excluded</artifactId>",
+                "        </exclusion>",
+                "      </exclusions>",
+                "      <groupId>com.fasterxml.jackson.core</groupId>",
+                "    </dependency>",
+                "    <dependency>",
+                "      <groupId>${project.groupId}</groupId>",
+                "      <artifactId>${sibling.name}</artifactId>",
+                "    </dependency>",
+                "  </dependencies>",
+                "  <properties>",
+                "    <sibling.name>sibling</sibling.name>",
+                "  </properties>",
+                "</project>");
+
+        assertEquals(Arrays.asList(11, 17), theIndex.linesOf("com.fasterxml.jackson.core", "jackson-databind"));
+        assertEquals(Collections.singletonList(28), theIndex.linesOf("org.example", "sibling"));
+        assertEquals(Collections.emptyList(), theIndex.linesOf("org.other", "excluded"));
+        assertEquals(Collections.emptyList(), theIndex.linesOf("org.example", "parent"));
+    }
+
+    @Test
+    public void testInheritedProperties() throws Exception {
+        Properties theInherited = new Properties();
+        theInherited.setProperty("vendor", "org.vendor");
+        PomLineIndex theIndex = parse(theInherited,
+                "<project>",
+                "  <groupId>org.example</groupId>",
+                "  <build><plugins><plugin><dependencies><dependency>",
+                "    <groupId>${vendor}</groupId>",
+                "    <artifactId>tool</artifactId>",
+                "  </dependency></dependencies></plugin></plugins></build>",
+                "</project>");
+
+        assertEquals(Collections.singletonList(5), theIndex.linesOf("org.vendor", "tool"));
+    }
+
+    @Test
+    public void testInterpolate() {
+        Properties theProperties = new Properties();
+        theProperties.setProperty("a", "${b}-x");
+        theProperties.setProperty("b", "y");
+        theProperties.setProperty("cycle", "${cycle}");
+        assertEquals("y-x", PomLineIndex.interpolate("${a}", theProperties));
+        assertEquals("${unknown}", PomLineIndex.interpolate("${unknown}", theProperties));
+        assertEquals("${cycle}", PomLineIndex.interpolate("${cycle}", theProperties));
+    }
+}
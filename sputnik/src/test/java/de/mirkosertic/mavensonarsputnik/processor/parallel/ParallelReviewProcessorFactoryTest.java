@@ -0,0 +1,60 @@
+package de.mirkosertic.mavensonarsputnik.processor.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.mirkosertic.mavensonarsputnik.processor.owasp.OWASPDependencyCheckProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.pitest.PITestProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.sonar.SonarProcessor;
+import org.junit.Test;
+import pl.touk.sputnik.configuration.Configuration;
+import pl.touk.sputnik.configuration.ConfigurationOption;
+
+public class ParallelReviewProcessorFactoryTest {
+
+    @Test
+    public void testIsEnabledIfAProcessorIsEnabled() throws Exception {
+        ParallelReviewProcessorFactory theFactory = new ParallelReviewProcessorFactory();
+        for (ConfigurationOption theOption : new ConfigurationOption[] {SonarProcessor.SONAR_ENABLED, PITestProcessor.PITEST_ENABLED, OWASPDependencyCheckProcessor.OWASPDEPENDENCYCHECK_ENABLED}) {
+            Configuration theConfig = mock(Configuration.class);
+            when(theConfig.getProperty(same(theOption))).thenReturn("true");
+            assertTrue(theFactory.isEnabled(theConfig));
+        }
+    }
+
+    @Test
+    public void testIsEnabledWithoutParallelMode() throws Exception {
+        Configuration theConfig = mock(Configuration.class);
+        when(theConfig.getProperty(same(PITestProcessor.PITEST_ENABLED))).thenReturn("true");
+        when(theConfig.getProperty(same(ParallelReviewProcessor.PARALLEL_ENABLED))).thenReturn("false");
+        assertTrue(new ParallelReviewProcessorFactory().isEnabled(theConfig));
+    }
+
+    @Test
+    public void testIsDisabledWithoutProcessors() throws Exception {
+        Configuration theConfig = mock(Configuration.class);
+        when(theConfig.getProperty(same(ParallelReviewProcessor.PARALLEL_ENABLED))).thenReturn("true");
+        assertFalse(new ParallelReviewProcessorFactory().isEnabled(theConfig));
+    }
+
+    @Test
+    public void testCreate() throws Exception {
+        Configuration theConfig = mock(Configuration.class);
+        when(theConfig.getProperty(same(ParallelReviewProcessor.PARALLEL_ENABLED))).thenReturn("true");
+        when(theConfig.getProperty(same(ParallelReviewProcessor.PARALLEL_THREADS))).thenReturn("3");
+        ParallelReviewProcessorFactory theFactory = new ParallelReviewProcessorFactory();
+        assertEquals(3, theFactory.create(theConfig).getThreads());
+    }
+
+    @Test
+    public void testCreateWithoutParallelMode() throws Exception {
+        Configuration theConfig = mock(Configuration.class);
+        when(theConfig.getProperty(same(ParallelReviewProcessor.PARALLEL_THREADS))).thenReturn("3");
+        ParallelReviewProcessorFactory theFactory = new ParallelReviewProcessorFactory();
+        assertEquals(1, theFactory.create(theConfig).getThreads());
+    }
+}
@@ -0,0 +1,115 @@
+package de.mirkosertic.mavensonarsputnik.processor.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import de.mirkosertic.mavensonarsputnik.processor.IndexedReviewProcessor;
+import de.mirkosertic.mavensonarsputnik.processor.ReviewFileIndex;
+import de.mirkosertic.mavensonarsputnik.processor.ViolationConsolidator;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewException;
+import pl.touk.sputnik.review.ReviewFile;
+import pl.touk.sputnik.review.ReviewProcessor;
+import pl.touk.sputnik.review.ReviewResult;
+import pl.touk.sputnik.review.Severity;
+import pl.touk.sputnik.review.Violation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParallelReviewProcessorTest {
+
+    private ReviewProcessor processorWith(Review aReview, Violation... aViolations) {
+        ReviewResult theResult = new ReviewResult();
+        for (Violation theViolation : aViolations) {
+            theResult.add(theViolation);
+        }
+        ReviewProcessor theProcessor = mock(ReviewProcessor.class);
+        when(theProcessor.getName()).thenReturn("Mock");
+        when(theProcessor.process(same(aReview))).thenReturn(theResult);
+        return theProcessor;
+    }
+
+    @Test
+    public void testMergeResults() {
+        Review theReview = mock(Review.class);
+        Violation theFirst = new Violation("A.java", 1, "First", Severity.WARNING);
+        Violation theSecond = new Violation("B.java", 2, "Second", Severity.ERROR);
+
+        ParallelReviewProcessor theProcessor = new ParallelReviewProcessor(Arrays.asList(
+                processorWith(theReview, theFirst), processorWith(theReview, theSecond)), 2, new ViolationConsolidator(true, true, 25));
+
+        ReviewResult theResult = theProcessor.process(theReview);
+        assertEquals(Arrays.asList(theFirst, theSecond), theResult.getViolations());
+    }
+
+    @Test
+    public void testMergeLinesOfSeveralProcessors() {
+        Review theReview = mock(Review.class);
+        Violation theFirst = new Violation("A.java", 1, "First", Severity.WARNING);
+        Violation theSecond = new Violation("A.java", 1, "Second", Severity.ERROR);
+
+        ParallelReviewProcessor theProcessor = new ParallelReviewProcessor(Arrays.asList(
+                processorWith(theReview, theFirst), processorWith(theReview, theSecond)), 2, new ViolationConsolidator(true, true, 25));
+
+        List<Violation> theViolations = theProcessor.process(theReview).getViolations();
+        assertEquals(1, theViolations.size());
+        assertEquals("Second\n\nFirst", theViolations.get(0).getMessage());
+        assertEquals(Severity.ERROR, theViolations.get(0).getSeverity());
+    }
+
+    @Test
+    public void testIndexIsSharedByProcessors() {
+        Review theReview = mock(Review.class);
+        when(theReview.getFiles()).thenReturn(Arrays.asList(new ReviewFile("A.java")));
+        IndexedReviewProcessor theFirst = mock(IndexedReviewProcessor.class);
+        when(theFirst.process(same(theReview), any(ReviewFileIndex.class))).thenReturn(new ReviewResult());
+        IndexedReviewProcessor theSecond = mock(IndexedReviewProcessor.class);
+        when(theSecond.process(same(theReview), any(ReviewFileIndex.class))).thenReturn(new ReviewResult());
+
+        new ParallelReviewProcessor(Arrays.<ReviewProcessor>asList(theFirst, theSecond), 2, new ViolationConsolidator(true, true, 25)).process(theReview);
+
+        ArgumentCaptor<ReviewFileIndex> theFirstIndex = ArgumentCaptor.forClass(ReviewFileIndex.class);
+        verify(theFirst).process(same(theReview), theFirstIndex.capture());
+        ArgumentCaptor<ReviewFileIndex> theSecondIndex = ArgumentCaptor.forClass(ReviewFileIndex.class);
+        verify(theSecond).process(same(theReview), theSecondIndex.capture());
+        assertSame(theFirstIndex.getValue(), theSecondIndex.getValue());
+    }
+
+    @Test
+    public void testFailingProcessorIsReported() {
+        Review theReview = mock(Review.class);
+        List<String> theMessages = new ArrayList<>();
+        when(theReview.getMessages()).thenReturn(theMessages);
+
+        ReviewProcessor theFailing = mock(ReviewProcessor.class);
+        when(theFailing.getName()).thenReturn("Failing");
+        when(theFailing.process(same(theReview))).thenThrow(new ReviewException("Boom"));
+
+        Violation theViolation = new Violation("A.java", 1, "First", Severity.WARNING);
+        ParallelReviewProcessor theProcessor = new ParallelReviewProcessor(Arrays.asList(
+                theFailing, processorWith(theReview, theViolation)), 1, new ViolationConsolidator(true, true, 25));
+
+        ReviewResult theResult = theProcessor.process(theReview);
+        assertEquals(Arrays.asList(theViolation), theResult.getViolations());
+        assertEquals(Arrays.asList("Failing failed : Boom"), theMessages);
+    }
+
+    @Test(expected = ReviewException.class)
+    public void testAllProcessorsFailing() {
+        Review theReview = mock(Review.class);
+        ReviewProcessor theFailing = mock(ReviewProcessor.class);
+        when(theFailing.getName()).thenReturn("Failing");
+        when(theFailing.process(same(theReview))).thenThrow(new ReviewException("Boom"));
+
+        new ParallelReviewProcessor(Arrays.asList(theFailing), 1, new ViolationConsolidator(true, true, 25)).process(theReview);
+    }
+}
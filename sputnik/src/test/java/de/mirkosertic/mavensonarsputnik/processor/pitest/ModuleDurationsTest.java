@@ -0,0 +1,42 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class ModuleDurationsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static MavenProject module(String aName) {
+        MavenProject theProject = new MavenProject();
+        theProject.setGroupId("group");
+        theProject.setArtifactId(aName);
+        return theProject;
+    }
+
+    @Test
+    public void testStoreMergesConcurrentBuilds() {
+        File theFile = new File(folder.getRoot(), "durations.properties");
+        MavenProject theFirst = module("first");
+        MavenProject theSecond = module("second");
+
+        ModuleDurations theFirstBuild = new ModuleDurations(theFile);
+        ModuleDurations theSecondBuild = new ModuleDurations(theFile);
+        theFirstBuild.record(theFirst, 10);
+        theSecondBuild.record(theSecond, 20);
+        theFirstBuild.store();
+        theSecondBuild.store();
+
+        ModuleDurations theReloaded = new ModuleDurations(theFile);
+        assertEquals(10, theReloaded.durationOf(theFirst));
+        assertEquals(20, theReloaded.durationOf(theSecond));
+        assertEquals(2, folder.getRoot().list().length);
+    }
+}
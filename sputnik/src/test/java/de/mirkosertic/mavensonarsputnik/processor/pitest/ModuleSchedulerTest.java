@@ -0,0 +1,74 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ModuleSchedulerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static MavenProject module(String aName) {
+        MavenProject theProject = new MavenProject();
+        theProject.setGroupId("group");
+        theProject.setArtifactId(aName);
+        return theProject;
+    }
+
+    @Test
+    public void testLongestFirst() throws Exception {
+        File theFile = new File(folder.getRoot(), "durations.properties");
+        ModuleDurations theDurations = new ModuleDurations(theFile);
+        MavenProject theShort = module("short");
+        MavenProject theLong = module("long");
+        MavenProject theUnknown = module("unknown");
+        theDurations.record(theShort, 10);
+        theDurations.record(theLong, 1000);
+
+        ModuleScheduler theScheduler = new ModuleScheduler(2, theDurations);
+        assertEquals(Arrays.asList(theUnknown, theLong, theShort), theScheduler.scheduleOrder(Arrays.asList(theShort, theLong, theUnknown)));
+    }
+
+    @Test
+    public void testExecuteRecordsDurations() throws Exception {
+        File theFile = new File(folder.getRoot(), "durations.properties");
+        MavenProject theFirst = module("first");
+        MavenProject theSecond = module("second");
+        Set<MavenProject> theProcessed = Collections.synchronizedSet(new HashSet<>());
+
+        new ModuleScheduler(2, new ModuleDurations(theFile)).execute(Arrays.asList(theFirst, theSecond), theProcessed::add);
+
+        assertEquals(new HashSet<>(Arrays.asList(theFirst, theSecond)), theProcessed);
+        ModuleDurations theReloaded = new ModuleDurations(theFile);
+        assertTrue(theReloaded.durationOf(theFirst) >= 0);
+        assertTrue(theReloaded.durationOf(theSecond) >= 0);
+    }
+
+    @Test
+    public void testFailedRunsAreNotRecorded() throws Exception {
+        File theFile = new File(folder.getRoot(), "durations.properties");
+        MavenProject theFailing = module("failing");
+        MavenProject theSucceeding = module("succeeding");
+
+        new ModuleScheduler(2, new ModuleDurations(theFile)).execute(Arrays.asList(theFailing, theSucceeding), aProject -> {
+            if (aProject == theFailing) {
+                throw new IllegalStateException("Boom");
+            }
+        });
+
+        ModuleDurations theReloaded = new ModuleDurations(theFile);
+        assertEquals(-1, theReloaded.durationOf(theFailing));
+        assertTrue(theReloaded.durationOf(theSucceeding) >= 0);
+    }
+}
@@ -0,0 +1,130 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class MutationRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String BODY = "{\"format\":\"sputnik-mutations\",\"version\":1}\n"
+            + "{\"s\":\"SURVIVED\"}\n"
+            + "{\"s\":\"A.java\"}\n"
+            + "{\"s\":\"a.A\"}\n"
+            + "{\"s\":\"run\"}\n"
+            + "{\"s\":\"()V\"}\n"
+            + "{\"s\":\"M\"}\n"
+            + "{\"s\":\"removed \\\"call\\\" \\u00e4\"}\n"
+            + "{\"s\":\"a.ATest.testRun\"}\n"
+            + "{\"m\":[0,1,2,3,4,10,5,1,-1,6,[7]]}\n"
+            + "{\"s\":\"KILLED\"}\n"
+            + "{\"s\":\"B.java\"}\n"
+            + "{\"s\":\"b.B\"}\n"
+            + "{\"m\":[8,1,2,3,4,11,5,2,7,-1,[7]]}\n"
+            + "{\"m\":[0,9,10,3,4,20,5,1,-1,-1,[]]}\n";
+
+    private static String complete() {
+        int theFirst = BODY.indexOf("{\"m\"");
+        int theSecond = BODY.indexOf("{\"m\"", theFirst + 1);
+        int theThird = BODY.indexOf("{\"m\"", theSecond + 1);
+        return BODY
+                + "{\"strings\":[\"SURVIVED\",\"A.java\",\"a.A\",\"run\",\"()V\",\"M\",\"removed \\\"call\\\" \\u00e4\",\"a.ATest.testRun\",\"KILLED\",\"B.java\",\"b.B\"]}\n"
+                + "{\"index\":[[1," + theFirst + "," + theSecond + "],[9," + theThird + "]]}\n"
+                + "{\"footer\":" + String.format("%020d", BODY.length()) + "}\n";
+    }
+
+    private static ByteBuffer bufferOf(String aContent) {
+        return ByteBuffer.wrap(aContent.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void assertFirstMutation(List<MutationReportParser.Mutation> aMutations) {
+        assertEquals(1, aMutations.size());
+        MutationReportParser.Mutation theMutation = aMutations.get(0);
+        assertEquals("SURVIVED", theMutation.getStatus());
+        assertEquals("A.java", theMutation.getSourceFile());
+        assertEquals("a", theMutation.getPackageName());
+        assertEquals(10, theMutation.getLineNumber());
+        assertEquals("M", theMutation.getMutator());
+        assertEquals("removed \"call\" \u00e4", theMutation.getDescription());
+        assertEquals(Arrays.asList("a.ATest.testRun"), theMutation.getTestInfos());
+    }
+
+    @Test
+    public void testReadIndexed() {
+        MutationRecordReader theReader = new MutationRecordReader(new HashSet<>(Arrays.asList("SURVIVED")), "A.java"::equals);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        int[] theCounts = theReader.read(bufferOf(complete()), theMutations::add);
+
+        // Only the records of A.java are read
+        assertArrayEquals(new int[] {2, 1}, theCounts);
+        assertFirstMutation(theMutations);
+    }
+
+    @Test
+    public void testReadIndexedInWindows() throws IOException {
+        File theFile = folder.newFile("extended-mutations.ndjson");
+        try (OutputStream theStream = new FileOutputStream(theFile)) {
+            theStream.write(complete().getBytes(StandardCharsets.US_ASCII));
+        }
+        MutationRecordReader theReader = new MutationRecordReader(new HashSet<>(Arrays.asList("SURVIVED")), "A.java"::equals, 7);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        theReader.read(theFile, theMutations::add);
+
+        assertFirstMutation(theMutations);
+    }
+
+    @Test
+    public void testReadIncompleteReport() {
+        MutationRecordReader theReader = new MutationRecordReader(new HashSet<>(Arrays.asList("SURVIVED")), "A.java"::equals);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        String theIncomplete = BODY + "{\"m\":[0,1,2";
+        int[] theCounts = theReader.read(bufferOf(theIncomplete), theMutations::add);
+
+        assertArrayEquals(new int[] {3, 1}, theCounts);
+        assertFirstMutation(theMutations);
+    }
+
+    @Test
+    public void testTail() throws IOException {
+        MutationRecordReader theReader = new MutationRecordReader(new HashSet<>(Arrays.asList("SURVIVED")), aSourceFile -> true, 16);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        File theFile = folder.newFile("extended-mutations.ndjson");
+        MutationRecordReader.Tail theTail = theReader.tail(theFile);
+        assertEquals(0, theTail.poll(theMutations::add));
+
+        int theSplit = BODY.indexOf("{\"m\"") + 10;
+        try (OutputStream theStream = new FileOutputStream(theFile)) {
+            theStream.write(BODY.substring(0, theSplit).getBytes(StandardCharsets.US_ASCII));
+            theStream.flush();
+            assertEquals(0, theTail.poll(theMutations::add));
+
+            theStream.write(BODY.substring(theSplit).getBytes(StandardCharsets.US_ASCII));
+            theStream.flush();
+            assertEquals(2, theTail.poll(theMutations::add));
+        }
+
+        assertEquals(2, theMutations.size());
+        assertEquals("A.java", theMutations.get(0).getSourceFile());
+        assertEquals("B.java", theMutations.get(1).getSourceFile());
+    }
+}
@@ -0,0 +1,104 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+public class MutationReportLocatorTest {
+
+    private static final String REPORT = "extended-mutations.xml";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static File createReport(File aDirectory, long aLastModified) throws IOException {
+        aDirectory.mkdirs();
+        File theFile = new File(aDirectory, REPORT);
+        theFile.createNewFile();
+        theFile.setLastModified(aLastModified);
+        return theFile;
+    }
+
+    private static MavenProject module(File aBaseDir) {
+        MavenProject theProject = new MavenProject();
+        theProject.setFile(new File(aBaseDir, "pom.xml"));
+        theProject.getBuild().setDirectory(new File(aBaseDir, "target").getPath());
+        return theProject;
+    }
+
+    @Test
+    public void testDefaultReportsDirectory() {
+        File theBaseDir = folder.getRoot();
+        assertEquals(new File(theBaseDir, "target/pit-reports"), MutationReportLocator.reportsDirectoryOf(module(theBaseDir)));
+    }
+
+    @Test
+    public void testConfiguredReportsDirectory() {
+        File theBaseDir = folder.getRoot();
+        MavenProject theProject = module(theBaseDir);
+        Xpp3Dom theConfiguration = new Xpp3Dom("configuration");
+        Xpp3Dom theDirectory = new Xpp3Dom("reportsDirectory");
+        theDirectory.setValue("build/mutations");
+        theConfiguration.addChild(theDirectory);
+        Plugin thePlugin = new Plugin();
+        thePlugin.setGroupId("org.pitest");
+        thePlugin.setArtifactId("pitest-maven");
+        thePlugin.setConfiguration(theConfiguration);
+        theProject.getBuild().addPlugin(thePlugin);
+
+        assertEquals(new File(theBaseDir, "build/mutations"), MutationReportLocator.reportsDirectoryOf(theProject));
+    }
+
+    @Test
+    public void testLocateInModules() throws IOException {
+        long theNow = System.currentTimeMillis();
+        File theModule = folder.newFolder("module");
+        File theCurrent = createReport(new File(theModule, "target/pit-reports/201701011200"), theNow + 1000);
+        createReport(new File(theModule, "target/pit-reports/201601011200"), theNow - 100000);
+
+        MutationReportLocator theLocator = new MutationReportLocator(REPORT, theNow);
+        List<File> theResult = theLocator.locate(Collections.singletonList(module(theModule)), folder.getRoot());
+
+        assertEquals(Collections.singletonList(theCurrent), theResult);
+    }
+
+    @Test
+    public void testPrunedFallback() throws IOException {
+        long theNow = System.currentTimeMillis();
+        File theRoot = folder.getRoot();
+        new File(theRoot, "pom.xml").createNewFile();
+        File theModule = new File(theRoot, "module");
+        theModule.mkdirs();
+        new File(theModule, "pom.xml").createNewFile();
+
+        File theExpected = createReport(new File(theModule, "target/custom"), theNow + 1000);
+        createReport(new File(theModule, "target/classes"), theNow + 1000);
+        createReport(new File(theRoot, "node_modules/x/target"), theNow + 1000);
+        createReport(new File(theModule, "src/main/resources"), theNow + 1000);
+
+        MutationReportLocator theLocator = new MutationReportLocator(REPORT, theNow);
+        List<File> theResult = theLocator.locate(Collections.singletonList(module(new File(theRoot, "other"))), theRoot);
+
+        assertEquals(Collections.singletonList(theExpected), theResult);
+    }
+
+    @Test
+    public void testStaleReportsAreIgnored() throws IOException {
+        long theNow = System.currentTimeMillis();
+        File theDirectory = folder.newFolder("reports");
+        createReport(theDirectory, theNow - 100000);
+
+        assertTrue(new MutationReportLocator(REPORT, theNow).search(theDirectory.toPath(), false).isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class MutationReportParserTest {
+
+    private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<mutations>\n"
+            + "<mutation detected='true' status='KILLED'><sourceFile>A.java</sourceFile><mutatedClass>a.A</mutatedClass><lineNumber>1</lineNumber><mutator>M1</mutator><killingTest>ATest</killingTest><description>Killed</description></mutation>\n"
+            + "<mutation detected='false' status='SURVIVED'><sourceFile>B.java</sourceFile><mutatedClass>b.B</mutatedClass><lineNumber>2</lineNumber><mutator>M2</mutator><killingTest/><description>Other file</description></mutation>\n"
+            + "<mutation detected='false' status='SURVIVED'><sourceFile>A.java</sourceFile><mutatedClass>a.A</mutatedClass><mutatedMethod>run</mutatedMethod><lineNumber>42</lineNumber><mutator>M3</mutator><index>5</index><killingTest/>"
+            + "<testInfos><testInfo>a.ATest.testOne</testInfo><testInfo>a.ATest.testTwo</testInfo></testInfos><description>removed call &amp; more</description></mutation>\n"
+            + "</mutations>\n";
+
+    @Test
+    public void testParse() throws Exception {
+        MutationReportParser theParser = new MutationReportParser(new HashSet<>(Arrays.asList("SURVIVED", "NO_COVERAGE")), "A.java"::equals);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        int[] theCounts = theParser.parse(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)), theMutations::add);
+
+        assertArrayEquals(new int[] {3, 1}, theCounts);
+        assertEquals(1, theMutations.size());
+        MutationReportParser.Mutation theMutation = theMutations.get(0);
+        assertEquals("SURVIVED", theMutation.getStatus());
+        assertEquals("A.java", theMutation.getSourceFile());
+        assertEquals(42, theMutation.getLineNumber());
+        assertEquals("M3", theMutation.getMutator());
+        assertEquals("removed call & more", theMutation.getDescription());
+        assertEquals(Arrays.asList("a.ATest.testOne", "a.ATest.testTwo"), theMutation.getTestInfos());
+    }
+
+    @Test
+    public void testParseReorderedElements() throws Exception {
+        String theReport = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<mutations>\n"
+                + "<mutation detected='false' status='SURVIVED'><mutatedClass>a.A</mutatedClass><lineNumber>7</lineNumber><mutator>M1</mutator>"
+                + "<testInfos><testInfo>a.ATest.testOne</testInfo></testInfos><description>First</description><sourceFile>A.java</sourceFile></mutation>\n"
+                + "<mutation detected='false' status='SURVIVED'><mutatedClass>b.B</mutatedClass><lineNumber>2</lineNumber><mutator>M2</mutator><sourceFile>B.java</sourceFile></mutation>\n"
+                + "<mutation detected='false' status='SURVIVED'><mutatedClass>c.C</mutatedClass><lineNumber>3</lineNumber><mutator>M3</mutator></mutation>\n"
+                + "</mutations>\n";
+        MutationReportParser theParser = new MutationReportParser(new HashSet<>(Arrays.asList("SURVIVED")), "A.java"::equals);
+        List<MutationReportParser.Mutation> theMutations = new ArrayList<>();
+
+        int[] theCounts = theParser.parse(new ByteArrayInputStream(theReport.getBytes(StandardCharsets.UTF_8)), theMutations::add);
+
+        assertArrayEquals(new int[] {3, 1}, theCounts);
+        MutationReportParser.Mutation theMutation = theMutations.get(0);
+        assertEquals("A.java", theMutation.getSourceFile());
+        assertEquals("a", theMutation.getPackageName());
+        assertEquals(7, theMutation.getLineNumber());
+        assertEquals("M1", theMutation.getMutator());
+        assertEquals("First", theMutation.getDescription());
+        assertEquals(Arrays.asList("a.ATest.testOne"), theMutation.getTestInfos());
+    }
+}
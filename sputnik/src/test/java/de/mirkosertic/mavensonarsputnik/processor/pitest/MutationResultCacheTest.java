@@ -0,0 +1,93 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.mirkosertic.mavensonarsputnik.pitest.ModuleBytecode;
+import de.mirkosertic.mavensonarsputnik.pitest.MutationCacheEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+public class MutationResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void write(File aFile, String aContent) throws IOException {
+        aFile.getParentFile().mkdirs();
+        Files.write(aFile.toPath(), aContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ModuleBytecode bytecodeOf(File aClasses) throws IOException {
+        return new ModuleBytecode(Collections.singletonList(aClasses), Collections.<File>emptyList());
+    }
+
+    private static MutationCacheEntry createEntry(File aCache, File aClasses, String aClassName) throws IOException {
+        MutationCacheEntry theEntry = new MutationCacheEntry(aCache, aClassName);
+        theEntry.invalidate();
+        write(theEntry.getMutationsFile(), "{\"format\":\"sputnik-mutations\",\"version\":1}\n");
+        theEntry.writeKey(MutationCacheEntry.createKey(bytecodeOf(aClasses), aClassName, "SURVIVED", "1.2.0", ""));
+        return theEntry;
+    }
+
+    @Test
+    public void testLookup() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theCacheDirectory = folder.newFolder("cache");
+        write(new File(theClasses, "a/A.class"), "bytecode");
+        write(new File(theClasses, "a/B.class"), "bytecode");
+        createEntry(theCacheDirectory, theClasses, "a.A");
+        createEntry(theCacheDirectory, theClasses, "a.B");
+
+        // Unchanged classes of a changed module are mutated again, as they might call the changed classes
+        MutationResultCache theSameCache = new MutationResultCache(theCacheDirectory, Long.MAX_VALUE, "SURVIVED", "1.2.0", "");
+        assertNotNull(theSameCache.lookup("a.A", bytecodeOf(theClasses)));
+        assertNotNull(theSameCache.lookup("a.B", bytecodeOf(theClasses)));
+        write(new File(theClasses, "a/B.class"), "changed bytecode");
+        ModuleBytecode theBytecode = bytecodeOf(theClasses);
+
+        MutationResultCache theCache = new MutationResultCache(theCacheDirectory, Long.MAX_VALUE, "SURVIVED", "1.2.0", "");
+        assertNull(theCache.lookup("a.A", theBytecode));
+        assertNull(theCache.lookup("a.B", theBytecode));
+        assertNull(theCache.lookup("a.C", theBytecode));
+        assertEquals(0, theCache.getHits());
+        assertEquals(3, theCache.getMisses());
+
+        // Results of another PITest configuration are not used
+        write(new File(theClasses, "a/B.class"), "bytecode");
+        assertNotNull(theCache.lookup("a.A", bytecodeOf(theClasses)));
+        assertNull(new MutationResultCache(theCacheDirectory, Long.MAX_VALUE, "SURVIVED", "1.3.0", "").lookup("a.A", bytecodeOf(theClasses)));
+        assertNull(new MutationResultCache(theCacheDirectory, Long.MAX_VALUE, "SURVIVED", "1.2.0", "INCREMENTS").lookup("a.A", bytecodeOf(theClasses)));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theCacheDirectory = folder.newFolder("cache");
+        write(new File(theClasses, "a/A.class"), "bytecode");
+        write(new File(theClasses, "a/B.class"), "bytecode");
+        MutationCacheEntry theOld = createEntry(theCacheDirectory, theClasses, "a.A");
+        MutationCacheEntry theRecent = createEntry(theCacheDirectory, theClasses, "a.B");
+        theOld.getKeyFile().setLastModified(System.currentTimeMillis() - 100000);
+        File theIncomplete = new File(theCacheDirectory, "a.C");
+        theIncomplete.mkdirs();
+
+        long theEntrySize = theRecent.getMutationsFile().length() + theRecent.getKeyFile().length();
+        MutationResultCache theCache = new MutationResultCache(theCacheDirectory, theEntrySize, "SURVIVED", "1.2.0", "");
+
+        assertEquals(2, theCache.evict());
+        assertFalse(theIncomplete.exists());
+        assertFalse(theOld.getDirectory().exists());
+        assertTrue(theRecent.getDirectory().exists());
+    }
+}
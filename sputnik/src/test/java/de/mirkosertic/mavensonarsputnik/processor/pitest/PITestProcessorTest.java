@@ -0,0 +1,54 @@
+package de.mirkosertic.mavensonarsputnik.processor.pitest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import pl.touk.sputnik.review.ReviewFile;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class PITestProcessorTest {
+
+    @Test
+    public void testListenerConfiguration() {
+        String theConfiguration = PITestProcessor.listenerConfigurationFor(new HashSet<>(Arrays.asList("SURVIVED", "NO_COVERAGE")),
+                Arrays.asList(new ReviewFile("core/src/main/java/a/B.java"), new ReviewFile("core/src/main/java/a/A.java"), new ReviewFile("web/src/main/java/a/A.java")));
+
+        assertEquals("<pluginConfiguration>"
+                + "<pitest.reportstatus>NO_COVERAGE,SURVIVED</pitest.reportstatus>"
+                + "<pitest.sourcefiles>A.java,B.java</pitest.sourcefiles>"
+                + "</pluginConfiguration>", theConfiguration);
+    }
+
+    @Test
+    public void testClassesOf() {
+        File theBaseDir = new File("module").getAbsoluteFile();
+        MavenProject theProject = new MavenProject();
+        theProject.setFile(new File(theBaseDir, "pom.xml"));
+        theProject.addCompileSourceRoot(new File(theBaseDir, "src/main/java").getPath());
+
+        List<String> theClasses = PITestProcessor.classesOf(theProject, Arrays.asList(
+                new ReviewFile(new File(theBaseDir, "src/main/java/a/b/C.java").getPath()),
+                new ReviewFile(new File(theBaseDir, "src/main/resources/a/b/C.properties").getPath()),
+                new ReviewFile(new File(theBaseDir, "src/test/java/a/b/CTest.java").getPath()),
+                new ReviewFile(new File("other/src/main/java/a/b/D.java").getAbsolutePath())));
+
+        assertEquals(Collections.singletonList("a.b.C"), theClasses);
+    }
+
+    @Test
+    public void testModuleOf() {
+        File theBaseDir = new File("module").getAbsoluteFile();
+        MavenProject theProject = new MavenProject();
+        theProject.setArtifactId("module");
+        theProject.getBuild().setDirectory(new File(theBaseDir, "target").getPath());
+
+        assertEquals("module", PITestProcessor.moduleOf(new File(theBaseDir, "target/pit-reports/mutations.xml"), Collections.singletonList(theProject)));
+        assertEquals("", PITestProcessor.moduleOf(new File("other/target/pit-reports/mutations.xml").getAbsoluteFile(), Collections.singletonList(theProject)));
+    }
+}
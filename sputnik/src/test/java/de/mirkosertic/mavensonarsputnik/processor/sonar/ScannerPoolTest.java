@@ -0,0 +1,104 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarsource.scanner.api.EmbeddedScanner;
+import org.sonarsource.scanner.api.LogOutput;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScannerPoolTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static EmbeddedScanner scannerFor(String aServer) {
+        Properties theProperties = new Properties();
+        theProperties.setProperty("sonar.host.url", aServer);
+        EmbeddedScanner theScanner = mock(EmbeddedScanner.class);
+        when(theScanner.globalProperties()).thenReturn(theProperties);
+        return theScanner;
+    }
+
+    @Test
+    public void testKeyOnlyDependsOnSonarProperties() {
+        Properties theFirst = new Properties();
+        theFirst.setProperty("sonar.host.url", "http://sonar");
+        theFirst.setProperty("sonar.userHome", "/cache");
+        theFirst.setProperty("java.version", "1.8");
+
+        Properties theSecond = new Properties();
+        theSecond.setProperty("sonar.userHome", "/cache");
+        theSecond.setProperty("sonar.host.url", "http://sonar");
+        theSecond.setProperty("user.dir", "/work");
+
+        assertEquals(ScannerPool.keyOf(theFirst), ScannerPool.keyOf(theSecond));
+
+        theSecond.setProperty("sonar.host.url", "http://othersonar");
+        assertFalse(ScannerPool.keyOf(theFirst).equals(ScannerPool.keyOf(theSecond)));
+    }
+
+    @Test
+    public void testSupportsReuse() {
+        assertFalse(ScannerPool.supportsReuse("4.5.7"));
+        assertFalse(ScannerPool.supportsReuse("5.1"));
+        assertTrue(ScannerPool.supportsReuse("5.2"));
+        assertTrue(ScannerPool.supportsReuse("5.6.6"));
+        assertTrue(ScannerPool.supportsReuse("6.3"));
+        assertFalse(ScannerPool.supportsReuse("unknown"));
+    }
+
+    @Test
+    public void testIdleTimeoutPerScanner() throws Exception {
+        SonarCache theCache = new SonarCache(folder.getRoot(), 1000);
+        EmbeddedScanner theShortLived = scannerFor("http://sonar");
+        EmbeddedScanner theLongLived = scannerFor("http://othersonar");
+        ScannerPool thePool = new ScannerPool();
+
+        assertSame(theShortLived, thePool.acquire(theShortLived, new ScannerLogOutput(mock(LogOutput.class)), theCache));
+        assertSame(theLongLived, thePool.acquire(theLongLived, new ScannerLogOutput(mock(LogOutput.class)), theCache));
+        thePool.release(theLongLived, 3600000);
+        thePool.release(theShortLived, 1000);
+
+        thePool.stopIdleScanners(System.currentTimeMillis() + 2000);
+        verify(theShortLived).stop();
+        verify(theLongLived, never()).stop();
+
+        EmbeddedScanner theNew = scannerFor("http://othersonar");
+        assertSame(theLongLived, thePool.acquire(theNew, new ScannerLogOutput(mock(LogOutput.class)), theCache));
+        verify(theLongLived, times(1)).start();
+        verify(theNew, never()).start();
+    }
+
+    @Test
+    public void testReusedScannerLogsToTheCurrentBuild() throws Exception {
+        SonarCache theCache = new SonarCache(folder.getRoot(), 1000);
+        ScannerPool thePool = new ScannerPool();
+        EmbeddedScanner theScanner = scannerFor("http://sonar");
+        LogOutput theFirstBuild = mock(LogOutput.class);
+        ScannerLogOutput theLogOutput = new ScannerLogOutput(theFirstBuild);
+
+        assertSame(theScanner, thePool.acquire(theScanner, theLogOutput, theCache));
+        thePool.release(theScanner, 3600000);
+        assertSame(ScannerLogOutput.IDLE, theLogOutput.getTarget());
+
+        LogOutput theSecondBuild = mock(LogOutput.class);
+        assertSame(theScanner, thePool.acquire(scannerFor("http://sonar"), new ScannerLogOutput(theSecondBuild), theCache));
+        theLogOutput.log("Analysis", LogOutput.Level.INFO);
+
+        verify(theSecondBuild).log("Analysis", LogOutput.Level.INFO);
+        verify(theFirstBuild, never()).log("Analysis", LogOutput.Level.INFO);
+        thePool.discard(theScanner);
+    }
+}
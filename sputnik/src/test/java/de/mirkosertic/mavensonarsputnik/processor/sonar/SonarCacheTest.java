@@ -0,0 +1,109 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+
+public class SonarCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void createEntry(String aHash, String aFileName, int aSize) throws Exception {
+        File theDirectory = new File(new File(folder.getRoot(), "cache"), aHash);
+        theDirectory.mkdirs();
+        FileUtils.writeByteArrayToFile(new File(theDirectory, aFileName), new byte[aSize]);
+    }
+
+    private Properties index() throws Exception {
+        Properties theIndex = new Properties();
+        try (InputStream theStream = new FileInputStream(new File(folder.getRoot(), "sputnik-cache.properties"))) {
+            theIndex.load(theStream);
+        }
+        return theIndex;
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        createEntry("old", "plugin.jar", 100);
+        createEntry("middle", "plugin.jar", 100);
+        createEntry("current", "plugin.jar", 100);
+        new File(new File(folder.getRoot(), "cache"), "_tmp").mkdirs();
+
+        Properties theIndex = new Properties();
+        theIndex.setProperty("old", "1");
+        theIndex.setProperty("middle", "2");
+        theIndex.setProperty("current", "3");
+
+        SonarCache theCache = new SonarCache(folder.getRoot(), 150);
+        assertEquals(new HashSet<>(Arrays.asList("old", "middle", "current")), theCache.entries());
+
+        assertEquals(2, theCache.evict(theIndex));
+        assertEquals(Collections.singleton("current"), theCache.entries());
+        assertEquals(Collections.singleton("current"), theIndex.stringPropertyNames());
+    }
+
+    @Test
+    public void testMissesAreRecorded() throws Exception {
+        SonarCache theCache = new SonarCache(folder.getRoot(), 1000);
+        theCache.beforeAnalysis("http://sonar");
+        createEntry("downloaded", "sonar-java-plugin-4.2.jar", 10);
+        theCache.afterAnalysis();
+
+        assertEquals(Collections.singleton("downloaded"), theCache.entries());
+        Properties theIndex = index();
+        assertTrue(theIndex.containsKey("downloaded"));
+        assertEquals("downloaded", theIndex.getProperty("server.http://sonar"));
+    }
+
+    @Test
+    public void testDownloadReplacesOtherVersions() throws Exception {
+        createEntry("java42", "sonar-java-plugin-4.2.jar", 10);
+        createEntry("engine", "sonar-scanner-engine-shaded-5.6.jar", 10);
+        SonarCache theCache = new SonarCache(folder.getRoot(), 1000);
+        theCache.beforeAnalysis("http://sonar");
+        theCache.afterAnalysis();
+        assertEquals(new HashSet<>(Arrays.asList("java42", "engine")),
+                new HashSet<>(Arrays.asList(index().getProperty("server.http://sonar").split(","))));
+
+        theCache.beforeAnalysis("http://sonar");
+        createEntry("java43", "sonar-java-plugin-4.3.jar", 10);
+        theCache.afterAnalysis();
+
+        Properties theIndex = index();
+        assertEquals(new HashSet<>(Arrays.asList("java43", "engine")),
+                new HashSet<>(Arrays.asList(theIndex.getProperty("server.http://sonar").split(","))));
+        assertEquals("sonar-java-plugin", theCache.fileNameOf("java42"));
+    }
+
+    @Test
+    public void testNoEvictionWhileInUse() throws Exception {
+        createEntry("old", "plugin.jar", 100);
+        createEntry("current", "plugin.jar", 100);
+        SonarCache theCache = new SonarCache(folder.getRoot(), 150);
+
+        SonarCache.Usage theUsage = theCache.use();
+        assertEquals(-1, theCache.evictIfUnused());
+        SonarCache.Usage theOtherUsage = theCache.use();
+        theUsage.close();
+        theUsage.close();
+        assertEquals(2, theCache.entries().size());
+
+        theOtherUsage.close();
+        assertEquals(1, theCache.entries().size());
+        assertFalse(theCache.evictIfUnused() < 0);
+    }
+}
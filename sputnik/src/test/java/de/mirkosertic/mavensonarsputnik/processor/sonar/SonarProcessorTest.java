@@ -0,0 +1,94 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.mirkosertic.mavensonarsputnik.ReactorScope;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+import pl.touk.sputnik.configuration.Configuration;
+import pl.touk.sputnik.review.Review;
+import pl.touk.sputnik.review.ReviewFile;
+import pl.touk.sputnik.review.ReviewResult;
+import pl.touk.sputnik.review.Severity;
+import pl.touk.sputnik.review.Violation;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+public class SonarProcessorTest {
+
+    @Test
+    public void testFilterResults() {
+        Review theReview = mock(Review.class);
+        when(theReview.getFiles()).thenReturn(Arrays.asList(new ReviewFile("core/src/main/java/a/A.java")));
+
+        ReviewResult theResults = new ReviewResult();
+        theResults.add(new Violation("src/main/java/a/A.java", 10, "Issue", Severity.ERROR));
+        theResults.add(new Violation("src/main/java/a/BA.java", 11, "Other file", Severity.ERROR));
+
+        ReviewResult theFiltered = new SonarProcessor(mock(Configuration.class)).filterResults(theResults, theReview);
+
+        assertEquals(1, theFiltered.getViolations().size());
+        Violation theViolation = theFiltered.getViolations().get(0);
+        assertEquals("core/src/main/java/a/A.java", theViolation.getFilenameOrJavaClassName());
+        assertEquals(10, theViolation.getLine());
+        assertEquals("Issue", theViolation.getMessage());
+    }
+
+    @Test
+    public void testInclusionsFor() {
+        File theRoot = new File("reactor").getAbsoluteFile();
+        MavenProject theParent = new MavenProject();
+        theParent.setFile(new File(theRoot, "pom.xml"));
+        MavenProject theCore = new MavenProject();
+        theCore.setFile(new File(theRoot, "core/pom.xml"));
+        theCore.addCompileSourceRoot(new File(theRoot, "core/src/main/java").getPath());
+        ReactorScope theScope = new ReactorScope(Arrays.asList(theParent, theCore));
+
+        Map<Path, Set<String>> theInclusions = SonarProcessor.inclusionsFor(theScope, Arrays.asList(
+                new ReviewFile(new File(theRoot, "core/src/main/java/a/A.java").getPath()),
+                new ReviewFile(new File(theRoot, "core/pom.xml").getPath()),
+                new ReviewFile(new File(theRoot, "pom.xml").getPath())));
+
+        assertEquals(2, theInclusions.size());
+        assertEquals(new LinkedHashSet<>(Arrays.asList("src/main/java/a/A.java", "pom.xml")), theInclusions.get(new File(theRoot, "core").toPath()));
+        assertEquals(Collections.singleton("pom.xml"), theInclusions.get(theRoot.toPath()));
+    }
+
+    @Test
+    public void testLimitToInclusions() {
+        File theRoot = new File("reactor").getAbsoluteFile();
+        Properties theProperties = new Properties();
+        theProperties.setProperty("sonar.projectBaseDir", theRoot.getPath());
+        theProperties.setProperty("sonar.exclusions", "**/generated/**");
+        theProperties.setProperty("g:core.sonar.projectBaseDir", new File(theRoot, "core").getPath());
+        theProperties.setProperty("g:other.sonar.projectBaseDir", new File(theRoot, "other").getPath());
+        theProperties.setProperty("g:other.g:nested.sonar.projectBaseDir", new File(theRoot, "other/nested").getPath());
+        theProperties.setProperty("g:other.g:nested.sonar.exclusions", "**/legacy/**");
+
+        Map<Path, Set<String>> theInclusions = new HashMap<>();
+        theInclusions.put(new File(theRoot, "core").toPath(), Collections.singleton("src/main/java/a/B.java"));
+        theInclusions.put(new File(theRoot, "other/nested").toPath(), Collections.singleton("src/main/java/c/D.java"));
+        SonarProcessor.limitToInclusions(theProperties, theInclusions);
+
+        assertEquals("**/*", theProperties.getProperty("sonar.exclusions"));
+        assertEquals("**/*", theProperties.getProperty("sonar.test.exclusions"));
+        assertEquals(null, theProperties.getProperty("sonar.inclusions"));
+        assertEquals("src/main/java/a/B.java", theProperties.getProperty("g:core.sonar.inclusions"));
+        assertEquals("src/main/java/a/B.java", theProperties.getProperty("g:core.sonar.test.inclusions"));
+        assertEquals("**/generated/**", theProperties.getProperty("g:core.sonar.exclusions"));
+        assertEquals("", theProperties.getProperty("g:core.sonar.test.exclusions"));
+        assertEquals("**/*", theProperties.getProperty("g:other.sonar.exclusions"));
+        assertEquals("src/main/java/c/D.java", theProperties.getProperty("g:other.g:nested.sonar.inclusions"));
+        assertEquals("**/legacy/**", theProperties.getProperty("g:other.g:nested.sonar.exclusions"));
+    }
+}
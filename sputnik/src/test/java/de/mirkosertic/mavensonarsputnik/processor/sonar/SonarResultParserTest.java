@@ -0,0 +1,55 @@
+package de.mirkosertic.mavensonarsputnik.processor.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pl.touk.sputnik.review.Severity;
+import pl.touk.sputnik.review.Violation;
+
+import java.io.File;
+import java.util.List;
+
+public class SonarResultParserTest {
+
+    private static final String REPORT = "{\"version\":\"5.6\",\"issues\":["
+            + "{\"key\":\"1\",\"component\":\"mod:a/A.java\",\"line\":10,\"message\":\"New issue\",\"severity\":\"MAJOR\",\"rule\":\"squid:S1\",\"isNew\":true,\"flows\":[{\"locations\":[]}]},"
+            + "{\"key\":\"2\",\"component\":\"mod:a/A.java\",\"line\":11,\"message\":\"Old issue\",\"severity\":\"MINOR\",\"rule\":\"squid:S2\",\"isNew\":false},"
+            + "{\"key\":\"3\",\"component\":\"mod:a/A.java\",\"message\":\"No line\",\"severity\":\"INFO\",\"rule\":\"squid:S3\",\"isNew\":true},"
+            + "{\"key\":\"4\",\"component\":\"unknown\",\"line\":1,\"message\":\"Unknown\",\"severity\":\"INFO\",\"rule\":\"squid:S4\",\"isNew\":true}"
+            + "],\"components\":["
+            + "{\"key\":\"mod\",\"path\":\"module\"},"
+            + "{\"key\":\"mod:a/A.java\",\"path\":\"src/main/java/a/A.java\",\"moduleKey\":\"mod\",\"status\":\"CHANGED\"}"
+            + "],\"rules\":[{\"key\":\"squid:S1\",\"name\":\"Rule\"}]}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testParseNewIssues() throws Exception {
+        File theFile = folder.newFile("sonar-report.json");
+        FileUtils.writeStringToFile(theFile, REPORT, "UTF-8");
+
+        List<Violation> theViolations = new SonarResultParser(theFile).parseResults(false).getViolations();
+
+        assertEquals(1, theViolations.size());
+        Violation theViolation = theViolations.get(0);
+        assertEquals("module/src/main/java/a/A.java", theViolation.getFilenameOrJavaClassName());
+        assertEquals(10, theViolation.getLine());
+        assertEquals("New issue (Rule: squid:S1)", theViolation.getMessage());
+        assertEquals(Severity.ERROR, theViolation.getSeverity());
+    }
+
+    @Test
+    public void testParseAllIssues() throws Exception {
+        File theFile = folder.newFile("sonar-report.json");
+        FileUtils.writeStringToFile(theFile, REPORT, "UTF-8");
+
+        List<Violation> theViolations = new SonarResultParser(theFile).parseResults(true).getViolations();
+
+        assertEquals(2, theViolations.size());
+        assertEquals(Severity.WARNING, theViolations.get(1).getSeverity());
+    }
+}
@@ -0,0 +1,92 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Buffers characters for a Writer, without creating intermediate strings. Also counts the
+ * characters written so far.
+ */
+class BufferedCharOutput {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final char[] buffer;
+    private int position;
+    private long flushed;
+
+    BufferedCharOutput(Writer aOut) {
+        out = aOut;
+        buffer = new char[BUFFER_SIZE];
+    }
+
+    private void ensureCapacity(int aLength) throws IOException {
+        if (position + aLength > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        flushed += position;
+        position = 0;
+    }
+
+    /**
+     * Returns the number of characters written so far.
+     */
+    long written() {
+        return flushed + position;
+    }
+
+    void append(char aChar) throws IOException {
+        ensureCapacity(1);
+        buffer[position++] = aChar;
+    }
+
+    void append(String aValue) throws IOException {
+        int theLength = aValue.length();
+        int theOffset = 0;
+        while (theOffset < theLength) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            int theCount = Math.min(theLength - theOffset, buffer.length - position);
+            aValue.getChars(theOffset, theOffset + theCount, buffer, position);
+            position += theCount;
+            theOffset += theCount;
+        }
+    }
+
+    /**
+     * Appends the decimal representation of a number.
+     */
+    void appendNumber(long aValue) throws IOException {
+        if (aValue < 0) {
+            append(Long.toString(aValue));
+            return;
+        }
+        int theDigits = 1;
+        for (long theRest = aValue / 10; theRest > 0; theRest /= 10) {
+            theDigits++;
+        }
+        ensureCapacity(theDigits);
+        long theValue = aValue;
+        for (int i = position + theDigits - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + theValue % 10);
+            theValue /= 10;
+        }
+        position += theDigits;
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+}
@@ -0,0 +1,124 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationResultListener;
+import org.pitest.util.Unchecked;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Passes the results to another listener, and stores the results of every top level class, including its
+ * nested and anonymous classes, in the mutation result cache. The cache is configured by listener properties:
+ * <ul>
+ *     <li>pitest.cachedirectory : directory of the cache</li>
+ *     <li>pitest.classdirectories : class directories of the module, separated by the path separator</li>
+ *     <li>pitest.testclassdirectories : test class directories of the module, separated by the path separator</li>
+ *     <li>pitest.version : version of PITest</li>
+ *     <li>pitest.mutators : mutators used, separated by commas</li>
+ * </ul>
+ */
+public class CachingResultListener implements MutationResultListener {
+
+    public static final String CACHE_DIRECTORY = "pitest.cachedirectory";
+    public static final String CLASS_DIRECTORIES = "pitest.classdirectories";
+    public static final String TEST_CLASS_DIRECTORIES = "pitest.testclassdirectories";
+    public static final String PITEST_VERSION = "pitest.version";
+    public static final String MUTATORS = "pitest.mutators";
+
+    private final MutationResultListener delegate;
+    private final File cacheDirectory;
+    private final List<File> classDirectories;
+    private final List<File> testClassDirectories;
+    private final MutationFilter statusFilter;
+    private final String status;
+    private final String pitestVersion;
+    private final String mutators;
+    private final Map<String, List<MutationResult>> results;
+
+    CachingResultListener(MutationResultListener aDelegate, File aCacheDirectory, List<File> aClassDirectories,
+            List<File> aTestClassDirectories, MutationFilter aStatusFilter, String aStatus, String aPITestVersion, String aMutators) {
+        delegate = aDelegate;
+        cacheDirectory = aCacheDirectory;
+        classDirectories = aClassDirectories;
+        testClassDirectories = aTestClassDirectories;
+        statusFilter = aStatusFilter;
+        status = aStatus;
+        pitestVersion = aPITestVersion;
+        mutators = aMutators;
+        results = new LinkedHashMap<>();
+    }
+
+    /**
+     * Wraps the given listener if a cache is configured.
+     */
+    public static MutationResultListener wrap(MutationResultListener aDelegate, Properties aProperties) {
+        if (aProperties == null || aProperties.getProperty(CACHE_DIRECTORY) == null) {
+            return aDelegate;
+        }
+        // The cache is independent of the files of the review, so only the status is filtered
+        String theStatus = aProperties.getProperty(MutationFilter.REPORT_STATUS, "");
+        Properties theStatusProperties = new Properties();
+        if (aProperties.getProperty(MutationFilter.REPORT_STATUS) != null) {
+            theStatusProperties.setProperty(MutationFilter.REPORT_STATUS, theStatus);
+        }
+        return new CachingResultListener(aDelegate, new File(aProperties.getProperty(CACHE_DIRECTORY)),
+                ModuleBytecode.directoriesOf(aProperties.getProperty(CLASS_DIRECTORIES)), ModuleBytecode.directoriesOf(aProperties.getProperty(TEST_CLASS_DIRECTORIES)),
+                MutationFilter.fromProperties(theStatusProperties), theStatus, aProperties.getProperty(PITEST_VERSION, ""),
+                aProperties.getProperty(MUTATORS, ""));
+    }
+
+    void store(ModuleBytecode aBytecode, String aClassName, List<MutationResult> aResults) throws IOException {
+        MutationCacheEntry theEntry = new MutationCacheEntry(cacheDirectory, aClassName);
+        theEntry.invalidate();
+
+        Properties theKey = MutationCacheEntry.createKey(aBytecode, aClassName, status, pitestVersion, mutators);
+
+        try (Writer theWriter = new OutputStreamWriter(new FileOutputStream(theEntry.getMutationsFile()), StandardCharsets.US_ASCII)) {
+            PITestRecordResultListener theListener = new PITestRecordResultListener(theWriter, statusFilter);
+            theListener.runStart();
+            theListener.handleMutationResult(new ClassMutationResults(aResults));
+            theListener.runEnd();
+        }
+
+        theEntry.writeKey(theKey);
+    }
+
+    @Override
+    public void runStart() {
+        delegate.runStart();
+    }
+
+    @Override
+    public void handleMutationResult(ClassMutationResults aResults) {
+        delegate.handleMutationResult(aResults);
+        // The mutations of a class might be split into several units, so the entries are written at the end
+        for (MutationResult theResult : aResults.getMutations()) {
+            String theClassName = MutationCacheEntry.topLevelClassOf(theResult.getDetails().getClassName().asJavaName());
+            results.computeIfAbsent(theClassName, k -> new ArrayList<>()).add(theResult);
+        }
+    }
+
+    @Override
+    public void runEnd() {
+        delegate.runEnd();
+        try {
+            ModuleBytecode theBytecode = new ModuleBytecode(classDirectories, testClassDirectories);
+            for (Map.Entry<String, List<MutationResult>> theResults : results.entrySet()) {
+                store(theBytecode, theResults.getKey(), theResults.getValue());
+            }
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer for the extended XML report. Tags, text and numbers are copied straight into
+ * the buffer, so writing a mutation does not create intermediate strings. Text is escaped the same
+ * way as StringUtil.escapeBasicHtmlChars does.
+ */
+class EscapingXmlWriter extends BufferedCharOutput {
+
+    EscapingXmlWriter(Writer aOut) {
+        super(aOut);
+    }
+
+    /**
+     * Writes the given value as is.
+     */
+    EscapingXmlWriter raw(String aValue) throws IOException {
+        append(aValue);
+        return this;
+    }
+
+    /**
+     * Writes the given value, replacing markup and non ASCII characters by character references.
+     */
+    EscapingXmlWriter text(String aValue) throws IOException {
+        for (int i = 0; i < aValue.length(); i++) {
+            char theChar = aValue.charAt(i);
+            if (theChar < 32 || theChar > 127 || theChar == '&' || theChar == '\'' || theChar == '<' || theChar == '>' || theChar == '"') {
+                append('&');
+                append('#');
+                number(theChar);
+                append(';');
+            } else {
+                append(theChar);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the decimal representation of a number.
+     */
+    EscapingXmlWriter number(int aValue) throws IOException {
+        appendNumber(aValue);
+        return this;
+    }
+
+    EscapingXmlWriter startTag(PITestResultListener.Tag aTag) throws IOException {
+        return openTag(aTag).closeTag();
+    }
+
+    /**
+     * Writes the opening of a tag, to be followed by attributes and {@link #closeTag()}.
+     */
+    EscapingXmlWriter openTag(PITestResultListener.Tag aTag) throws IOException {
+        append('<');
+        return raw(aTag.name());
+    }
+
+    EscapingXmlWriter attribute(String aName, String aValue) throws IOException {
+        append(' ');
+        raw(aName);
+        append('=');
+        append('\'');
+        text(aValue);
+        append('\'');
+        return this;
+    }
+
+    EscapingXmlWriter closeTag() throws IOException {
+        append('>');
+        return this;
+    }
+
+    EscapingXmlWriter endTag(PITestResultListener.Tag aTag) throws IOException {
+        append('<');
+        append('/');
+        raw(aTag.name());
+        append('>');
+        return this;
+    }
+
+    EscapingXmlWriter emptyTag(PITestResultListener.Tag aTag) throws IOException {
+        append('<');
+        raw(aTag.name());
+        append('/');
+        append('>');
+        return this;
+    }
+
+    /**
+     * Writes an element with escaped text content, or an empty element for null.
+     */
+    EscapingXmlWriter element(PITestResultListener.Tag aTag, String aValue) throws IOException {
+        if (aValue == null) {
+            return emptyTag(aTag);
+        }
+        return startTag(aTag).text(aValue).endTag(aTag);
+    }
+
+    EscapingXmlWriter element(PITestResultListener.Tag aTag, int aValue) throws IOException {
+        return startTag(aTag).number(aValue).endTag(aTag);
+    }
+}
@@ -0,0 +1,148 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hashes of the bytecode of a module, used in the keys of the mutation result cache. Every class file of the
+ * class and test class directories is hashed once, so the keys of all classes of a module are computed without
+ * reading the class files again.
+ * <p>
+ * The mutations of a class are killed or not depending on the tests of the module, and on the classes it
+ * calls. So besides the hash of the class itself, there are hashes of all test classes and of all other
+ * classes of the module. Tests added by a later patch set, or changes to helpers used by the class, change
+ * these hashes.
+ */
+public class ModuleBytecode {
+
+    private final Map<String, String> classes;
+    private final String testClassesHash;
+
+    public ModuleBytecode(List<File> aClassDirectories, List<File> aTestClassDirectories) throws IOException {
+        classes = hashesOf(aClassDirectories);
+        testClassesHash = combine(hashesOf(aTestClassDirectories));
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] aDigest) {
+        StringBuilder theResult = new StringBuilder();
+        for (byte theByte : aDigest) {
+            theResult.append(String.format("%02x", theByte & 0xFF));
+        }
+        return theResult.toString();
+    }
+
+    /**
+     * Hashes the class files of the given directories by their path relative to the directory. If a class is
+     * found in several directories, the first one is used, like on the classpath.
+     */
+    private static Map<String, String> hashesOf(List<File> aDirectories) throws IOException {
+        Map<String, String> theResult = new TreeMap<>();
+        for (File theDirectory : aDirectories) {
+            hashesOf(theDirectory, "", theResult);
+        }
+        return theResult;
+    }
+
+    private static void hashesOf(File aDirectory, String aPath, Map<String, String> aResult) throws IOException {
+        File[] theFiles = aDirectory.listFiles();
+        if (theFiles == null) {
+            return;
+        }
+        for (File theFile : theFiles) {
+            String thePath = aPath + theFile.getName();
+            if (theFile.isDirectory()) {
+                hashesOf(theFile, thePath + "/", aResult);
+            } else if (thePath.endsWith(".class") && !aResult.containsKey(thePath)) {
+                aResult.put(thePath, toHex(digest().digest(Files.readAllBytes(theFile.toPath()))));
+            }
+        }
+    }
+
+    private static String combine(Map<String, String> aHashes) {
+        MessageDigest theDigest = digest();
+        for (Map.Entry<String, String> theHash : aHashes.entrySet()) {
+            theDigest.update((theHash.getKey() + "=" + theHash.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return toHex(theDigest.digest());
+    }
+
+    /**
+     * Returns the path of the class file of a class, like a/A.class for a.A.
+     */
+    private static String pathOf(String aClassName) {
+        return aClassName.replace('.', '/') + ".class";
+    }
+
+    private static boolean isPartOf(String aPath, String aClassName) {
+        String theClassPath = aClassName.replace('.', '/');
+        return aPath.equals(theClassPath + ".class") || (aPath.startsWith(theClassPath + "$") && aPath.endsWith(".class"));
+    }
+
+    /**
+     * Computes the hash of the bytecode of a class, including its nested classes, or an empty
+     * string if the class is not found.
+     */
+    public String hashOfClass(String aClassName) {
+        if (!classes.containsKey(pathOf(aClassName))) {
+            return "";
+        }
+        Map<String, String> theHashes = new TreeMap<>();
+        for (Map.Entry<String, String> theHash : classes.entrySet()) {
+            if (isPartOf(theHash.getKey(), aClassName)) {
+                theHashes.put(theHash.getKey(), theHash.getValue());
+            }
+        }
+        return combine(theHashes);
+    }
+
+    /**
+     * Computes the hash of the bytecode of all classes of the module except the given class and its nested classes.
+     */
+    public String hashOfOtherClasses(String aClassName) {
+        Map<String, String> theHashes = new TreeMap<>();
+        for (Map.Entry<String, String> theHash : classes.entrySet()) {
+            if (!isPartOf(theHash.getKey(), aClassName)) {
+                theHashes.put(theHash.getKey(), theHash.getValue());
+            }
+        }
+        return combine(theHashes);
+    }
+
+    /**
+     * Computes the hash of the bytecode of all test classes of the module.
+     */
+    public String hashOfTestClasses() {
+        return testClassesHash;
+    }
+
+    /**
+     * Splits a list of directories separated by the path separator, as passed in the listener properties.
+     */
+    public static List<File> directoriesOf(String aDirectories) {
+        List<File> theResult = new ArrayList<>();
+        if (aDirectories != null) {
+            for (String theDirectory : aDirectories.split(File.pathSeparator)) {
+                if (!theDirectory.trim().isEmpty()) {
+                    theResult.add(new File(theDirectory.trim()));
+                }
+            }
+        }
+        return theResult;
+    }
+}
@@ -0,0 +1,122 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * Entry of the mutation result cache, holding the reported mutations of a top level class and its nested
+ * and anonymous classes. An entry is a directory named after the top level class, containing the mutations
+ * in the {@link MutationRecordFormat} and a key file. The key consists of the hashes of the {@link ModuleBytecode},
+ * which are the hashes of the classes, of the other classes of the module and of all its test classes, the reported
+ * mutation status, the PITest version and the mutators. The key file is written last, so entries without a key file
+ * are incomplete.
+ */
+public class MutationCacheEntry {
+
+    public static final String KEY_FILE = "key.properties";
+    public static final String MUTATIONS_FILE = "mutations.ndjson";
+
+    private static final String CLASS_HASH = "class";
+    private static final String OTHER_CLASSES_HASH = "classes";
+    private static final String TEST_CLASSES_HASH = "tests";
+    private static final String STATUS = "status";
+    private static final String PITEST_VERSION = "pitest.version";
+    private static final String MUTATORS = "mutators";
+
+    private final File directory;
+
+    public MutationCacheEntry(File aCacheDirectory, String aClassName) {
+        directory = new File(aCacheDirectory, aClassName);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public File getKeyFile() {
+        return new File(directory, KEY_FILE);
+    }
+
+    public File getMutationsFile() {
+        return new File(directory, MUTATIONS_FILE);
+    }
+
+    public String getClassName() {
+        return directory.getName();
+    }
+
+    /**
+     * Returns the top level class of a class, like a.A for a.A$1, which is the class its results are cached for.
+     */
+    public static String topLevelClassOf(String aClassName) {
+        int p = aClassName.indexOf('$');
+        return p < 0 ? aClassName : aClassName.substring(0, p);
+    }
+
+    public static Properties createKey(ModuleBytecode aBytecode, String aClassName, String aStatus, String aPITestVersion, String aMutators) {
+        Properties theKey = new Properties();
+        theKey.setProperty(CLASS_HASH, aBytecode.hashOfClass(aClassName));
+        theKey.setProperty(OTHER_CLASSES_HASH, aBytecode.hashOfOtherClasses(aClassName));
+        theKey.setProperty(TEST_CLASSES_HASH, aBytecode.hashOfTestClasses());
+        theKey.setProperty(STATUS, aStatus);
+        theKey.setProperty(PITEST_VERSION, aPITestVersion);
+        theKey.setProperty(MUTATORS, aMutators);
+        return theKey;
+    }
+
+    /**
+     * Checks if the entry is complete, was created by the same PITest configuration, and the bytecode of the
+     * class, the other classes and the test classes of its module is unchanged.
+     */
+    public boolean matches(ModuleBytecode aBytecode, String aStatus, String aPITestVersion, String aMutators) throws IOException {
+        File theKeyFile = getKeyFile();
+        if (!theKeyFile.isFile()) {
+            return false;
+        }
+        Properties theKey = new Properties();
+        try (InputStream theStream = new FileInputStream(theKeyFile)) {
+            theKey.load(theStream);
+        }
+        if (!aStatus.equals(theKey.getProperty(STATUS)) || !aPITestVersion.equals(theKey.getProperty(PITEST_VERSION))
+                || !aMutators.equals(theKey.getProperty(MUTATORS))) {
+            return false;
+        }
+        String theClassHash = aBytecode.hashOfClass(getClassName());
+        return !theClassHash.isEmpty() && theClassHash.equals(theKey.getProperty(CLASS_HASH))
+                && aBytecode.hashOfOtherClasses(getClassName()).equals(theKey.getProperty(OTHER_CLASSES_HASH))
+                && aBytecode.hashOfTestClasses().equals(theKey.getProperty(TEST_CLASSES_HASH));
+    }
+
+    /**
+     * Marks the entry as incomplete, before its mutations are written.
+     */
+    public void invalidate() throws IOException {
+        Files.deleteIfExists(getKeyFile().toPath());
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+    }
+
+    /**
+     * Completes the entry after its mutations were written.
+     */
+    public void writeKey(Properties aKey) throws IOException {
+        File theTemp = new File(directory, KEY_FILE + ".tmp");
+        try (OutputStream theStream = new FileOutputStream(theTemp)) {
+            aKey.store(theStream, null);
+        }
+        File theKeyFile = getKeyFile();
+        if (!theTemp.renameTo(theKeyFile)) {
+            theKeyFile.delete();
+            if (!theTemp.renameTo(theKeyFile)) {
+                throw new IOException("Cannot write " + theKeyFile);
+            }
+        }
+    }
+}
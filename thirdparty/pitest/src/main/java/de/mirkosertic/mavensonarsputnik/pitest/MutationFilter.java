@@ -0,0 +1,60 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import org.pitest.mutationtest.MutationResult;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Decides which mutations are written to the report. The filter is configured by listener properties,
+ * passed as pluginConfiguration to the PITest Maven plugin:
+ * <ul>
+ *     <li>pitest.reportstatus : comma separated list of the mutation status to report</li>
+ *     <li>pitest.sourcefiles : comma separated list of the names of the source files to report</li>
+ * </ul>
+ * Without a property, mutations are not filtered by it.
+ */
+public class MutationFilter {
+
+    public static final String REPORT_STATUS = "pitest.reportstatus";
+    public static final String SOURCE_FILES = "pitest.sourcefiles";
+
+    public static final MutationFilter ALL = new MutationFilter(null, null);
+
+    private final Set<String> status;
+    private final Set<String> sourceFiles;
+
+    MutationFilter(Set<String> aStatus, Set<String> aSourceFiles) {
+        status = aStatus;
+        sourceFiles = aSourceFiles;
+    }
+
+    private static Set<String> valuesOf(Properties aProperties, String aKey) {
+        String theValue = aProperties.getProperty(aKey);
+        if (theValue == null) {
+            return null;
+        }
+        Set<String> theResult = new HashSet<>();
+        for (String theElement : theValue.split(",")) {
+            if (!theElement.trim().isEmpty()) {
+                theResult.add(theElement.trim());
+            }
+        }
+        return theResult;
+    }
+
+    public static MutationFilter fromProperties(Properties aProperties) {
+        if (aProperties == null) {
+            return ALL;
+        }
+        return new MutationFilter(valuesOf(aProperties, REPORT_STATUS), valuesOf(aProperties, SOURCE_FILES));
+    }
+
+    public boolean accept(MutationResult aResult) {
+        if (status != null && !status.contains(aResult.getStatus().name())) {
+            return false;
+        }
+        return sourceFiles == null || sourceFiles.contains(aResult.getDetails().getFilename());
+    }
+}
@@ -0,0 +1,42 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+/**
+ * Layout of the indexed mutation record report, a file with one JSON record per line.
+ * Only ASCII characters are written, so character offsets are also byte offsets.
+ * <p>
+ * The file starts with the {@link #HEADER} line, followed by
+ * <ul>
+ *     <li>string records <code>{"s":"value"}</code>, defining the next string id, starting at 0</li>
+ *     <li>mutation records <code>{"m":[status,sourceFile,mutatedClass,mutatedMethod,methodDescription,
+ *     lineNumber,mutator,index,killingTest,description,[testInfo,...]]}</code>, where all values except
+ *     lineNumber and index are string ids, or -1 if there is no value</li>
+ * </ul>
+ * A complete file ends with the footer, which consists of a <code>{"strings":[...]}</code> line containing
+ * all strings in id order, an <code>{"index":[[sourceFile,offset,...],...]}</code> line listing the offsets
+ * of the mutation records of every source file, and a fixed size line pointing to the offset of the strings line.
+ */
+public final class MutationRecordFormat {
+
+    public static final String FILE_NAME = "extended-mutations.ndjson";
+
+    public static final String HEADER = "{\"format\":\"sputnik-mutations\",\"version\":1}";
+
+    public static final String STRING = "{\"s\":";
+    public static final String MUTATION = "{\"m\":[";
+    public static final String STRINGS = "{\"strings\":[";
+    public static final String INDEX = "{\"index\":[";
+    public static final String FOOTER = "{\"footer\":";
+
+    /**
+     * Number of digits of the footer offset, which is padded with zeros.
+     */
+    public static final int FOOTER_DIGITS = 20;
+
+    /**
+     * Length of the footer line, including the terminating newline.
+     */
+    public static final int FOOTER_LENGTH = FOOTER.length() + FOOTER_DIGITS + 2;
+
+    private MutationRecordFormat() {
+    }
+}
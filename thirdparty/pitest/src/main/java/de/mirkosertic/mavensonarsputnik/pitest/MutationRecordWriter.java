@@ -0,0 +1,59 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the JSON records of the {@link MutationRecordFormat}. Strings are escaped to ASCII.
+ */
+class MutationRecordWriter extends BufferedCharOutput {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    MutationRecordWriter(Writer aOut) {
+        super(aOut);
+    }
+
+    MutationRecordWriter raw(String aValue) throws IOException {
+        append(aValue);
+        return this;
+    }
+
+    MutationRecordWriter number(long aValue) throws IOException {
+        appendNumber(aValue);
+        return this;
+    }
+
+    MutationRecordWriter separator() throws IOException {
+        append(',');
+        return this;
+    }
+
+    MutationRecordWriter string(String aValue) throws IOException {
+        append('"');
+        for (int i = 0; i < aValue.length(); i++) {
+            char theChar = aValue.charAt(i);
+            if (theChar == '"' || theChar == '\\') {
+                append('\\');
+                append(theChar);
+            } else if (theChar < 32 || theChar > 126) {
+                append('\\');
+                append('u');
+                append(HEX[(theChar >> 12) & 0xF]);
+                append(HEX[(theChar >> 8) & 0xF]);
+                append(HEX[(theChar >> 4) & 0xF]);
+                append(HEX[theChar & 0xF]);
+            } else {
+                append(theChar);
+            }
+        }
+        append('"');
+        return this;
+    }
+
+    MutationRecordWriter endRecord() throws IOException {
+        append('}');
+        append('\n');
+        return this;
+    }
+}
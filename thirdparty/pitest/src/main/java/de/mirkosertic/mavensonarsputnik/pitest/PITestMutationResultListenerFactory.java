@@ -10,7 +10,8 @@ public class PITestMutationResultListenerFactory implements MutationResultListen
 
     @Override
     public MutationResultListener getListener(Properties aProperties, ListenerArguments aListenerArguments) {
-        return new PITestResultListener(aListenerArguments.getOutputStrategy());
+        return CachingResultListener.wrap(new PITestResultListener(aListenerArguments.getOutputStrategy(), MutationFilter.fromProperties(aProperties)),
+                aProperties);
     }
 
     @Override
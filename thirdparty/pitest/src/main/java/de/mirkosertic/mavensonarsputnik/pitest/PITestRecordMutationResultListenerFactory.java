@@ -0,0 +1,26 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import org.pitest.mutationtest.ListenerArguments;
+import org.pitest.mutationtest.MutationResultListener;
+import org.pitest.mutationtest.MutationResultListenerFactory;
+
+import java.util.Properties;
+
+public class PITestRecordMutationResultListenerFactory implements MutationResultListenerFactory {
+
+    @Override
+    public MutationResultListener getListener(Properties aProperties, ListenerArguments aListenerArguments) {
+        return CachingResultListener.wrap(new PITestRecordResultListener(aListenerArguments.getOutputStrategy(), MutationFilter.fromProperties(aProperties)),
+                aProperties);
+    }
+
+    @Override
+    public String name() {
+        return "EXTENDEDRECORDS";
+    }
+
+    @Override
+    public String description() {
+        return "Sputnik Extended Indexed Record Report";
+    }
+}
@@ -0,0 +1,188 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import org.pitest.coverage.TestInfo;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationResultListener;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.util.ResultOutputStrategy;
+import org.pitest.util.Unchecked;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the mutations in the {@link MutationRecordFormat}, so readers can look up the mutations of
+ * single source files without parsing the whole report. The records are flushed after every class,
+ * so the report can be read while PITest is running, and is readable even if the run does not end.
+ */
+public class PITestRecordResultListener implements MutationResultListener {
+
+    private static class Offsets {
+        private long[] values = new long[8];
+        private int size;
+
+        private void add(long aValue) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = aValue;
+        }
+    }
+
+    private final MutationRecordWriter out;
+    private final MutationFilter filter;
+    private final Map<String, Integer> stringIds;
+    private final List<String> strings;
+    private final Map<Integer, Offsets> index;
+
+    public PITestRecordResultListener(ResultOutputStrategy outputStrategy) {
+        this(outputStrategy, MutationFilter.ALL);
+    }
+
+    public PITestRecordResultListener(ResultOutputStrategy outputStrategy, MutationFilter aFilter) {
+        this(outputStrategy.createWriterForFile(MutationRecordFormat.FILE_NAME), aFilter);
+    }
+
+    public PITestRecordResultListener(Writer aOut) {
+        this(aOut, MutationFilter.ALL);
+    }
+
+    public PITestRecordResultListener(Writer aOut, MutationFilter aFilter) {
+        out = new MutationRecordWriter(aOut);
+        filter = aFilter;
+        stringIds = new HashMap<>();
+        strings = new ArrayList<>();
+        index = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns the id of a string, writing a string record if it is new.
+     */
+    private int idOf(String aValue) throws IOException {
+        if (aValue == null) {
+            return -1;
+        }
+        Integer theId = stringIds.get(aValue);
+        if (theId == null) {
+            theId = strings.size();
+            stringIds.put(aValue, theId);
+            strings.add(aValue);
+            out.raw(MutationRecordFormat.STRING).string(aValue).endRecord();
+        }
+        return theId;
+    }
+
+    private void writeMutation(MutationResult aResult) throws IOException {
+        MutationDetails theDetails = aResult.getDetails();
+
+        int theStatus = idOf(aResult.getStatus().name());
+        int theSourceFile = idOf(theDetails.getFilename());
+        int theMutatedClass = idOf(theDetails.getClassName().asJavaName());
+        int theMutatedMethod = idOf(theDetails.getMethod().name());
+        int theMethodDescription = idOf(theDetails.getId().getLocation().getMethodDesc());
+        int theMutator = idOf(theDetails.getMutator());
+        int theKillingTest = idOf(aResult.getKillingTest().hasSome() ? aResult.getKillingTest().value() : null);
+        int theDescription = idOf(theDetails.getDescription());
+        List<TestInfo> theTests = theDetails.getTestsInOrder();
+        int[] theTestIds = new int[theTests == null ? 0 : theTests.size()];
+        for (int i = 0; i < theTestIds.length; i++) {
+            theTestIds[i] = idOf(theTests.get(i).getName());
+        }
+
+        index.computeIfAbsent(theSourceFile, k -> new Offsets()).add(out.written());
+
+        out.raw(MutationRecordFormat.MUTATION)
+                .number(theStatus).separator()
+                .number(theSourceFile).separator()
+                .number(theMutatedClass).separator()
+                .number(theMutatedMethod).separator()
+                .number(theMethodDescription).separator()
+                .number(theDetails.getLineNumber()).separator()
+                .number(theMutator).separator()
+                .number(theDetails.getFirstIndex()).separator()
+                .number(theKillingTest).separator()
+                .number(theDescription).separator()
+                .raw("[");
+        for (int i = 0; i < theTestIds.length; i++) {
+            if (i > 0) {
+                out.separator();
+            }
+            out.number(theTestIds[i]);
+        }
+        out.raw("]]").endRecord();
+    }
+
+    private void writeFooter() throws IOException {
+        long theFooterOffset = out.written();
+
+        out.raw(MutationRecordFormat.STRINGS);
+        for (int i = 0; i < strings.size(); i++) {
+            if (i > 0) {
+                out.separator();
+            }
+            out.string(strings.get(i));
+        }
+        out.raw("]").endRecord();
+
+        out.raw(MutationRecordFormat.INDEX);
+        boolean theFirst = true;
+        for (Map.Entry<Integer, Offsets> theEntry : index.entrySet()) {
+            if (!theFirst) {
+                out.separator();
+            }
+            theFirst = false;
+            out.raw("[").number(theEntry.getKey());
+            Offsets theOffsets = theEntry.getValue();
+            for (int i = 0; i < theOffsets.size; i++) {
+                out.separator().number(theOffsets.values[i]);
+            }
+            out.raw("]");
+        }
+        out.raw("]").endRecord();
+
+        out.raw(MutationRecordFormat.FOOTER);
+        String theOffset = Long.toString(theFooterOffset);
+        for (int i = theOffset.length(); i < MutationRecordFormat.FOOTER_DIGITS; i++) {
+            out.raw("0");
+        }
+        out.raw(theOffset).endRecord();
+    }
+
+    public void runStart() {
+        try {
+            out.raw(MutationRecordFormat.HEADER).raw("\n");
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
+        }
+    }
+
+    public void handleMutationResult(ClassMutationResults metaData) {
+        try {
+            for (MutationResult theMutation : metaData.getMutations()) {
+                if (filter.accept(theMutation)) {
+                    writeMutation(theMutation);
+                }
+            }
+            // Readers may tail the report, so every class is flushed as a whole
+            out.flush();
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
+        }
+    }
+
+    public void runEnd() {
+        try {
+            writeFooter();
+            out.close();
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
+        }
+    }
+}
@@ -7,12 +7,10 @@ import org.pitest.mutationtest.MutationResult;
 import org.pitest.mutationtest.MutationResultListener;
 import org.pitest.mutationtest.engine.MutationDetails;
 import org.pitest.util.ResultOutputStrategy;
-import org.pitest.util.StringUtil;
 import org.pitest.util.Unchecked;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Iterator;
 import java.util.List;
 
 public class PITestResultListener implements MutationResultListener {
@@ -32,99 +30,96 @@ public class PITestResultListener implements MutationResultListener {
         description;
     }
 
-    private final Writer out;
+    private final EscapingXmlWriter out;
+    private final MutationFilter filter;
 
     public PITestResultListener(ResultOutputStrategy outputStrategy) {
-        this(outputStrategy.createWriterForFile("extended-mutations.xml"));
+        this(outputStrategy, MutationFilter.ALL);
+    }
+
+    public PITestResultListener(ResultOutputStrategy outputStrategy, MutationFilter aFilter) {
+        this(outputStrategy.createWriterForFile("extended-mutations.xml"), aFilter);
     }
 
     public PITestResultListener(Writer aOut) {
-        out = aOut;
+        this(aOut, MutationFilter.ALL);
     }
 
-    private void writeResult(ClassMutationResults metaData) {
-        Iterator var2 = metaData.getMutations().iterator();
+    public PITestResultListener(Writer aOut, MutationFilter aFilter) {
+        out = new EscapingXmlWriter(aOut);
+        filter = aFilter;
+    }
 
-        while (var2.hasNext()) {
-            MutationResult mutation = (MutationResult) var2.next();
-            writeMutationResultXML(mutation);
+    private void writeResult(ClassMutationResults metaData) throws IOException {
+        for (MutationResult theMutation : metaData.getMutations()) {
+            if (filter.accept(theMutation)) {
+                writeMutationResultXML(theMutation);
+            }
         }
-
     }
 
-    private void writeMutationResultXML(MutationResult result) {
-        write(makeNode(makeMutationNode(result), makeMutationAttributes(result), Tag.mutation) + "\n");
-    }
+    private void writeMutationResultXML(MutationResult result) throws IOException {
+        MutationDetails details = result.getDetails();
 
-    private String makeMutationAttributes(MutationResult result) {
-        return "detected=\'" + result.getStatus().isDetected() + "\' status=\'" + result.getStatus() + "\'";
-    }
+        out.openTag(Tag.mutation)
+                .attribute("detected", result.getStatus().isDetected() ? "true" : "false")
+                .attribute("status", result.getStatus().name())
+                .closeTag();
+
+        out.element(Tag.sourceFile, details.getFilename());
+        out.element(Tag.mutatedClass, details.getClassName().asJavaName());
+        out.element(Tag.mutatedMethod, details.getMethod().name());
+        out.element(Tag.methodDescription, details.getId().getLocation().getMethodDesc());
+        out.element(Tag.lineNumber, details.getLineNumber());
+        out.element(Tag.mutator, details.getMutator());
+        out.element(Tag.index, details.getFirstIndex());
+        out.element(Tag.killingTest, killingTestOf(result.getKillingTest()));
+        writeTestInfos(details);
+        out.element(Tag.description, details.getDescription());
 
-    private String makeMutationNode(MutationResult mutation) {
-        MutationDetails details = mutation.getDetails();
-        return makeNode(clean(details.getFilename()), Tag.sourceFile)
-                + makeNode(clean(details.getClassName().asJavaName()), Tag.mutatedClass)
-                + makeNode(clean(details.getMethod().name()), Tag.mutatedMethod)
-                + makeNode(clean(details.getId().getLocation().getMethodDesc()), Tag.methodDescription)
-                + makeNode("" + details.getLineNumber(), Tag.lineNumber)
-                + makeNode(clean(details.getMutator()), Tag.mutator) + makeNode("" + details.getFirstIndex(), Tag.index)
-                + makeNode(createKillingTestDesc(mutation.getKillingTest()), Tag.killingTest)
-                + makeTestInfoNode(details)
-                + makeNode(clean(details.getDescription()), Tag.description);
+        out.endTag(Tag.mutation).raw("\n");
     }
 
-    private String makeTestInfoNode(MutationDetails aDetails) {
+    private void writeTestInfos(MutationDetails aDetails) throws IOException {
         List<TestInfo> tests = aDetails.getTestsInOrder();
 
         if (tests == null || tests.isEmpty()) {
-            return "";
+            return;
         }
-        StringBuilder result = new StringBuilder();
+        out.startTag(Tag.testInfos);
         for (TestInfo info : tests) {
-            result.append(makeNode(info.getName(), Tag.testInfo));
+            out.element(Tag.testInfo, info.getName());
         }
-        return makeNode(result.toString(), Tag.testInfos);
+        out.endTag(Tag.testInfos);
     }
 
-    private String clean(String value) {
-        return StringUtil.escapeBasicHtmlChars(value);
+    private String killingTestOf(Option<String> killingTest) {
+        return killingTest.hasSome() ? killingTest.value() : null;
     }
 
-    private String makeNode(String value, String attributes, Tag tag) {
-        return value != null ? "<" + tag + " " + attributes + ">" + value + "</" + tag + ">" : "<" + tag + attributes + "/>";
-    }
-
-    private String makeNode(String value, Tag tag) {
-        return value != null ? "<" + tag + ">" + value + "</" + tag + ">" : "<" + tag + "/>";
-    }
-
-    private String createKillingTestDesc(Option<String> killingTest) {
-        return killingTest.hasSome() ? clean((String) killingTest.value()) : null;
-    }
-
-    private void write(String value) {
+    public void runStart() {
         try {
-            out.write(value);
-        } catch (IOException var3) {
-            throw Unchecked.translateCheckedException(var3);
+            out.raw("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            out.raw("<mutations>\n");
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
         }
     }
 
-    public void runStart() {
-        write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        write("<mutations>\n");
-    }
-
     public void handleMutationResult(ClassMutationResults metaData) {
-        writeResult(metaData);
+        try {
+            writeResult(metaData);
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
+        }
     }
 
     public void runEnd() {
         try {
-            write("</mutations>\n");
+            out.raw("</mutations>\n");
             out.close();
-        } catch (IOException var2) {
-            throw Unchecked.translateCheckedException(var2);
+        } catch (IOException e) {
+            throw Unchecked.translateCheckedException(e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pitest.classinfo.ClassName;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+
+public class CachingResultListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static MutationResult mutation(int aLine, DetectionStatus aStatus) {
+        return mutation("a.A", aLine, aStatus);
+    }
+
+    private static MutationResult mutation(String aClassName, int aLine, DetectionStatus aStatus) {
+        Location theLocation = new Location(ClassName.fromString(aClassName), MethodName.fromString("run"), "()V");
+        MutationDetails theDetails = new MutationDetails(new MutationIdentifier(theLocation, aLine, "M"), "A.java", "removed call", aLine, 1);
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, aStatus));
+    }
+
+    private static void writeClass(File aDirectory, String aPath, String aContent) throws IOException {
+        File theFile = new File(aDirectory, aPath);
+        theFile.getParentFile().mkdirs();
+        Files.write(theFile.toPath(), aContent.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Properties cacheProperties(File aCache, File aClasses, File aTestClasses) {
+        Properties theProperties = new Properties();
+        theProperties.setProperty(CachingResultListener.CACHE_DIRECTORY, aCache.getPath());
+        theProperties.setProperty(CachingResultListener.CLASS_DIRECTORIES, aClasses.getPath());
+        theProperties.setProperty(CachingResultListener.TEST_CLASS_DIRECTORIES, aTestClasses.getPath());
+        theProperties.setProperty(CachingResultListener.PITEST_VERSION, "1.2.0");
+        theProperties.setProperty(CachingResultListener.MUTATORS, "INCREMENTS,MATH");
+        theProperties.setProperty(MutationFilter.REPORT_STATUS, "SURVIVED");
+        theProperties.setProperty(MutationFilter.SOURCE_FILES, "B.java");
+        return theProperties;
+    }
+
+    private static ModuleBytecode bytecodeOf(File aClasses, File aTestClasses) throws IOException {
+        return new ModuleBytecode(Collections.singletonList(aClasses), Collections.singletonList(aTestClasses));
+    }
+
+    private static String mutationsOf(MutationCacheEntry aEntry) throws IOException {
+        return new String(Files.readAllBytes(aEntry.getMutationsFile().toPath()), StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void testStoreAndMatch() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theTestClasses = folder.newFolder("test-classes");
+        File theCache = folder.newFolder("cache");
+        writeClass(theClasses, "a/A.class", "bytecode");
+        writeClass(theClasses, "a/A$Inner.class", "inner bytecode");
+
+        Properties theProperties = cacheProperties(theCache, theClasses, theTestClasses);
+
+        StringWriter theReport = new StringWriter();
+        PITestRecordResultListener theReportListener = new PITestRecordResultListener(theReport, MutationFilter.fromProperties(theProperties));
+        CachingResultListener theListener = (CachingResultListener) CachingResultListener.wrap(theReportListener, theProperties);
+        theListener.runStart();
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(mutation(1, DetectionStatus.SURVIVED))));
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(mutation(2, DetectionStatus.KILLED), mutation(3, DetectionStatus.SURVIVED))));
+        theListener.runEnd();
+
+        MutationCacheEntry theEntry = new MutationCacheEntry(theCache, "a.A");
+        ModuleBytecode theBytecode = bytecodeOf(theClasses, theTestClasses);
+        assertTrue(theEntry.matches(theBytecode, "SURVIVED", "1.2.0", "INCREMENTS,MATH"));
+        assertFalse(theEntry.matches(theBytecode, "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+        assertFalse(theEntry.matches(theBytecode, "SURVIVED", "1.3.0", "INCREMENTS,MATH"));
+        assertFalse(theEntry.matches(theBytecode, "SURVIVED", "1.2.0", "INCREMENTS"));
+
+        // The cache ignores the source files of the review, but only contains the reported status
+        assertEquals(2, mutationsOf(theEntry).split("\\{\"m\":", -1).length - 1);
+        assertFalse(theReport.toString().contains("{\"m\":"));
+
+        writeClass(theClasses, "a/A$Inner.class", "changed inner bytecode");
+        assertFalse(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED", "1.2.0", "INCREMENTS,MATH"));
+    }
+
+    @Test
+    public void testAnonymousClassesAreStoredWithTheirTopLevelClass() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theTestClasses = folder.newFolder("test-classes");
+        File theCache = folder.newFolder("cache");
+        writeClass(theClasses, "a/A.class", "bytecode");
+        writeClass(theClasses, "a/A$1.class", "anonymous bytecode");
+
+        Properties theProperties = cacheProperties(theCache, theClasses, theTestClasses);
+        PITestRecordResultListener theReportListener = new PITestRecordResultListener(new StringWriter(), MutationFilter.fromProperties(theProperties));
+        CachingResultListener theListener = (CachingResultListener) CachingResultListener.wrap(theReportListener, theProperties);
+        theListener.runStart();
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(mutation("a.A", 1, DetectionStatus.SURVIVED))));
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(mutation("a.A$1", 2, DetectionStatus.SURVIVED))));
+        theListener.runEnd();
+
+        assertFalse(new MutationCacheEntry(theCache, "a.A$1").getDirectory().exists());
+        MutationCacheEntry theEntry = new MutationCacheEntry(theCache, "a.A");
+        assertTrue(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED", "1.2.0", "INCREMENTS,MATH"));
+        String theMutations = mutationsOf(theEntry);
+        assertEquals(2, theMutations.split("\\{\"m\":", -1).length - 1);
+        assertTrue(theMutations.contains("a.A$1"));
+
+        writeClass(theClasses, "a/A$1.class", "changed anonymous bytecode");
+        assertFalse(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED", "1.2.0", "INCREMENTS,MATH"));
+    }
+
+    private static MutationCacheEntry storeResults(File aCache, File aClasses, File aTestClasses, MutationResult aResult) {
+        Properties theProperties = cacheProperties(aCache, aClasses, aTestClasses);
+        theProperties.setProperty(MutationFilter.REPORT_STATUS, "SURVIVED,NO_COVERAGE");
+        CachingResultListener theListener = (CachingResultListener) CachingResultListener.wrap(
+                new PITestRecordResultListener(new StringWriter(), MutationFilter.fromProperties(theProperties)), theProperties);
+        theListener.runStart();
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(aResult)));
+        theListener.runEnd();
+        return new MutationCacheEntry(aCache, "a.A");
+    }
+
+    @Test
+    public void testNewTestClassInvalidatesUncoveredClass() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theTestClasses = folder.newFolder("test-classes");
+        writeClass(theClasses, "a/A.class", "bytecode");
+        writeClass(theTestClasses, "b/BTest.class", "test bytecode");
+
+        MutationCacheEntry theEntry = storeResults(folder.newFolder("cache"), theClasses, theTestClasses, mutation(1, DetectionStatus.NO_COVERAGE));
+        assertTrue(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+
+        writeClass(theTestClasses, "a/ATest.class", "new test bytecode");
+        assertFalse(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+    }
+
+    @Test
+    public void testNewTestClassInvalidatesSurvivedMutations() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theTestClasses = folder.newFolder("test-classes");
+        writeClass(theClasses, "a/A.class", "bytecode");
+        writeClass(theTestClasses, "a/ATest.class", "test bytecode");
+
+        MutationCacheEntry theEntry = storeResults(folder.newFolder("cache"), theClasses, theTestClasses, mutation(1, DetectionStatus.SURVIVED));
+        assertTrue(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+
+        writeClass(theTestClasses, "a/AOtherTest.class", "new test bytecode");
+        assertFalse(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+    }
+
+    @Test
+    public void testOtherClassesOfTheModuleArePartOfTheKey() throws IOException {
+        File theClasses = folder.newFolder("classes");
+        File theTestClasses = folder.newFolder("test-classes");
+        writeClass(theClasses, "a/A.class", "bytecode");
+        writeClass(theClasses, "a/Helper.class", "helper bytecode");
+
+        MutationCacheEntry theEntry = storeResults(folder.newFolder("cache"), theClasses, theTestClasses, mutation(1, DetectionStatus.SURVIVED));
+        assertTrue(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+
+        writeClass(theClasses, "a/Helper.class", "changed helper bytecode");
+        assertFalse(theEntry.matches(bytecodeOf(theClasses, theTestClasses), "SURVIVED,NO_COVERAGE", "1.2.0", "INCREMENTS,MATH"));
+    }
+}
@@ -0,0 +1,52 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pitest.classinfo.ClassName;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+
+import java.util.Properties;
+
+public class MutationFilterTest {
+
+    private static MutationResult mutation(String aFile, DetectionStatus aStatus) {
+        Location theLocation = new Location(ClassName.fromString("a.A"), MethodName.fromString("run"), "()V");
+        MutationDetails theDetails = new MutationDetails(new MutationIdentifier(theLocation, 1, "M"), aFile, "removed call", 1, 1);
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, aStatus));
+    }
+
+    @Test
+    public void testWithoutProperties() {
+        MutationFilter theFilter = MutationFilter.fromProperties(new Properties());
+        assertTrue(theFilter.accept(mutation("A.java", DetectionStatus.KILLED)));
+        assertTrue(MutationFilter.fromProperties(null).accept(mutation("A.java", DetectionStatus.KILLED)));
+    }
+
+    @Test
+    public void testFilter() {
+        Properties theProperties = new Properties();
+        theProperties.setProperty(MutationFilter.REPORT_STATUS, "SURVIVED, NO_COVERAGE");
+        theProperties.setProperty(MutationFilter.SOURCE_FILES, "A.java,B.java");
+        MutationFilter theFilter = MutationFilter.fromProperties(theProperties);
+
+        assertTrue(theFilter.accept(mutation("A.java", DetectionStatus.SURVIVED)));
+        assertTrue(theFilter.accept(mutation("B.java", DetectionStatus.NO_COVERAGE)));
+        assertFalse(theFilter.accept(mutation("A.java", DetectionStatus.KILLED)));
+        assertFalse(theFilter.accept(mutation("C.java", DetectionStatus.SURVIVED)));
+    }
+
+    @Test
+    public void testEmptySourceFiles() {
+        Properties theProperties = new Properties();
+        theProperties.setProperty(MutationFilter.SOURCE_FILES, "");
+        assertFalse(MutationFilter.fromProperties(theProperties).accept(mutation("A.java", DetectionStatus.SURVIVED)));
+    }
+}
@@ -0,0 +1,67 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.pitest.classinfo.ClassName;
+import org.pitest.coverage.TestInfo;
+import org.pitest.functional.Option;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class PITestRecordResultListenerTest {
+
+    private static MutationResult mutation(String aClass, String aFile, int aLine, DetectionStatus aStatus) {
+        Location theLocation = new Location(ClassName.fromString(aClass), MethodName.fromString("run"), "()V");
+        MutationIdentifier theId = new MutationIdentifier(theLocation, 1, "M");
+        MutationDetails theDetails = new MutationDetails(theId, aFile, "removed \"call\" \u00e4", aLine, 1);
+        theDetails.addTestsInOrder(Collections.singletonList(new TestInfo("a.ATest", "testRun", 1, Option.<ClassName>none(), 1)));
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, aStatus));
+    }
+
+    @Test
+    public void testOutput() {
+        StringWriter theWriter = new StringWriter();
+        PITestRecordResultListener theListener = new PITestRecordResultListener(theWriter);
+        theListener.runStart();
+        theListener.handleMutationResult(new ClassMutationResults(Arrays.asList(
+                mutation("a.A", "A.java", 10, DetectionStatus.SURVIVED),
+                mutation("a.B", "B.java", 20, DetectionStatus.SURVIVED))));
+        theListener.runEnd();
+
+        String theFirstMutation = "{\"m\":[0,1,2,3,4,10,5,1,-1,6,[7]]}\n";
+        String theSecondMutation = "{\"m\":[0,8,9,3,4,20,5,1,-1,6,[7]]}\n";
+        String theBody = MutationRecordFormat.HEADER + "\n"
+                + "{\"s\":\"SURVIVED\"}\n"
+                + "{\"s\":\"A.java\"}\n"
+                + "{\"s\":\"a.A\"}\n"
+                + "{\"s\":\"run\"}\n"
+                + "{\"s\":\"()V\"}\n"
+                + "{\"s\":\"M\"}\n"
+                + "{\"s\":\"removed \\\"call\\\" \\u00e4\"}\n"
+                + "{\"s\":\"testRun\"}\n";
+        int theFirstOffset = theBody.length();
+        theBody = theBody + theFirstMutation
+                + "{\"s\":\"B.java\"}\n"
+                + "{\"s\":\"a.B\"}\n";
+        int theSecondOffset = theBody.length();
+        theBody = theBody + theSecondMutation;
+
+        String theExpected = theBody
+                + "{\"strings\":[\"SURVIVED\",\"A.java\",\"a.A\",\"run\",\"()V\",\"M\",\"removed \\\"call\\\" \\u00e4\",\"testRun\",\"B.java\",\"a.B\"]}\n"
+                + "{\"index\":[[1," + theFirstOffset + "],[8," + theSecondOffset + "]]}\n"
+                + "{\"footer\":" + String.format("%020d", theBody.length()) + "}\n";
+
+        assertEquals(theExpected, theWriter.toString());
+    }
+}
@@ -0,0 +1,55 @@
+package de.mirkosertic.mavensonarsputnik.pitest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.pitest.classinfo.ClassName;
+import org.pitest.coverage.TestInfo;
+import org.pitest.functional.Option;
+import org.pitest.mutationtest.ClassMutationResults;
+import org.pitest.mutationtest.DetectionStatus;
+import org.pitest.mutationtest.MutationResult;
+import org.pitest.mutationtest.MutationStatusTestPair;
+import org.pitest.mutationtest.engine.Location;
+import org.pitest.mutationtest.engine.MethodName;
+import org.pitest.mutationtest.engine.MutationDetails;
+import org.pitest.mutationtest.engine.MutationIdentifier;
+
+import java.io.StringWriter;
+import java.util.Collections;
+
+public class PITestResultListenerTest {
+
+    private static MutationResult mutation(int aLine, DetectionStatus aStatus, String aKillingTest) {
+        Location theLocation = new Location(ClassName.fromString("de.mirkosertic.Example"), MethodName.fromString("compute"), "(I)I");
+        MutationIdentifier theId = new MutationIdentifier(theLocation, 3, "org.pitest.mutationtest.engine.gregor.mutators.MathMutator");
+        MutationDetails theDetails = new MutationDetails(theId, "Example.java", "Replaced <integer> & \"addition\"", aLine, 1);
+        theDetails.addTestsInOrder(Collections.singletonList(new TestInfo("de.mirkosertic.ExampleTest", "testCompute<>", 1, Option.<ClassName>none(), 1)));
+        return new MutationResult(theDetails, new MutationStatusTestPair(1, aStatus, aKillingTest));
+    }
+
+    @Test
+    public void testOutput() {
+        StringWriter theWriter = new StringWriter();
+        PITestResultListener theListener = new PITestResultListener(theWriter);
+        theListener.runStart();
+        theListener.handleMutationResult(new ClassMutationResults(Collections.singletonList(mutation(42, DetectionStatus.SURVIVED, null))));
+        theListener.runEnd();
+
+        assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<mutations>\n"
+                + "<mutation detected='false' status='SURVIVED'>"
+                + "<sourceFile>Example.java</sourceFile>"
+                + "<mutatedClass>de.mirkosertic.Example</mutatedClass>"
+                + "<mutatedMethod>compute</mutatedMethod>"
+                + "<methodDescription>(I)I</methodDescription>"
+                + "<lineNumber>42</lineNumber>"
+                + "<mutator>org.pitest.mutationtest.engine.gregor.mutators.MathMutator</mutator>"
+                + "<index>3</index>"
+                + "<killingTest/>"
+                + "<testInfos><testInfo>testCompute&#60;&#62;</testInfo></testInfos>"
+                + "<description>Replaced &#60;integer&#62; &#38; &#34;addition&#34;</description>"
+                + "</mutation>\n"
+                + "</mutations>\n", theWriter.toString());
+    }
+}